@@ -1,246 +1,377 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.crypto;
-
-import ch.hsr.xclavis.keys.SessionKey;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import org.bouncycastle.crypto.engines.AESEngine;
-import org.bouncycastle.crypto.io.CipherInputStream;
-import org.bouncycastle.crypto.io.CipherOutputStream;
-import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
-import org.bouncycastle.crypto.modes.AEADBlockCipher;
-import org.bouncycastle.crypto.modes.GCMBlockCipher;
-import org.bouncycastle.crypto.params.AEADParameters;
-import org.bouncycastle.crypto.params.KeyParameter;
-
-/**
- * This class provides all AES cryption funtions in the GCM-mode.
- *
- * @author Gian Poltéra
- */
-public class AESGCM {
-
-    private final static byte[] BLOCK = new byte[16];
-    private final AEADParameters cipherParameters;
-
-    /**
-     * Create a new AESGCM instance with given key and iv.
-     *
-     * @param key the key for the encryption/decryption
-     * @param iv the initialvector for the encryption/decryption
-     */
-    public AESGCM(byte[] key, byte[] iv) {
-        this.cipherParameters = new AEADParameters(new KeyParameter(key), BLOCK.length * Byte.SIZE, iv);
-    }
-
-    /**
-     * Encrypts a byte-array to a specific output file. At the beginning of the
-     * file, the SessionID and initialvector is added.
-     *
-     * @param input the byte-array to encrypt
-     * @param output the output-path for the encrypted file
-     * @param sessionKey for adding the SessionID and the IV to the file
-     * @return true, if the encryption was successfully or false if not
-     */
-    public boolean encrypt(byte[] input, String output, SessionKey sessionKey) {
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(true, cipherParameters);
-
-            try (FileOutputStream fos = new FileOutputStream(output);
-                    DataOutputStream dos = new DataOutputStream(fos);
-                    //BufferedOutputStream bos = new BufferedOutputStream(fos);
-                    CipherOutputStream cos = new CipherOutputStream(dos, cipher)) {
-                // Plaintext ID and IV add at the beginning of the file
-                dos.write(sessionKey.getID().getBytes());
-                dos.write(sessionKey.getIV());
-                // Encrypted Data
-                cos.write(input);
-            }
-
-            return true;
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-            return false;
-        }
-    }
-
-    /**
-     * Encrypts a byte-array to a specific output file. No additional infos at
-     * the beginning of the file added.
-     *
-     * @param input the byte-array to encrypt
-     * @param output the output-path for the encrypted file
-     * @return true, if the encryption was successfully or false if not
-     */
-    public boolean encryptKeyStore(byte[] input, String output) {
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(true, cipherParameters);
-
-            try (FileOutputStream fos = new FileOutputStream(output);
-                    DataOutputStream dos = new DataOutputStream(fos);
-                    //BufferedOutputStream bos = new BufferedOutputStream(fos);
-                    CipherOutputStream cos = new CipherOutputStream(dos, cipher)) {
-                // Encrypted Data
-                cos.write(input);
-            }
-
-            return true;
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-            return false;
-        }
-    }
-
-    /**
-     * Decrypts a file to a specific destination.
-     *
-     * @param input the input-path for the encrypted file
-     * @param output the output-path for the decrypted file
-     * @return true, if the decryption was successfully or false if not
-     */
-    public boolean decryptToFile(String input, String output) {
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(false, cipherParameters);
-
-            try (FileInputStream fis = new FileInputStream(input);
-                    CipherInputStream cis = new CipherInputStream(fis, cipher);
-                    FileOutputStream fos = new FileOutputStream(output)) {
-                int i;
-                while ((i = cis.read(BLOCK)) != -1) {
-                    fos.write(BLOCK, 0, i);
-                }
-            }
-            return true;
-        } catch (InvalidCipherTextIOException ex) {
-            System.out.println("Hash for the file is not correct!");
-            return false;
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-            return false;
-        }
-    }
-
-    /**
-     * Decrypts a file to a byte-array.
-     *
-     * @param input the input-path for the encrypted file
-     * @return the decrypted byte-array
-     */
-    public byte[] decryptKeyStore(String input) {
-        byte[] result = null;
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(false, cipherParameters);
-
-            try (FileInputStream fis = new FileInputStream(input);
-                    CipherInputStream cis = new CipherInputStream(fis, cipher);
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                int i;
-                while ((i = cis.read(BLOCK)) != -1) {
-                    baos.write(BLOCK, 0, i);
-                }
-                result = baos.toByteArray();
-            }
-        } catch (InvalidCipherTextIOException ex) {
-            System.out.println("Wrong Password or Hash for the file is not correct!");
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        return result;
-    }
-
-     /**
-     * Decrypts a byte-array to a byte-array.
-     *
-     * @param input the encrypted byte-array
-     * @return the decrypted byte-array
-     */
-    public byte[] decryptToByteStream(byte[] input) {
-        byte[] result = null;
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(false, cipherParameters);
-
-            try (ByteArrayInputStream bais = new ByteArrayInputStream(input);
-                    CipherInputStream cis = new CipherInputStream(bais, cipher);
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                int i;
-                while ((i = cis.read(BLOCK)) != -1) {
-                    baos.write(BLOCK, 0, i);
-                }
-                result = baos.toByteArray();
-            }
-        } catch (InvalidCipherTextIOException ex) {
-            System.out.println("Hash for the file is not correct!");
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        return result;
-    }
-
-    /**
-     * Checks if the key is valid for a specific encrypted file.
-     * 
-     * @param input the input-path for the encrypted file 
-     * @return true, if the key is correct or false otherwise
-     */
-    public boolean isKeyCorrect(String input) {
-        try {
-            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
-            cipher.init(false, cipherParameters);
-
-            try (FileInputStream fis = new FileInputStream(input);
-                    CipherInputStream cis = new CipherInputStream(fis, cipher);
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                int i;
-                while ((i = cis.read(BLOCK)) != -1) {
-                    baos.write(BLOCK, 0, i);
-                }
-            }
-        } catch (InvalidCipherTextIOException ex) {
-            return false;
-        } catch (IOException ex) {
-            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        return true;
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import ch.hsr.xclavis.helpers.Abortable;
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.helpers.MappedInputStream;
+import ch.hsr.xclavis.helpers.PositionalOutputStream;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.io.CipherInputStream;
+import org.bouncycastle.crypto.io.CipherOutputStream;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+/**
+ * This class provides all AES cryption funtions in the GCM-mode.
+ *
+ * Data in the memory is cryptographed with the fastest AeadEngine. The
+ * streams use the GCMBlockCipher of BouncyCastle, because the JCA cipher
+ * keeps the whole plaintext in the memory until the tag is verified.
+ *
+ * @author Gian Poltéra
+ */
+public class AESGCM {
+
+    private final static int TAG_SIZE = 16;
+    private final static int STREAM_BUFFER_SIZE = 64 * 1024;
+    private final static long MAPPED_IO_THRESHOLD = 64 * 1024 * 1024;
+    private final AEADParameters cipherParameters;
+    private final AeadEngine engine;
+    private final byte[] key;
+    private final byte[] iv;
+    private boolean mappedIO = false;
+
+    /**
+     * Create a new AESGCM instance with given key and iv.
+     *
+     * @param key the key for the encryption/decryption
+     * @param iv the initialvector for the encryption/decryption
+     */
+    public AESGCM(byte[] key, byte[] iv) {
+        this.cipherParameters = new AEADParameters(new KeyParameter(key), TAG_SIZE * Byte.SIZE, iv);
+        this.engine = AeadEngines.getDefault();
+        this.key = key.clone();
+        this.iv = iv.clone();
+    }
+
+    /**
+     * Activates the memory-mapped I/O backend. Large input files are then read
+     * through mapped windows and output files are written with positional
+     * writes of large blocks.
+     *
+     * @param mappedIO true, for memory-mapped I/O or false for stream I/O
+     */
+    public void setMappedIO(boolean mappedIO) {
+        this.mappedIO = mappedIO;
+    }
+
+    /**
+     * Opens a file for reading. With memory-mapped I/O, files from 64 MB are
+     * read through mapped windows, smaller files always with stream I/O.
+     *
+     * @param input the input-path of the file
+     * @param mappedIO true, for memory-mapped I/O or false for stream I/O
+     * @return the stream to read the file from
+     * @throws IOException if the file could not be opened
+     */
+    public static InputStream getInputStream(String input, boolean mappedIO) throws IOException {
+        Path path = Paths.get(input);
+        if (mappedIO && Files.size(path) >= MAPPED_IO_THRESHOLD) {
+            return new MappedInputStream(path);
+        }
+
+        return new BufferedInputStream(Files.newInputStream(path), STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a file for writing. With memory-mapped I/O, the file is written
+     * with positional writes of large blocks, otherwise with stream I/O.
+     *
+     * @param output the output-path of the file
+     * @param mappedIO true, for positional writes or false for stream I/O
+     * @return the stream to write the file to
+     * @throws IOException if the file could not be created
+     */
+    public static OutputStream getOutputStream(String output, boolean mappedIO) throws IOException {
+        Path path = Paths.get(output);
+        if (mappedIO) {
+            return new PositionalOutputStream(path);
+        }
+
+        return new BufferedOutputStream(Files.newOutputStream(path), STREAM_BUFFER_SIZE);
+    }
+
+    /**
+     * Encrypts a byte-array to a specific output file. At the beginning of the
+     * file, the SessionID and initialvector is added.
+     *
+     * @param input the byte-array to encrypt
+     * @param output the output-path for the encrypted file
+     * @param sessionKey for adding the SessionID and the IV to the file
+     * @return true, if the encryption was successfully or false if not
+     */
+    public boolean encrypt(byte[] input, String output, SessionKey sessionKey) {
+        try {
+            byte[] encrypted = engine.encrypt(key, iv, null, input, 0, input.length);
+
+            try (FileOutputStream fos = new FileOutputStream(output)) {
+                // Plaintext ID and IV add at the beginning of the file
+                fos.write(sessionKey.getID().getBytes());
+                fos.write(sessionKey.getIV());
+                // Encrypted Data
+                fos.write(encrypted);
+            }
+
+            return true;
+        } catch (IOException ex) {
+            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Opens a stream that encrypts everything written to it into a specific
+     * output file. At the beginning of the file, the SessionID and
+     * initialvector is added. The authentication tag is appended when the
+     * stream is closed. A failed encryption must abort the returned stream
+     * instead, then no tag is appended and the partial file is deleted.
+     *
+     * @param output the output-path for the encrypted file
+     * @param sessionKey for adding the SessionID and the IV to the file
+     * @return the stream to write the plaintext to
+     * @throws IOException if the output file could not be created
+     */
+    public OutputStream getEncryptionStream(String output, SessionKey sessionKey) throws IOException {
+        AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+        cipher.init(true, cipherParameters);
+
+        OutputStream os = getOutputStream(output, mappedIO);
+        try {
+            // Plaintext ID and IV add at the beginning of the file
+            os.write(sessionKey.getID().getBytes());
+            os.write(sessionKey.getIV());
+        } catch (IOException ex) {
+            os.close();
+            throw ex;
+        }
+
+        // Encrypted Data
+        return new EncryptionStream(new CipherOutputStream(os, cipher), os, Paths.get(output));
+    }
+
+    /**
+     * Encrypts a byte-array to a specific output file. No additional infos at
+     * the beginning of the file added.
+     *
+     * @param input the byte-array to encrypt
+     * @param output the output-path for the encrypted file
+     * @return true, if the encryption was successfully or false if not
+     */
+    public boolean encryptKeyStore(byte[] input, String output) {
+        try {
+            byte[] encrypted = engine.encrypt(key, iv, null, input, 0, input.length);
+
+            try (FileOutputStream fos = new FileOutputStream(output)) {
+                // Encrypted Data
+                fos.write(encrypted);
+            }
+
+            return true;
+        } catch (IOException ex) {
+            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Decrypts a file to a specific destination.
+     *
+     * @param input the input-path for the encrypted file
+     * @param output the output-path for the decrypted file
+     * @return true, if the decryption was successfully or false if not
+     */
+    public boolean decryptToFile(String input, String output) {
+        try {
+            AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+            cipher.init(false, cipherParameters);
+
+            try (InputStream fis = getInputStream(input, mappedIO);
+                    CipherInputStream cis = new CipherInputStream(fis, cipher);
+                    OutputStream fos = getOutputStream(output, mappedIO)) {
+                byte[] buffer = BufferPool.getShared().acquire();
+                try {
+                    int i;
+                    while ((i = cis.read(buffer)) != -1) {
+                        fos.write(buffer, 0, i);
+                    }
+                } finally {
+                    BufferPool.getShared().release(buffer);
+                }
+            }
+            return true;
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Hash for the file is not correct!");
+            return false;
+        } catch (IOException ex) {
+            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Opens a stream that decrypts the data read from the given input stream.
+     * The input stream must be positioned behind any plaintext header. The
+     * authentication tag is verified when the end of the stream is reached,
+     * a wrong tag results in an InvalidCipherTextIOException.
+     *
+     * @param input the stream with the encrypted data
+     * @return the stream to read the plaintext from
+     */
+    public InputStream getDecryptionStream(InputStream input) {
+        AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+        cipher.init(false, cipherParameters);
+
+        return new CipherInputStream(input, cipher);
+    }
+
+    /**
+     * Decrypts a file to a byte-array.
+     *
+     * @param input the input-path for the encrypted file
+     * @return the decrypted byte-array
+     */
+    public byte[] decryptKeyStore(String input) {
+        byte[] result = null;
+        try {
+            byte[] encrypted = Files.readAllBytes(Paths.get(input));
+            result = engine.decrypt(key, iv, null, encrypted, 0, encrypted.length);
+        } catch (InvalidCipherTextException ex) {
+            System.out.println("Wrong Password or Hash for the file is not correct!");
+        } catch (IOException ex) {
+            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        return result;
+    }
+
+     /**
+     * Decrypts a byte-array to a byte-array.
+     *
+     * @param input the encrypted byte-array
+     * @return the decrypted byte-array
+     */
+    public byte[] decryptToByteStream(byte[] input) {
+        byte[] result = null;
+        try {
+            result = engine.decrypt(key, iv, null, input, 0, input.length);
+        } catch (InvalidCipherTextException ex) {
+            System.out.println("Hash for the file is not correct!");
+        }
+
+        return result;
+    }
+
+    /**
+     * Verifies the authentication tag of the data read from the given input
+     * stream without decrypting it. The input stream must be positioned
+     * behind any plaintext header.
+     *
+     * @param input the stream with the encrypted data
+     * @return true, if the tag is correct or false otherwise
+     * @throws IOException if the stream could not be read
+     */
+    public boolean verify(InputStream input) throws IOException {
+        return GCMVerifier.verify(key, iv, null, input);
+    }
+
+    /**
+     * Checks if the key is valid for a specific encrypted file.
+     * 
+     * @param input the input-path for the encrypted file 
+     * @return true, if the key is correct or false otherwise
+     */
+    public boolean isKeyCorrect(String input) {
+        try (InputStream fis = getInputStream(input, mappedIO)) {
+            return verify(fis);
+        } catch (IOException ex) {
+            Logger.getLogger(AESGCM.class.getName()).log(Level.SEVERE, null, ex);
+        }
+
+        return true;
+    }
+
+    private static class EncryptionStream extends FilterOutputStream implements Abortable {
+
+        private final OutputStream file;
+        private final Path path;
+        private boolean closed = false;
+
+        EncryptionStream(OutputStream cipher, OutputStream file, Path path) {
+            super(cipher);
+            this.file = file;
+            this.path = path;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            super.close();
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // The cipher is not finished, so no tag is written over the partial data
+            try {
+                file.close();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
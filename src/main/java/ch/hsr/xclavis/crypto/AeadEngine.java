@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * An implementation of AES in the GCM-mode with a 128 bit authentication tag.
+ * Each call is independent and uses its own cipher instance, therefore an
+ * engine can be used by several threads at the same time.
+ *
+ * @author Gian Poltéra
+ */
+public interface AeadEngine {
+
+    /**
+     * Gets the name of the engine.
+     *
+     * @return the name of the engine
+     */
+    String getName();
+
+    /**
+     * Encrypts the given input.
+     *
+     * @param key the key for the encryption
+     * @param nonce the nonce for the encryption
+     * @param associatedData the authenticated data
+     * @param input the plaintext
+     * @param offset the offset of the plaintext in the input
+     * @param length the length of the plaintext
+     * @return the ciphertext followed by the authentication tag
+     */
+    byte[] encrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length);
+
+    /**
+     * Decrypts and verifies the given input.
+     *
+     * @param key the key for the decryption
+     * @param nonce the nonce for the decryption
+     * @param associatedData the authenticated data
+     * @param input the ciphertext followed by the authentication tag
+     * @param offset the offset of the ciphertext in the input
+     * @param length the length of the ciphertext with the tag
+     * @return the plaintext
+     * @throws InvalidCipherTextException if the authentication tag is wrong
+     */
+    byte[] decrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length) throws InvalidCipherTextException;
+}
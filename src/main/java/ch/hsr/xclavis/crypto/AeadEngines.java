@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * This class selects the AeadEngine for the cryption. The available engines
+ * are probed once with a small amount of data and the fastest engine on the
+ * running JVM is used from then on.
+ *
+ * @author Gian Poltéra
+ */
+public final class AeadEngines {
+
+    private final static int PROBE_SIZE = 256 * 1024;
+    private final static int PROBE_ROUNDS = 4;
+
+    private AeadEngines() {
+    }
+
+    /**
+     * Gets the fastest engine on the running JVM. The engines are probed when
+     * this method is called the first time.
+     *
+     * @return the fastest AeadEngine
+     */
+    public static AeadEngine getDefault() {
+        return Holder.FASTEST;
+    }
+
+    /**
+     * Gets all engines, which are available on the running JVM.
+     *
+     * @return a list of the available engines
+     */
+    public static List<AeadEngine> getAvailable() {
+        List<AeadEngine> engines = new ArrayList<>();
+        engines.add(new BouncyCastleAeadEngine());
+        if (JCAAeadEngine.isAvailable()) {
+            engines.add(new JCAAeadEngine());
+        }
+
+        return engines;
+    }
+
+    /**
+     * Probes the given engines and returns the fastest one. An engine, which
+     * fails or can not decrypt its own output, is not considered.
+     *
+     * @param engines the engines to probe
+     * @return the fastest engine
+     */
+    public static AeadEngine probe(List<AeadEngine> engines) {
+        byte[] key = new byte[32];
+        byte[] nonce = new byte[12];
+        byte[] associatedData = new byte[16];
+        byte[] data = new byte[PROBE_SIZE];
+
+        AeadEngine fastest = null;
+        long fastestTime = Long.MAX_VALUE;
+        for (AeadEngine engine : engines) {
+            try {
+                // The first round warms up the engine and is not measured
+                long time = 0;
+                for (int i = 0; i <= PROBE_ROUNDS; i++) {
+                    nonce[0] = (byte) i;
+                    long before = System.nanoTime();
+                    byte[] ciphertext = engine.encrypt(key, nonce, associatedData, data, 0, data.length);
+                    engine.decrypt(key, nonce, associatedData, ciphertext, 0, ciphertext.length);
+                    if (i > 0) {
+                        time += System.nanoTime() - before;
+                    }
+                }
+                Logger.getLogger(AeadEngines.class.getName()).log(Level.INFO, "AEAD engine {0}: {1} MB/s",
+                        new Object[]{engine.getName(), PROBE_SIZE * PROBE_ROUNDS * 2 * 1000L / Math.max(time, 1)});
+                if (time < fastestTime) {
+                    fastest = engine;
+                    fastestTime = time;
+                }
+            } catch (InvalidCipherTextException | RuntimeException ex) {
+                Logger.getLogger(AeadEngines.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+
+        return fastest != null ? fastest : new BouncyCastleAeadEngine();
+    }
+
+    private static class Holder {
+
+        private final static AeadEngine FASTEST = probe(getAvailable());
+    }
+}
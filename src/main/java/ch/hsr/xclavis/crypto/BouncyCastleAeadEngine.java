@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import java.util.Arrays;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.AEADBlockCipher;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+
+/**
+ * AES-GCM with the AESEngine of BouncyCastle. It is implemented in pure Java
+ * and therefore available on every JVM.
+ *
+ * @author Gian Poltéra
+ */
+public class BouncyCastleAeadEngine implements AeadEngine {
+
+    private final static int TAG_SIZE = 16;
+
+    @Override
+    public String getName() {
+        return "BouncyCastle";
+    }
+
+    @Override
+    public byte[] encrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length) {
+        AEADBlockCipher cipher = getCipher(true, key, nonce, associatedData);
+        byte[] output = new byte[cipher.getOutputSize(length)];
+        int outputLength = cipher.processBytes(input, offset, length, output, 0);
+        try {
+            cipher.doFinal(output, outputLength);
+        } catch (InvalidCipherTextException ex) {
+            // Can not happen in the encryption mode
+            throw new IllegalStateException(ex);
+        }
+
+        return output;
+    }
+
+    @Override
+    public byte[] decrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length) throws InvalidCipherTextException {
+        AEADBlockCipher cipher = getCipher(false, key, nonce, associatedData);
+        byte[] output = new byte[cipher.getOutputSize(length)];
+        int outputLength = cipher.processBytes(input, offset, length, output, 0);
+        outputLength += cipher.doFinal(output, outputLength);
+
+        return outputLength == output.length ? output : Arrays.copyOf(output, outputLength);
+    }
+
+    private AEADBlockCipher getCipher(boolean encryption, byte[] key, byte[] nonce, byte[] associatedData) {
+        AEADBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+        cipher.init(encryption, new AEADParameters(new KeyParameter(key), TAG_SIZE * Byte.SIZE, nonce, associatedData));
+
+        return cipher;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import ch.hsr.xclavis.helpers.BufferPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.gcm.GCMMultiplier;
+import org.bouncycastle.crypto.modes.gcm.Tables8kGCMMultiplier;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.Pack;
+
+/**
+ * This class verifies the authentication tag of AES-GCM ciphertext without
+ * decrypting it.
+ *
+ * The tag of GCM is the GHASH of the associated data and the ciphertext,
+ * masked with the encrypted initial counter block. Only this one block is
+ * encrypted, so a verification costs the reading and the GHASH of the data,
+ * but not the counter mode decryption and no plaintext is produced.
+ *
+ * @author Gian Poltéra
+ */
+public class GCMVerifier {
+
+    /**
+     * The size of the authentication tag in bytes.
+     */
+    public final static int TAG_SIZE = 16;
+    private final static int BLOCK_SIZE = 16;
+    private final static int NONCE_SIZE = 12;
+    private final static int STREAM_BUFFER_SIZE = 1024 * 1024;
+
+    private final GCMMultiplier multiplier = new Tables8kGCMMultiplier();
+    private final byte[] tagMask = new byte[BLOCK_SIZE];
+    private final byte[] hash = new byte[BLOCK_SIZE];
+    private final long associatedDataLength;
+    private long ciphertextLength = 0;
+    private int position = 0;
+
+    /**
+     * Creates a new GCMVerifier for a ciphertext.
+     *
+     * @param key the key of the encryption
+     * @param nonce the nonce of the encryption
+     * @param associatedData the authenticated header data or null
+     */
+    public GCMVerifier(byte[] key, byte[] nonce, byte[] associatedData) {
+        AESEngine cipher = new AESEngine();
+        cipher.init(true, new KeyParameter(key));
+        byte[] h = new byte[BLOCK_SIZE];
+        cipher.processBlock(h, 0, h, 0);
+        multiplier.init(h);
+
+        byte[] counter = new byte[BLOCK_SIZE];
+        if (nonce.length == NONCE_SIZE) {
+            System.arraycopy(nonce, 0, counter, 0, NONCE_SIZE);
+            counter[BLOCK_SIZE - 1] = 1;
+        } else {
+            // Other nonce lengths are hashed to the initial counter block
+            ghash(nonce, 0, nonce.length);
+            finishBlock();
+            byte[] lengths = new byte[BLOCK_SIZE];
+            Pack.longToBigEndian((long) nonce.length * Byte.SIZE, lengths, BLOCK_SIZE / 2);
+            ghash(lengths, 0, BLOCK_SIZE);
+            System.arraycopy(hash, 0, counter, 0, BLOCK_SIZE);
+            Arrays.fill(hash, (byte) 0);
+        }
+        cipher.processBlock(counter, 0, tagMask, 0);
+
+        if (associatedData != null) {
+            ghash(associatedData, 0, associatedData.length);
+            finishBlock();
+        }
+        this.associatedDataLength = associatedData == null ? 0 : associatedData.length;
+    }
+
+    /**
+     * Adds ciphertext to the verification. The authentication tag must not
+     * be added.
+     *
+     * @param input the array with the ciphertext
+     * @param off the offset of the ciphertext in the array
+     * @param len the length of the ciphertext
+     */
+    public void update(byte[] input, int off, int len) {
+        ghash(input, off, len);
+        ciphertextLength += len;
+    }
+
+    /**
+     * Finishes the verification and compares the computed with the given
+     * authentication tag in constant time.
+     *
+     * @param tag the array with the authentication tag
+     * @param off the offset of the tag in the array
+     * @return true, if the tag is correct or false otherwise
+     */
+    public boolean verify(byte[] tag, int off) {
+        finishBlock();
+        byte[] lengths = new byte[BLOCK_SIZE];
+        Pack.longToBigEndian(associatedDataLength * Byte.SIZE, lengths, 0);
+        Pack.longToBigEndian(ciphertextLength * Byte.SIZE, lengths, BLOCK_SIZE / 2);
+        ghash(lengths, 0, BLOCK_SIZE);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            hash[i] ^= tagMask[i];
+        }
+
+        return org.bouncycastle.util.Arrays.constantTimeAreEqual(hash, Arrays.copyOfRange(tag, off, off + TAG_SIZE));
+    }
+
+    /**
+     * Verifies a ciphertext, which is followed by its authentication tag.
+     *
+     * @param key the key of the encryption
+     * @param nonce the nonce of the encryption
+     * @param associatedData the authenticated header data or null
+     * @param input the array with the ciphertext and the tag
+     * @param off the offset of the ciphertext in the array
+     * @param length the length of the ciphertext with the tag
+     * @return true, if the tag is correct or false otherwise
+     */
+    public static boolean verify(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int off, int length) {
+        if (length < TAG_SIZE) {
+            return false;
+        }
+        GCMVerifier verifier = new GCMVerifier(key, nonce, associatedData);
+        verifier.update(input, off, length - TAG_SIZE);
+
+        return verifier.verify(input, off + length - TAG_SIZE);
+    }
+
+    /**
+     * Verifies a stream of ciphertext, which ends with its authentication
+     * tag. The stream is read in large blocks into a discard buffer, so the
+     * memory usage does not depend on the length of the stream.
+     *
+     * @param key the key of the encryption
+     * @param nonce the nonce of the encryption
+     * @param associatedData the authenticated header data or null
+     * @param input the stream with the ciphertext and the tag
+     * @return true, if the tag is correct or false otherwise
+     * @throws IOException if the stream could not be read
+     */
+    public static boolean verify(byte[] key, byte[] nonce, byte[] associatedData, InputStream input) throws IOException {
+        GCMVerifier verifier = new GCMVerifier(key, nonce, associatedData);
+        byte[] buffer = BufferPool.getShared().acquire(STREAM_BUFFER_SIZE);
+        try {
+            // The last bytes are held back, until it is known that they are the tag
+            int kept = 0;
+            int length;
+            while ((length = input.read(buffer, kept, buffer.length - kept)) != -1) {
+                int available = kept + length;
+                int hashed = Math.max(0, available - TAG_SIZE);
+                verifier.update(buffer, 0, hashed);
+                System.arraycopy(buffer, hashed, buffer, 0, available - hashed);
+                kept = available - hashed;
+            }
+
+            return kept == TAG_SIZE && verifier.verify(buffer, 0);
+        } finally {
+            BufferPool.getShared().release(buffer);
+        }
+    }
+
+    private void ghash(byte[] input, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            hash[position++] ^= input[i];
+            if (position == BLOCK_SIZE) {
+                multiplier.multiplyH(hash);
+                position = 0;
+            }
+        }
+    }
+
+    private void finishBlock() {
+        if (position > 0) {
+            multiplier.multiplyH(hash);
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import java.security.GeneralSecurityException;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * AES-GCM with the "AES/GCM/NoPadding" cipher of the Java Cryptography
+ * Architecture. On most JVMs this cipher uses the AES and carry-less
+ * multiplication instructions of the processor.
+ *
+ * @author Gian Poltéra
+ */
+public class JCAAeadEngine implements AeadEngine {
+
+    private final static String TRANSFORMATION = "AES/GCM/NoPadding";
+    private final static int TAG_SIZE = 16;
+
+    /**
+     * Checks if the running JVM provides the cipher for this engine.
+     *
+     * @return true, if the cipher is available or false if not
+     */
+    public static boolean isAvailable() {
+        try {
+            Cipher.getInstance(TRANSFORMATION);
+            return true;
+        } catch (GeneralSecurityException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "JCA";
+    }
+
+    @Override
+    public byte[] encrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length) {
+        try {
+            Cipher cipher = getCipher(Cipher.ENCRYPT_MODE, key, nonce, associatedData);
+
+            return cipher.doFinal(input, offset, length);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public byte[] decrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input, int offset, int length) throws InvalidCipherTextException {
+        try {
+            Cipher cipher = getCipher(Cipher.DECRYPT_MODE, key, nonce, associatedData);
+
+            return cipher.doFinal(input, offset, length);
+        } catch (AEADBadTagException ex) {
+            throw new InvalidCipherTextException("mac check in GCM failed", ex);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Cipher getCipher(int mode, byte[] key, byte[] nonce, byte[] associatedData) throws GeneralSecurityException {
+        // A new instance for each call, the JCA rejects a reused nonce on the same instance
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_SIZE * Byte.SIZE, nonce));
+        if (associatedData != null && associatedData.length > 0) {
+            cipher.updateAAD(associatedData);
+        }
+
+        return cipher;
+    }
+}
@@ -0,0 +1,525 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import ch.hsr.xclavis.helpers.Abortable;
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.helpers.Telemetry;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+
+/**
+ * This class provides AES cryption in the GCM-mode for data that is split
+ * into segments of a fixed size. Each segment has its own nonce and
+ * authentication tag, so the segments can be encrypted on all cores in
+ * parallel.
+ *
+ * When decrypting, the segments are read ahead and verified on all cores in
+ * parallel. A bounded reorder buffer hands the plaintext out in the right
+ * order, so the memory usage is limited to a few segments per core.
+ *
+ * The nonce of a segment is the initialvector with the segment index added
+ * to its last eight bytes. The associated data of a segment is the given
+ * header followed by one byte, which marks the last segment. Therefore
+ * segments can neither be reordered nor removed from the end.
+ *
+ * The segments are cryptographed with an AeadEngine, by default with the
+ * fastest engine on the running JVM. A verification only computes the GHASH
+ * of the segments with a GCMVerifier and decrypts nothing.
+ *
+ * @author Gian Poltéra
+ */
+public class SegmentedAESGCM {
+
+    /**
+     * The size of the authentication tag of each segment in bytes.
+     */
+    public final static int TAG_SIZE = 16;
+    private final static int NONCE_SIZE = 12;
+    private final static int COUNTER_SIZE = 8;
+    private final static byte[] NO_PLAINTEXT = new byte[0];
+
+    private final AeadEngine engine;
+    private final byte[] key;
+    private final byte[] iv;
+    private final byte[] associatedData;
+    private final int segmentSize;
+    private final int parallelism;
+    private Telemetry telemetry;
+    private LongConsumer segmentListener;
+
+    /**
+     * Creates a new SegmentedAESGCM instance with the fastest AeadEngine.
+     *
+     * @param key the key for the encryption/decryption
+     * @param iv the initialvector from which the segment nonces are derived
+     * @param segmentSize the size of the plaintext of a segment in bytes
+     * @param associatedData the authenticated header data
+     */
+    public SegmentedAESGCM(byte[] key, byte[] iv, int segmentSize, byte[] associatedData) {
+        this(AeadEngines.getDefault(), key, iv, segmentSize, associatedData);
+    }
+
+    /**
+     * Creates a new SegmentedAESGCM instance with the given AeadEngine.
+     *
+     * @param engine the engine for the cryption of the segments
+     * @param key the key for the encryption/decryption
+     * @param iv the initialvector from which the segment nonces are derived
+     * @param segmentSize the size of the plaintext of a segment in bytes
+     * @param associatedData the authenticated header data
+     */
+    public SegmentedAESGCM(AeadEngine engine, byte[] key, byte[] iv, int segmentSize, byte[] associatedData) {
+        if (iv.length != NONCE_SIZE) {
+            throw new IllegalArgumentException("The initialvector must have " + NONCE_SIZE + " bytes");
+        }
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize);
+        }
+        this.engine = engine;
+        this.key = key.clone();
+        this.iv = iv.clone();
+        this.segmentSize = segmentSize;
+        this.associatedData = associatedData.clone();
+        this.parallelism = ForkJoinPool.getCommonPoolParallelism() + 1;
+    }
+
+    /**
+     * Gets the size of the plaintext of a segment.
+     *
+     * @return the segment size in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the telemetry, which counts the cryptographed bytes and the time
+     * of the segment cryption.
+     *
+     * @param telemetry the telemetry for the counters or null
+     */
+    public void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Sets a listener, which is called by the encryption stream with the
+     * number of segments, after a segment has been written to the output.
+     * The listener is called on the thread, that writes to the stream, but
+     * not for the last segment.
+     *
+     * @param segmentListener the listener or null
+     */
+    public void setSegmentListener(LongConsumer segmentListener) {
+        this.segmentListener = segmentListener;
+    }
+
+    /**
+     * Encrypts a single segment.
+     *
+     * @param index the index of the segment
+     * @param last true, if it is the last segment
+     * @param input the plaintext
+     * @param length the length of the plaintext
+     * @return the ciphertext followed by the authentication tag
+     */
+    public byte[] encryptSegment(long index, boolean last, byte[] input, int length) {
+        return engine.encrypt(key, getNonce(index), getAssociatedData(last), input, 0, length);
+    }
+
+    /**
+     * Decrypts and verifies a single segment.
+     *
+     * @param index the index of the segment
+     * @param last true, if it is the last segment
+     * @param input the ciphertext followed by the authentication tag
+     * @param length the length of the ciphertext with the tag
+     * @return the plaintext
+     * @throws InvalidCipherTextException if the authentication tag is wrong
+     */
+    public byte[] decryptSegment(long index, boolean last, byte[] input, int length) throws InvalidCipherTextException {
+        return engine.decrypt(key, getNonce(index), getAssociatedData(last), input, 0, length);
+    }
+
+    /**
+     * Verifies the authentication tag of a single segment without decrypting
+     * it.
+     *
+     * @param index the index of the segment
+     * @param last true, if it is the last segment
+     * @param input the ciphertext followed by the authentication tag
+     * @param length the length of the ciphertext with the tag
+     * @throws InvalidCipherTextException if the authentication tag is wrong
+     */
+    public void verifySegment(long index, boolean last, byte[] input, int length) throws InvalidCipherTextException {
+        if (!GCMVerifier.verify(key, getNonce(index), getAssociatedData(last), input, 0, length)) {
+            throw new InvalidCipherTextException("mac check in GCM failed");
+        }
+    }
+
+    /**
+     * Opens a stream that encrypts everything written to it segment by
+     * segment into the given output stream. Full segments are encrypted in
+     * parallel, but always written in the right order. The last segment is
+     * written when the stream is closed. A failed encryption must abort the
+     * returned stream instead of closing it, then only the full segments are
+     * written and the output can not pass as complete.
+     *
+     * @param output the stream for the encrypted segments
+     * @return the stream to write the plaintext to
+     */
+    public OutputStream getEncryptionStream(OutputStream output) {
+        return new EncryptionStream(output, 0);
+    }
+
+    /**
+     * Opens a stream that continues an encryption at a segment. The given
+     * output stream must be positioned behind the previous segments. Like
+     * the stream of a new encryption, it must be aborted on a failure.
+     *
+     * @param output the stream for the encrypted segments
+     * @param firstSegment the index of the first segment to write
+     * @return the stream to write the plaintext of the rest to
+     */
+    public OutputStream getEncryptionStream(OutputStream output, long firstSegment) {
+        return new EncryptionStream(output, firstSegment);
+    }
+
+    /**
+     * Opens a stream that decrypts and verifies the segments read from the
+     * given input stream. The input stream must be positioned at the first
+     * segment. A wrong, missing or reordered segment results in an
+     * InvalidCipherTextIOException.
+     *
+     * @param input the stream with the encrypted segments
+     * @return the stream to read the plaintext from
+     */
+    public InputStream getDecryptionStream(InputStream input) {
+        return new DecryptionStream(input, false);
+    }
+
+    /**
+     * Verifies the segments read from the given input stream without
+     * decrypting them. The segments are verified on all cores in parallel,
+     * only a few segments per core are kept in the memory. The input stream
+     * must be positioned at the first segment and is read to the end, but
+     * not closed.
+     *
+     * @param input the stream with the encrypted segments
+     * @throws IOException if the stream could not be read, an
+     * InvalidCipherTextIOException if a segment is wrong, missing or
+     * reordered
+     */
+    public void verify(InputStream input) throws IOException {
+        DecryptionStream segments = new DecryptionStream(input, true);
+        try {
+            // The verified segments have no plaintext, so one read consumes all
+            while (segments.read(new byte[1], 0, 1) != -1) {
+            }
+        } finally {
+            segments.cancel();
+        }
+    }
+
+    private byte[] getNonce(long index) {
+        byte[] nonce = iv.clone();
+        long counter = index;
+        for (int i = NONCE_SIZE - 1; i >= NONCE_SIZE - COUNTER_SIZE; i--) {
+            int sum = (nonce[i] & 0xFF) + (int) (counter & 0xFF);
+            nonce[i] = (byte) sum;
+            counter = (counter >>> Byte.SIZE) + (sum >>> Byte.SIZE);
+        }
+
+        return nonce;
+    }
+
+    private byte[] getAssociatedData(boolean last) {
+        byte[] aad = Arrays.copyOf(associatedData, associatedData.length + 1);
+        aad[associatedData.length] = (byte) (last ? 1 : 0);
+
+        return aad;
+    }
+
+    private void count(int length, long start) {
+        if (telemetry != null) {
+            telemetry.add(Telemetry.Stage.CRYPTION, length, System.nanoTime() - start);
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws InterruptedException, ExecutionException {
+        // The waiting time belongs to the cryption, not to the calling stage
+        long start = System.nanoTime();
+        try {
+            return future.get();
+        } finally {
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+    }
+
+    private class EncryptionStream extends OutputStream implements Abortable {
+
+        private final OutputStream output;
+        private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        private byte[] segment = BufferPool.getShared().acquire(segmentSize);
+        private int position = 0;
+        private long index;
+        private long written;
+        private boolean closed = false;
+
+        EncryptionStream(OutputStream output, long firstSegment) {
+            this.output = output;
+            this.index = firstSegment;
+            this.written = firstSegment;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (position == segmentSize) {
+                    // Only now it is known, that the full segment is not the last one
+                    submit(false);
+                }
+                int length = Math.min(len, segmentSize - position);
+                System.arraycopy(b, off, segment, position, length);
+                position += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                submit(true);
+                while (!pending.isEmpty()) {
+                    writeNext();
+                }
+            } finally {
+                output.close();
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                // The full segments are kept for a resume, but a last segment is never written
+                while (!pending.isEmpty()) {
+                    writeNext();
+                }
+            } finally {
+                BufferPool.getShared().release(segment);
+                segment = null;
+                output.close();
+            }
+        }
+
+        private void submit(boolean last) throws IOException {
+            byte[] plaintext = segment;
+            int length = position;
+            long segmentIndex = index++;
+            pending.add(ForkJoinPool.commonPool().submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return encryptSegment(segmentIndex, last, plaintext, length);
+                } finally {
+                    BufferPool.getShared().release(plaintext);
+                    count(length, start);
+                }
+            }));
+            segment = last ? null : BufferPool.getShared().acquire(segmentSize);
+            position = 0;
+            while (pending.size() > parallelism) {
+                writeNext();
+            }
+        }
+
+        private void writeNext() throws IOException {
+            try {
+                output.write(await(pending.removeFirst()));
+                written++;
+                // The last segment ends the encryption, so it is never kept for a resume
+                boolean last = segment == null && pending.isEmpty();
+                if (segmentListener != null && !last) {
+                    segmentListener.accept(written);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            }
+        }
+    }
+
+    private class DecryptionStream extends InputStream {
+
+        private final PushbackInputStream input;
+        private final boolean verifyOnly;
+        // Reorder buffer, the segments are decrypted in parallel but read in order
+        private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        private byte[] plaintext = new byte[0];
+        private int position = 0;
+        private long index = 0;
+        private boolean endOfInput = false;
+
+        DecryptionStream(InputStream input, boolean verifyOnly) {
+            this.input = new PushbackInputStream(input, 1);
+            this.verifyOnly = verifyOnly;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int length = read(b, 0, 1);
+
+            return length == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (position == plaintext.length) {
+                fill();
+                if (pending.isEmpty()) {
+                    return -1;
+                }
+                nextSegment();
+            }
+            int length = Math.min(len, plaintext.length - position);
+            System.arraycopy(plaintext, position, b, off, length);
+            position += length;
+
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            cancel();
+            input.close();
+        }
+
+        void cancel() {
+            pending.forEach((future) -> future.cancel(false));
+            pending.clear();
+        }
+
+        private void fill() throws IOException {
+            while (!endOfInput && pending.size() < parallelism) {
+                // A power of two would take up almost twice the segment with its tag
+                byte[] chunk = BufferPool.getShared().acquireExact(segmentSize + TAG_SIZE);
+                int length = readChunk(chunk, segmentSize + TAG_SIZE);
+                if (length < TAG_SIZE) {
+                    BufferPool.getShared().release(chunk);
+                    throw new InvalidCipherTextIOException("Encrypted data is truncated", new EOFException());
+                }
+                boolean last = length < segmentSize + TAG_SIZE;
+                if (!last) {
+                    int next = input.read();
+                    if (next == -1) {
+                        last = true;
+                    } else {
+                        input.unread(next);
+                    }
+                }
+                long segmentIndex = index++;
+                boolean lastSegment = last;
+                pending.add(ForkJoinPool.commonPool().submit(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        if (verifyOnly) {
+                            verifySegment(segmentIndex, lastSegment, chunk, length);
+                            return NO_PLAINTEXT;
+                        }
+                        return decryptSegment(segmentIndex, lastSegment, chunk, length);
+                    } finally {
+                        BufferPool.getShared().release(chunk);
+                        count(length - TAG_SIZE, start);
+                    }
+                }));
+                endOfInput = last;
+            }
+        }
+
+        private void nextSegment() throws IOException {
+            try {
+                plaintext = await(pending.removeFirst());
+                position = 0;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                // The pool wraps checked exceptions into a RuntimeException
+                for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof InvalidCipherTextException) {
+                        throw new InvalidCipherTextIOException("Segment is not authentic", cause);
+                    }
+                }
+                throw new IOException(ex.getCause());
+            }
+        }
+
+        private int readChunk(byte[] chunk, int size) throws IOException {
+            int length = 0;
+            int read;
+            while (length < size && (read = input.read(chunk, length, size - length)) != -1) {
+                length += read;
+            }
+
+            return length;
+        }
+    }
+}
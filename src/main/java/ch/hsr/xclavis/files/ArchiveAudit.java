@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.KeyStore;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class audits the integrity of all encrypted files in a folder.
+ *
+ * The folder is scanned for the files, which the FileHandler treats as
+ * encrypted. The key of each file is looked up by the ID in its header in the
+ * KeyStore and the authentication tags are verified without decrypting. The
+ * files are verified on a bounded pool of threads, so a folder on a network
+ * drive is read with a few parallel streams.
+ *
+ * The audit can be run without the user interface, e.g. every night:
+ * java -cp XClavis.jar ch.hsr.xclavis.files.ArchiveAudit folder [threads]
+ * The password of the KeyStore is read from the console. The exit code is 0,
+ * if all files are intact.
+ *
+ * @author Gian Poltéra
+ */
+public class ArchiveAudit {
+
+    /**
+     * The result of the audit of a file.
+     */
+    public enum Result {
+
+        OK, CORRUPT, MISSING_KEY
+    }
+
+    /**
+     * The default number of files verified at the same time.
+     */
+    public final static int DEFAULT_THREADS = 4;
+    private final static double MB = 1024 * 1024;
+    private final static AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final KeyStore keys;
+    private int threads = DEFAULT_THREADS;
+    private boolean mappedIO = false;
+    private Telemetry telemetry = new Telemetry();
+
+    /**
+     * Creates a new ArchiveAudit.
+     *
+     * @param keys the KeyStore with the keys of the encrypted files
+     */
+    public ArchiveAudit(KeyStore keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Sets the number of files, which are verified at the same time.
+     *
+     * @param threads the number of threads
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Activates the memory-mapped I/O backend for the encrypted files.
+     *
+     * @param mappedIO true, for memory-mapped I/O or false for stream I/O
+     */
+    public void setMappedIO(boolean mappedIO) {
+        this.mappedIO = mappedIO;
+    }
+
+    /**
+     * Sets the telemetry, which counts the read and verified bytes of all
+     * files.
+     *
+     * @param telemetry the telemetry for the counters
+     */
+    public void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Audits all encrypted files in a folder and its subfolders.
+     *
+     * @param folder the folder to audit
+     * @return the report of the audit
+     * @throws IOException if the folder could not be scanned
+     */
+    public Report audit(Path folder) throws IOException {
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(folder)) {
+            files = paths.map(Path::toFile).filter(FileHandler::isEncryptedFile).sorted().collect(Collectors.toList());
+        }
+        telemetry.setProgress(Telemetry.Stage.READ, files.stream().mapToLong(File::length).sum());
+        Logfile.addTitle("AUDIT");
+        Logfile.addEntry(files.size() + " encrypted files found in " + folder);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, (runnable) -> {
+            Thread thread = new Thread(runnable, "XClavis-Audit-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Entry>> futures = new ArrayList<>();
+        telemetry.start();
+        try {
+            for (File file : files) {
+                // The KeyStore is only read on this thread
+                ContainerHeader header = readHeader(file);
+                SessionKey sessionKey = header == null ? null : getSessionKey(header);
+                futures.add(executor.submit(() -> verify(file, header, sessionKey)));
+            }
+            List<Entry> entries = new ArrayList<>();
+            for (Future<Entry> future : futures) {
+                entries.add(future.get());
+            }
+            telemetry.stop();
+            Report report = new Report(entries, telemetry.getElapsedTime());
+            report.getLines().forEach(Logfile::addEntry);
+
+            return report;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ContainerHeader readHeader(File file) {
+        try {
+            return ContainerHeader.read(file);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private SessionKey getSessionKey(ContainerHeader header) {
+        // A file for several recipients is verified with the first known key
+        for (String id : Envelope.getIDs(header)) {
+            SessionKey sessionKey = keys.getSessionKey(id);
+            if (sessionKey != null) {
+                return sessionKey;
+            }
+        }
+
+        return null;
+    }
+
+    private Entry verify(File file, ContainerHeader header, SessionKey sessionKey) {
+        if (header == null) {
+            return new Entry(file, Result.CORRUPT, 0, 0, "no valid header");
+        }
+        if (sessionKey == null) {
+            return new Entry(file, Result.MISSING_KEY, 0, 0, "no key for " + header.getID());
+        }
+        FileCrypter crypter = new FileCrypter();
+        crypter.setMappedIO(mappedIO);
+        long start = System.nanoTime();
+        try {
+            boolean intact = crypter.verify(sessionKey, file, telemetry, () -> false);
+
+            return new Entry(file, intact ? Result.OK : Result.CORRUPT, file.length(), System.nanoTime() - start, null);
+        } catch (IOException ex) {
+            return new Entry(file, Result.CORRUPT, file.length(), System.nanoTime() - start, ex.getMessage());
+        }
+    }
+
+    /**
+     * Audits a folder without the user interface and prints the report.
+     *
+     * @param args the folder and optionally the number of threads
+     * @throws IOException if the folder could not be scanned
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ArchiveAudit folder [threads]");
+            System.exit(2);
+        }
+        KeyStore keys = KeyStore.openFromConsole();
+        if (keys == null) {
+            System.err.println("The password of the KeyStore is not correct");
+            System.exit(2);
+        }
+        ArchiveAudit audit = new ArchiveAudit(keys);
+        if (args.length > 1) {
+            audit.setThreads(Integer.parseInt(args[1]));
+        }
+        Report report = audit.audit(Paths.get(args[0]));
+        report.getLines().forEach(System.out::println);
+        System.exit(report.isIntact() ? 0 : 1);
+    }
+
+    /**
+     * The result of the audit of a single file.
+     */
+    public static class Entry {
+
+        private final File file;
+        private final Result result;
+        private final long bytes;
+        private final long time;
+        private final String message;
+
+        private Entry(File file, Result result, long bytes, long time, String message) {
+            this.file = file;
+            this.result = result;
+            this.bytes = bytes;
+            this.time = time;
+            this.message = message;
+        }
+
+        /**
+         * Gets the audited file.
+         *
+         * @return the encrypted file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the result of the audit.
+         *
+         * @return the result
+         */
+        public Result getResult() {
+            return result;
+        }
+
+        /**
+         * Gets the number of verified bytes.
+         *
+         * @return the bytes, or 0 if the file was not verified
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Gets the time of the verification.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the throughput of the verification.
+         *
+         * @return the throughput in MB/s
+         */
+        public double getThroughput() {
+            return time > 0 ? bytes / MB / (time / 1e9) : 0;
+        }
+
+        @Override
+        public String toString() {
+            String line = String.format("%-11s %s", result, file.getPath());
+            if (time > 0) {
+                line += String.format(" (%.1f MB, %.1f MB/s)", bytes / MB, getThroughput());
+            }
+            if (message != null) {
+                line += ": " + message;
+            }
+
+            return line;
+        }
+    }
+
+    /**
+     * The report of an audit.
+     */
+    public static class Report {
+
+        private final List<Entry> entries;
+        private final long elapsedTime;
+
+        private Report(List<Entry> entries, long elapsedTime) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.elapsedTime = elapsedTime;
+        }
+
+        /**
+         * Gets the results of all audited files.
+         *
+         * @return the entries in the order of the file paths
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Counts the files with a specific result.
+         *
+         * @param result the result to count
+         * @return the number of files
+         */
+        public int count(Result result) {
+            return (int) entries.stream().filter((entry) -> entry.getResult() == result).count();
+        }
+
+        /**
+         * Checks whether all audited files are intact.
+         *
+         * @return true, if all files are OK or false otherwise
+         */
+        public boolean isIntact() {
+            return count(Result.OK) == entries.size();
+        }
+
+        /**
+         * Gets the number of verified bytes of all files.
+         *
+         * @return the bytes
+         */
+        public long getBytes() {
+            return entries.stream().mapToLong(Entry::getBytes).sum();
+        }
+
+        /**
+         * Gets the time of the whole audit.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getElapsedTime() {
+            return elapsedTime;
+        }
+
+        /**
+         * Gets the throughput of the whole audit.
+         *
+         * @return the throughput in MB/s
+         */
+        public double getThroughput() {
+            return elapsedTime > 0 ? getBytes() / MB / (elapsedTime / 1e9) : 0;
+        }
+
+        /**
+         * Gets the report as text.
+         *
+         * @return one line per file and a summary line
+         */
+        public List<String> getLines() {
+            List<String> lines = new ArrayList<>();
+            entries.forEach((entry) -> lines.add(entry.toString()));
+            lines.add(String.format("%d OK, %d corrupt, %d missing key, %.1f MB verified in %d ms (%.1f MB/s)",
+                    count(Result.OK), count(Result.CORRUPT), count(Result.MISSING_KEY),
+                    getBytes() / MB, elapsedTime / 1000000, getThroughput()));
+
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+/**
+ * This class represents a file inside an encrypted archive.
+ *
+ * @author Gian Poltéra
+ */
+public class ArchiveEntry {
+
+    private final String name;
+    private final long size;
+    private final long compressedSize;
+    private final long crc;
+    private final int method;
+    private final long time;
+    private final long offset;
+
+    /**
+     * Creates a new ArchiveEntry.
+     *
+     * @param name the name of the file
+     * @param size the uncompressed size in bytes
+     * @param compressedSize the compressed size in bytes
+     * @param crc the CRC-32 of the uncompressed data
+     * @param method the ZIP compression method
+     * @param time the last modification time in milliseconds
+     * @param offset the offset of the local header in the plaintext
+     */
+    public ArchiveEntry(String name, long size, long compressedSize, long crc, int method, long time, long offset) {
+        this.name = name;
+        this.size = size;
+        this.compressedSize = compressedSize;
+        this.crc = crc;
+        this.method = method;
+        this.time = time;
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the name of the file.
+     *
+     * @return the name as String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the uncompressed size of the file.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the compressed size of the file.
+     *
+     * @return the compressed size in bytes
+     */
+    public long getCompressedSize() {
+        return compressedSize;
+    }
+
+    /**
+     * Gets the CRC-32 of the uncompressed file.
+     *
+     * @return the CRC-32 value
+     */
+    public long getCrc() {
+        return crc;
+    }
+
+    /**
+     * Gets the ZIP compression method of the file.
+     *
+     * @return the method, STORED or DEFLATED
+     */
+    public int getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the last modification time of the file.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the offset of the local header in the plaintext of the archive.
+     *
+     * @return the offset in bytes
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.AeadEngine;
+import ch.hsr.xclavis.crypto.AeadEngines;
+import ch.hsr.xclavis.crypto.RandomGenerator;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * This class saves the progress of a cryption periodically to a file, so an
+ * interrupted cryption can be resumed instead of started over.
+ *
+ * An encryption is resumed behind the segments, which were forced to the
+ * disk before the checkpoint was saved. The checkpoint is saved at most once
+ * per interval, so the segments written since the last save are encrypted
+ * again. The ZIP stream is continued at the last resume point before the
+ * first of them, so in addition the part of one chunk before it is zipped
+ * again. The ZIP stream of the same files is the same again, so a segment
+ * encrypted again has the same nonce and the same plaintext.
+ * A decryption is resumed at the first file of the archive, which was not
+ * yet dezipped completely.
+ *
+ * The checkpoint is encrypted with the SessionKey of the cryption, because
+ * it contains the names of the files. It is only used, if the fingerprint of
+ * the files and parameters is still the same.
+ *
+ * @author Gian Poltéra
+ */
+public class Checkpoint {
+
+    /**
+     * The file extension of a checkpoint.
+     */
+    public final static String EXTENSION = ".xcp";
+    private final static byte[] MAGIC = {'X', 'C', 'P', 1};
+    private final static int NONCE_SIZE = 12;
+    private final static int ENCRYPTION = 1;
+    private final static int DECRYPTION = 2;
+    private final static long DEFAULT_INTERVAL = 5000;
+
+    private final Path path;
+    private final byte[] key;
+    private final byte[] fingerprint;
+    private final AeadEngine engine = AeadEngines.getDefault();
+    private final Deque<FileZipper.ResumePoint> points = new ArrayDeque<>();
+    private long interval = DEFAULT_INTERVAL;
+    private Sync sync;
+    private long lastSave = System.currentTimeMillis();
+    private int segmentSize;
+    private long segments = 0;
+    private FileZipper.ResumePoint resumePoint;
+    private Path tempDirectory;
+    private List<String> names = new ArrayList<>();
+
+    /**
+     * Creates a new Checkpoint.
+     *
+     * @param path the path of the checkpoint file
+     * @param sessionKey the SessionKey of the cryption
+     * @param fingerprint the fingerprint of the files and parameters
+     */
+    public Checkpoint(Path path, SessionKey sessionKey, byte[] fingerprint) {
+        this.path = path;
+        this.key = sessionKey.getKey();
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Calculates the fingerprint of files and parameters of a cryption. The
+     * path, size and modification time of each file are included.
+     *
+     * @param files the files of the cryption
+     * @param parameters the other parameters of the cryption
+     * @return the fingerprint
+     */
+    public static byte[] getFingerprint(List<File> files, String... parameters) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String parameter : parameters) {
+                digest.update(parameter.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            for (File file : files) {
+                digest.update(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+                digest.update((file.length() + "/" + file.lastModified()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Sets the minimal time between two saves of the checkpoint.
+     *
+     * @param interval the interval in milliseconds
+     */
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Sets the action, which completes the written output of the cryption,
+     * e.g. forces the written segments of an encryption to the disk. It is
+     * run before the checkpoint is saved, so the saved progress is kept.
+     *
+     * @param sync the action or null, if the output is not completed
+     */
+    void setSync(Sync sync) {
+        this.sync = sync;
+    }
+
+    /**
+     * Gets the path of the checkpoint file.
+     *
+     * @return the path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Loads the checkpoint file, if it exists and belongs to the same files
+     * and parameters.
+     *
+     * @return true, if the cryption can be resumed from the checkpoint
+     */
+    public boolean load() {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            byte[] data = Files.readAllBytes(path);
+            if (data.length < MAGIC.length + NONCE_SIZE || !Arrays.equals(Arrays.copyOf(data, MAGIC.length), MAGIC)) {
+                throw new IOException("Invalid checkpoint " + path);
+            }
+            byte[] nonce = Arrays.copyOfRange(data, MAGIC.length, MAGIC.length + NONCE_SIZE);
+            int offset = MAGIC.length + NONCE_SIZE;
+            byte[] plaintext = engine.decrypt(key, nonce, MAGIC, data, offset, data.length - offset);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(plaintext));
+            byte[] saved = new byte[in.readInt()];
+            in.readFully(saved);
+            if (!Arrays.equals(saved, fingerprint)) {
+                return false;
+            }
+            if (in.readInt() == ENCRYPTION) {
+                segmentSize = in.readInt();
+                segments = in.readLong();
+                resumePoint = FileZipper.ResumePoint.read(in);
+            } else {
+                tempDirectory = Paths.get(in.readUTF());
+                int count = in.readInt();
+                names = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    names.add(in.readUTF());
+                }
+            }
+
+            return true;
+        } catch (IOException | InvalidCipherTextException ex) {
+            Logger.getLogger(Checkpoint.class.getName()).log(Level.WARNING, null, ex);
+        }
+
+        return false;
+    }
+
+    /**
+     * Forgets a loaded checkpoint, e.g. if the cryption can not be resumed.
+     */
+    public void discard() {
+        segments = 0;
+        resumePoint = null;
+        tempDirectory = null;
+        names = new ArrayList<>();
+    }
+
+    /**
+     * Deletes the checkpoint file.
+     */
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            Logger.getLogger(Checkpoint.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Gets the number of encrypted segments of a loaded checkpoint, which are
+     * kept in the encrypted file.
+     *
+     * @return the number of segments
+     */
+    public long getSegments() {
+        return segments;
+    }
+
+    /**
+     * Gets the resume point of the ZIP stream of a loaded checkpoint. The
+     * ZIP stream is continued there, the plaintext before the first kept
+     * segment is discarded.
+     *
+     * @return the resume point or null
+     */
+    FileZipper.ResumePoint getResumePoint() {
+        return resumePoint;
+    }
+
+    /**
+     * Gets the folder with the dezipped files of a loaded checkpoint.
+     *
+     * @return the folder or null
+     */
+    public Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * Gets the names of the completely dezipped files of a loaded checkpoint.
+     * The file with the index i is stored as i.tmp in the temporary folder.
+     *
+     * @return the names of the files
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Gets the segment size of the encryption.
+     *
+     * @return the size of the plaintext of a segment in bytes
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the segment size of the encryption.
+     *
+     * @param segmentSize the size of the plaintext of a segment in bytes
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Adds a resume point of the ZIP stream, which is encrypted.
+     *
+     * @param point the resume point
+     */
+    void mark(FileZipper.ResumePoint point) {
+        points.add(point);
+    }
+
+    /**
+     * Is called after an encrypted segment has been written. Saves the
+     * checkpoint, if the interval has elapsed. The written segments are
+     * forced to the disk before.
+     *
+     * @param written the number of written segments
+     */
+    public void commit(long written) {
+        long boundary = written * segmentSize;
+        // Only the newest resume point before the boundary is needed
+        FileZipper.ResumePoint point = points.pollFirst();
+        while (point != null && !points.isEmpty() && points.peekFirst().getPosition() <= boundary) {
+            point = points.pollFirst();
+        }
+        if (point == null) {
+            return;
+        }
+        points.addFirst(point);
+        if (point.getPosition() > boundary || System.currentTimeMillis() - lastSave < interval) {
+            return;
+        }
+        try {
+            if (sync != null) {
+                sync.run();
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(baos);
+            out.writeInt(ENCRYPTION);
+            out.writeInt(segmentSize);
+            out.writeLong(written);
+            point.write(out);
+            save(baos.toByteArray());
+        } catch (IOException ex) {
+            Logger.getLogger(Checkpoint.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Is called after a file has been dezipped completely to the temporary
+     * folder. Saves the checkpoint, if the interval has elapsed. The written
+     * files are completed before.
+     *
+     * @param temp the temporary folder
+     * @param names the names of the dezipped files
+     */
+    public void commit(Path temp, List<String> names) {
+        if (System.currentTimeMillis() - lastSave < interval) {
+            return;
+        }
+        try {
+            if (sync != null) {
+                sync.run();
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(baos);
+            out.writeInt(DECRYPTION);
+            out.writeUTF(temp.toAbsolutePath().toString());
+            out.writeInt(names.size());
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            save(baos.toByteArray());
+        } catch (IOException ex) {
+            Logger.getLogger(Checkpoint.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    private void save(byte[] state) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(fingerprint.length);
+        out.write(fingerprint);
+        out.write(state);
+
+        byte[] nonce = RandomGenerator.getRandomBytes(NONCE_SIZE);
+        byte[] plaintext = baos.toByteArray();
+        byte[] ciphertext = engine.encrypt(key, nonce, MAGIC, plaintext, 0, plaintext.length);
+        // Write a new file and replace the old one, so there is always a complete checkpoint
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream file = new DataOutputStream(Files.newOutputStream(temp))) {
+            file.write(MAGIC);
+            file.write(nonce);
+            file.write(ciphertext);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lastSave = System.currentTimeMillis();
+    }
+
+    /**
+     * Completes the written output of a cryption.
+     */
+    @FunctionalInterface
+    interface Sync {
+
+        /**
+         * Completes the written output.
+         *
+         * @throws IOException if the output could not be written
+         */
+        void run() throws IOException;
+    }
+}
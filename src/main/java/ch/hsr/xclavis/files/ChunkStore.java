@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.AeadEngine;
+import ch.hsr.xclavis.crypto.AeadEngines;
+import ch.hsr.xclavis.crypto.RandomGenerator;
+import ch.hsr.xclavis.helpers.CountingInputStream;
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.bouncycastle.crypto.macs.HMac;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.util.encoders.Hex;
+
+/**
+ * This class stores the chunks of deduplicated encryptions in a local
+ * folder. Each chunk is stored only once, so storing near-identical files
+ * again costs only their changed chunks.
+ *
+ * The files are split at content-defined boundaries found with a gear
+ * rolling hash, so an insertion only changes the chunks around it. A chunk
+ * is named by an HMAC-SHA256 of its content with a key derived from the
+ * SessionKey, compressed if worth it and encrypted with AES-GCM under a
+ * random nonce. The ID is authenticated with the chunk, so a chunk can not
+ * be exchanged with another one.
+ *
+ * @author Gian Poltéra
+ */
+public class ChunkStore {
+
+    /**
+     * The default name of the folder of a chunk store.
+     */
+    public final static String DEFAULT_NAME = "xclavis.chunks";
+    /**
+     * The size of a chunk ID in bytes.
+     */
+    public final static int ID_SIZE = 32;
+    /**
+     * The minimal size of a chunk, except the last chunk of a file.
+     */
+    public final static int MIN_SIZE = 16 * 1024;
+    /**
+     * The maximal size of a chunk.
+     */
+    public final static int MAX_SIZE = 256 * 1024;
+    // 16 bits of the hash must be zero, which gives 64 KB chunks on average
+    private final static long BOUNDARY_MASK = 0xFFFF000000000000L;
+    private final static long[] GEAR = new long[256];
+    private final static String EXTENSION = ".chunk";
+    private final static String ID_CONTEXT = "XClavis Chunk ID";
+    private final static int NONCE_SIZE = 12;
+    private final static int STORED = 0;
+    private final static int DEFLATED = 1;
+
+    static {
+        // A fixed table, so the boundaries are the same in every store
+        Random random = new Random(0x58436C61766973L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final Path folder;
+    private final byte[] key;
+    private final HMac mac = new HMac(new SHA256Digest());
+    private final AeadEngine engine = AeadEngines.getDefault();
+    private long chunks = 0;
+    private long newChunks = 0;
+    private long storedBytes = 0;
+
+    /**
+     * Opens a chunk store.
+     *
+     * @param folder the folder of the store, which is created if needed
+     * @param sessionKey the SessionKey of the store
+     */
+    public ChunkStore(Path folder, SessionKey sessionKey) {
+        this.folder = folder;
+        this.key = sessionKey.getKey();
+        HMac derivation = new HMac(new SHA256Digest());
+        derivation.init(new KeyParameter(key));
+        byte[] context = ID_CONTEXT.getBytes(StandardCharsets.UTF_8);
+        derivation.update(context, 0, context.length);
+        byte[] idKey = new byte[ID_SIZE];
+        derivation.doFinal(idKey, 0);
+        mac.init(new KeyParameter(idKey));
+    }
+
+    /**
+     * Gets the folder of the store.
+     *
+     * @return the path of the folder
+     */
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Splits a file into chunks and stores the chunks, which are not yet in
+     * the store.
+     *
+     * @param file the file to store
+     * @param telemetry the telemetry for the read bytes
+     * @param cancelled returns true, if the storing should stop
+     * @return the entry of the file for a recipe
+     * @throws IOException if the file could not be read or a chunk not be
+     * written
+     */
+    public Recipe.Entry put(File file, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        Recipe.Entry entry = new Recipe.Entry(file.getName(), file.length(), file.lastModified());
+        byte[] buffer = new byte[MAX_SIZE];
+        try (InputStream is = new CountingInputStream(Files.newInputStream(file.toPath()), telemetry, Telemetry.Stage.READ)) {
+            int filled = 0;
+            boolean eof = false;
+            while (true) {
+                while (!eof && filled < buffer.length) {
+                    int length = is.read(buffer, filled, buffer.length - filled);
+                    if (length == -1) {
+                        eof = true;
+                    } else {
+                        filled += length;
+                    }
+                }
+                if (filled == 0) {
+                    break;
+                }
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("The job was cancelled");
+                }
+                int length = findBoundary(buffer, filled);
+                entry.add(store(buffer, length), length);
+                System.arraycopy(buffer, length, buffer, 0, filled - length);
+                filled -= length;
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Writes a file of a recipe from its chunks.
+     *
+     * @param entry the file of the recipe
+     * @param output the stream for the content of the file
+     * @param cancelled returns true, if the writing should stop
+     * @throws IOException if a chunk is missing, modified or could not be
+     * read
+     */
+    public void get(Recipe.Entry entry, OutputStream output, BooleanSupplier cancelled) throws IOException {
+        long size = 0;
+        for (int i = 0; i < entry.getChunks().size(); i++) {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("The job was cancelled");
+            }
+            byte[] chunk = getChunk(entry.getChunks().get(i));
+            if (chunk.length != entry.getLengths().get(i)) {
+                throw new IOException("Chunk " + Hex.toHexString(entry.getChunks().get(i)) + " has a wrong length");
+            }
+            output.write(chunk);
+            size += chunk.length;
+        }
+        if (size != entry.getSize()) {
+            throw new IOException("Size of " + entry.getName() + " is not correct");
+        }
+    }
+
+    /**
+     * Reads and decrypts a chunk.
+     *
+     * @param id the ID of the chunk
+     * @return the content of the chunk
+     * @throws IOException if the chunk is missing, modified or could not be
+     * read
+     */
+    public byte[] getChunk(byte[] id) throws IOException {
+        Path path = getPath(id);
+        if (!Files.exists(path)) {
+            throw new IOException("Chunk " + Hex.toHexString(id) + " is missing in " + folder);
+        }
+        byte[] data = Files.readAllBytes(path);
+        if (data.length < NONCE_SIZE) {
+            throw new IOException("Chunk " + Hex.toHexString(id) + " is truncated");
+        }
+        byte[] nonce = new byte[NONCE_SIZE];
+        System.arraycopy(data, 0, nonce, 0, NONCE_SIZE);
+        byte[] payload;
+        try {
+            payload = engine.decrypt(key, nonce, id, data, NONCE_SIZE, data.length - NONCE_SIZE);
+        } catch (InvalidCipherTextException ex) {
+            throw new InvalidCipherTextIOException("Chunk " + Hex.toHexString(id) + " is not correct", ex);
+        }
+        if (payload[0] == STORED) {
+            byte[] chunk = new byte[payload.length - 1];
+            System.arraycopy(payload, 1, chunk, 0, chunk.length);
+
+            return chunk;
+        }
+
+        return inflate(payload);
+    }
+
+    /**
+     * Gets the number of chunks, which were stored with put.
+     *
+     * @return the number of chunks
+     */
+    public long getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Gets the number of chunks, which were new in the store.
+     *
+     * @return the number of new chunks
+     */
+    public long getNewChunks() {
+        return newChunks;
+    }
+
+    /**
+     * Gets the size of the new chunks in the store.
+     *
+     * @return the size in bytes
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Finds the end of the next chunk. The rolling hash starts at the
+     * minimal size, so no chunk is smaller than it.
+     *
+     * @param data the data beginning with the chunk
+     * @param length the length of the data
+     * @return the length of the chunk
+     */
+    static int findBoundary(byte[] data, int length) {
+        if (length <= MIN_SIZE) {
+            return length;
+        }
+        int end = Math.min(length, MAX_SIZE);
+        long hash = 0;
+        for (int i = MIN_SIZE; i < end; i++) {
+            hash = (hash << 1) + GEAR[data[i] & 0xFF];
+            if ((hash & BOUNDARY_MASK) == 0) {
+                return i + 1;
+            }
+        }
+
+        return end;
+    }
+
+    private byte[] store(byte[] data, int length) throws IOException {
+        byte[] id = new byte[ID_SIZE];
+        mac.update(data, 0, length);
+        mac.doFinal(id, 0);
+        chunks++;
+        Path path = getPath(id);
+        if (Files.exists(path)) {
+            return id;
+        }
+
+        byte[] payload = deflate(data, length);
+        byte[] nonce = RandomGenerator.getRandomBytes(NONCE_SIZE);
+        byte[] ciphertext = engine.encrypt(key, nonce, id, payload, 0, payload.length);
+        Files.createDirectories(path.getParent());
+        Path temp = Files.createTempFile(path.getParent(), ".xclavis", ".tmp");
+        try {
+            try (OutputStream os = Files.newOutputStream(temp)) {
+                os.write(nonce);
+                os.write(ciphertext);
+            }
+            // A chunk is only visible once it was written completely
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        newChunks++;
+        storedBytes += NONCE_SIZE + ciphertext.length;
+
+        return id;
+    }
+
+    private Path getPath(byte[] id) {
+        String name = Hex.toHexString(id);
+
+        return folder.resolve(name.substring(0, 2)).resolve(name + EXTENSION);
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(length + 1);
+        baos.write(DEFLATED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished() && baos.size() <= length) {
+                int count = deflater.deflate(buffer);
+                baos.write(buffer, 0, count);
+            }
+        } finally {
+            deflater.end();
+        }
+        // A chunk, which does not get smaller, is stored
+        if (baos.size() <= length) {
+            return baos.toByteArray();
+        }
+        byte[] payload = new byte[length + 1];
+        payload[0] = STORED;
+        System.arraycopy(data, 0, payload, 1, length);
+
+        return payload;
+    }
+
+    private static byte[] inflate(byte[] payload) throws IOException {
+        Inflater inflater = new Inflater(true);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(MAX_SIZE);
+        try {
+            inflater.setInput(payload, 1, payload.length - 1);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Compressed chunk is truncated");
+                }
+                baos.write(buffer, 0, count);
+                if (baos.size() > MAX_SIZE) {
+                    throw new IOException("Compressed chunk is too large");
+                }
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException(ex);
+        } finally {
+            inflater.end();
+        }
+
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+
+/**
+ * This class decides per file, whether it is worth to be compressed. The
+ * first kilobytes of the file are checked for the magic numbers of known
+ * compressed formats and the entropy of the bytes is estimated. Compressed
+ * or encrypted data is stored, data with a high entropy is deflated with the
+ * fastest level and everything else with the default level.
+ *
+ * @author Gian Poltéra
+ */
+public class CompressionSniffer {
+
+    /**
+     * The number of bytes at the beginning of a file, which are sampled.
+     */
+    public final static int SAMPLE_SIZE = 16 * 1024;
+    /**
+     * The level, which means that the file is stored without compression.
+     */
+    public final static int STORED = -2;
+    private final static int MIN_ENTROPY_SAMPLE = 512;
+    private final static double STORED_ENTROPY = 7.5;
+    private final static double FAST_ENTROPY = 6.0;
+
+    private final static Magic[] MAGIC_NUMBERS = {
+        new Magic(0, bytes(0xFF, 0xD8, 0xFF), "JPEG image"),
+        new Magic(0, bytes(0x89, 'P', 'N', 'G'), "PNG image"),
+        new Magic(0, ascii("GIF8"), "GIF image"),
+        new Magic(8, ascii("WEBP"), "WebP image"),
+        new Magic(4, ascii("ftyp"), "MP4/QuickTime video"),
+        new Magic(0, bytes(0x1A, 0x45, 0xDF, 0xA3), "Matroska/WebM video"),
+        new Magic(0, ascii("OggS"), "Ogg media"),
+        new Magic(0, ascii("fLaC"), "FLAC audio"),
+        new Magic(0, ascii("ID3"), "MP3 audio"),
+        new Magic(0, bytes(0xFF, 0xFB), "MP3 audio"),
+        new Magic(0, bytes('P', 'K', 0x03, 0x04), "ZIP archive"),
+        new Magic(0, bytes(0x1F, 0x8B), "GZIP archive"),
+        new Magic(0, ascii("BZh"), "BZIP2 archive"),
+        new Magic(0, bytes(0xFD, '7', 'z', 'X', 'Z', 0x00), "XZ archive"),
+        new Magic(0, bytes('7', 'z', 0xBC, 0xAF, 0x27, 0x1C), "7-Zip archive"),
+        new Magic(0, ascii("Rar!"), "RAR archive"),
+        new Magic(0, bytes(0x28, 0xB5, 0x2F, 0xFD), "Zstandard archive"),
+        new Magic(0, bytes(0x04, 0x22, 0x4D, 0x18), "LZ4 archive"),
+        new Magic(0, bytes('X', 'C', 'L', ContainerHeader.VERSION_2), "XClavis file")
+    };
+
+    private final int defaultLevel;
+
+    /**
+     * Creates a new CompressionSniffer.
+     *
+     * @param defaultLevel the deflate level for well compressible files
+     */
+    public CompressionSniffer(int defaultLevel) {
+        this.defaultLevel = defaultLevel;
+    }
+
+    /**
+     * Decides how the file with the given beginning is compressed.
+     *
+     * @param sample the beginning of the file
+     * @param length the number of bytes in the sample
+     * @return the decision for the file
+     */
+    public Decision sniff(byte[] sample, int length) {
+        for (Magic magic : MAGIC_NUMBERS) {
+            if (startsWith(sample, length, magic.offset, magic.bytes)) {
+                return new Decision(STORED, magic.format);
+            }
+        }
+        int sampleLength = Math.min(length, SAMPLE_SIZE);
+        if (sampleLength < MIN_ENTROPY_SAMPLE) {
+            return new Decision(defaultLevel, "small file");
+        }
+        double entropy = getEntropy(sample, sampleLength);
+        String reason = String.format("entropy %.2f bits/byte", entropy);
+        if (entropy >= STORED_ENTROPY) {
+            return new Decision(STORED, reason);
+        } else if (entropy >= FAST_ENTROPY) {
+            return new Decision(Deflater.BEST_SPEED, reason);
+        }
+
+        return new Decision(defaultLevel, reason);
+    }
+
+    /**
+     * Estimates the Shannon entropy of the given bytes.
+     *
+     * @param data the data
+     * @param length the number of bytes in the data
+     * @return the entropy in bits per byte, between 0 and 8
+     */
+    public static double getEntropy(byte[] data, int length) {
+        int[] counts = new int[256];
+        for (int i = 0; i < length; i++) {
+            counts[data[i] & 0xFF]++;
+        }
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * Math.log(p);
+            }
+        }
+
+        return entropy / Math.log(2);
+    }
+
+    private static boolean startsWith(byte[] data, int length, int offset, byte[] magic) {
+        if (length < offset + magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[offset + i] != magic[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+
+        return result;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class Magic {
+
+        private final int offset;
+        private final byte[] bytes;
+        private final String format;
+
+        Magic(int offset, byte[] bytes, String format) {
+            this.offset = offset;
+            this.bytes = bytes;
+            this.format = format;
+        }
+    }
+
+    /**
+     * The decision, how a file is compressed.
+     */
+    public static class Decision {
+
+        private final int level;
+        private final String reason;
+
+        Decision(int level, String reason) {
+            this.level = level;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the deflate level or STORED.
+         *
+         * @return the deflate level or STORED
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Checks if the file is stored without compression.
+         *
+         * @return true, if the file is stored or false if it is deflated
+         */
+        public boolean isStored() {
+            return level == STORED;
+        }
+
+        /**
+         * Gets the reason for the decision.
+         *
+         * @return the reason as text
+         */
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return (isStored() ? "stored" : "deflated with level " + (level == Deflater.DEFAULT_COMPRESSION ? 6 : level)) + " (" + reason + ")";
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This class represents the plaintext header at the beginning of an
+ * encrypted file.
+ *
+ * Version 1: ID (4 bytes), IV (12 bytes), followed by one GCM stream.
+ *
+ * Version 2: magic "XCL" and version byte, ID (4 bytes), IV (12 bytes),
+ * segment size (4 bytes), extension length (4 bytes) and extensions, followed
+ * by the GCM segments. The magic can not be confused with an ID, because no
+ * key type starts with an "X". The extensions are reserved for additional
+ * header records and are skipped by readers that do not know them. Each
+ * record consists of its type (2 bytes), its length (4 bytes) and its data.
+ *
+ * @author Gian Poltéra
+ */
+public class ContainerHeader {
+
+    /**
+     * The version with a single GCM stream.
+     */
+    public final static int VERSION_1 = 1;
+    /**
+     * The version with fixed-size GCM segments.
+     */
+    public final static int VERSION_2 = 2;
+    /**
+     * The default size of the plaintext of a segment in bytes.
+     */
+    public final static int DEFAULT_SEGMENT_SIZE = 1024 * 1024;
+    private final static byte[] MAGIC = {'X', 'C', 'L'};
+    private final static int ID_SIZE = 4;
+    private final static int IV_SIZE = 96 / Byte.SIZE;
+    private final static int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private final static int MAX_EXTENSION_SIZE = 16 * 1024 * 1024;
+    private final static int RECORD_HEADER_SIZE = 2 + 4;
+
+    private final int version;
+    private final String id;
+    private final byte[] iv;
+    private final int segmentSize;
+    private final byte[] extensions;
+
+    /**
+     * Creates a new version 1 header.
+     *
+     * @param id the SessionID of the key
+     * @param iv the initialvector
+     */
+    public ContainerHeader(String id, byte[] iv) {
+        this(VERSION_1, id, iv, 0, new byte[0]);
+    }
+
+    /**
+     * Creates a new version 2 header.
+     *
+     * @param id the SessionID of the key
+     * @param iv the initialvector
+     * @param segmentSize the size of the plaintext of a segment in bytes
+     */
+    public ContainerHeader(String id, byte[] iv, int segmentSize) {
+        this(VERSION_2, id, iv, segmentSize, new byte[0]);
+    }
+
+    private ContainerHeader(int version, String id, byte[] iv, int segmentSize, byte[] extensions) {
+        this.version = version;
+        this.id = id;
+        this.iv = iv;
+        this.segmentSize = segmentSize;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Reads the header from the beginning of an encrypted file.
+     *
+     * @param file the encrypted file
+     * @return the header
+     * @throws IOException if the file has no valid header
+     */
+    public static ContainerHeader read(File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            return read(is);
+        }
+    }
+
+    /**
+     * Reads the header from a stream. Afterwards the stream is positioned at
+     * the beginning of the encrypted data.
+     *
+     * @param input the stream of the encrypted file
+     * @return the header
+     * @throws IOException if the stream has no valid header
+     */
+    public static ContainerHeader read(InputStream input) throws IOException {
+        DataInputStream dis = new DataInputStream(input);
+        byte[] start = new byte[ID_SIZE];
+        dis.readFully(start);
+        if (!Arrays.equals(Arrays.copyOf(start, MAGIC.length), MAGIC)) {
+            byte[] iv = new byte[IV_SIZE];
+            dis.readFully(iv);
+
+            return new ContainerHeader(VERSION_1, toID(start), iv, 0, new byte[0]);
+        }
+
+        int version = start[MAGIC.length];
+        if (version != VERSION_2) {
+            throw new IOException("Unsupported container version " + version);
+        }
+        byte[] id = new byte[ID_SIZE];
+        dis.readFully(id);
+        byte[] iv = new byte[IV_SIZE];
+        dis.readFully(iv);
+        int segmentSize = dis.readInt();
+        if (segmentSize <= 0 || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IOException("Invalid segment size " + segmentSize);
+        }
+        int extensionLength = dis.readInt();
+        if (extensionLength < 0 || extensionLength > MAX_EXTENSION_SIZE) {
+            throw new IOException("Invalid extension length " + extensionLength);
+        }
+        byte[] extensions = new byte[extensionLength];
+        dis.readFully(extensions);
+
+        return new ContainerHeader(version, toID(id), iv, segmentSize, extensions);
+    }
+
+    /**
+     * Writes the header to a stream.
+     *
+     * @param output the stream of the encrypted file
+     * @throws IOException if the header could not be written
+     */
+    public void write(OutputStream output) throws IOException {
+        output.write(toBytes());
+    }
+
+    /**
+     * Gets the header as it is stored in the file.
+     *
+     * @return the header as a byte-array
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            if (version == VERSION_1) {
+                dos.write(id.getBytes());
+                dos.write(iv);
+            } else {
+                dos.write(MAGIC);
+                dos.write(version);
+                dos.write(id.getBytes());
+                dos.write(iv);
+                dos.writeInt(segmentSize);
+                dos.writeInt(extensions.length);
+                dos.write(extensions);
+            }
+        } catch (IOException ex) {
+            // Can not happen with a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a copy of this version 2 header with an additional extension
+     * record.
+     *
+     * @param type the type of the record
+     * @param data the data of the record
+     * @return the new header
+     */
+    public ContainerHeader withExtension(int type, byte[] data) {
+        if (version < VERSION_2) {
+            throw new IllegalStateException("Extensions need the container version " + VERSION_2);
+        }
+        ByteBuffer record = ByteBuffer.allocate(extensions.length + RECORD_HEADER_SIZE + data.length);
+        record.put(extensions);
+        record.putShort((short) type);
+        record.putInt(data.length);
+        record.put(data);
+
+        return new ContainerHeader(version, id, iv, segmentSize, record.array());
+    }
+
+    /**
+     * Creates a copy of this version 2 header, in which the data of an
+     * extension record is replaced.
+     *
+     * @param type the type of the record
+     * @param data the new data of the record
+     * @return the new header
+     */
+    public ContainerHeader withReplacedExtension(int type, byte[] data) {
+        int offset = findExtension(type);
+        if (offset == -1) {
+            throw new IllegalArgumentException("The header has no extension record of the type " + type);
+        }
+        int length = ByteBuffer.wrap(extensions, offset - 4, 4).getInt();
+        ByteBuffer records = ByteBuffer.allocate(extensions.length - length + data.length);
+        records.put(extensions, 0, offset - 4);
+        records.putInt(data.length);
+        records.put(data);
+        records.put(extensions, offset + length, extensions.length - offset - length);
+
+        return new ContainerHeader(version, id, iv, segmentSize, records.array());
+    }
+
+    /**
+     * Creates a copy of this header with another SessionID. The ID is not
+     * authenticated, so it can be changed without encrypting again.
+     *
+     * @param id the new SessionID
+     * @return the new header
+     */
+    public ContainerHeader withID(String id) {
+        return new ContainerHeader(version, id, iv, segmentSize, extensions);
+    }
+
+    /**
+     * Gets the data of an extension record.
+     *
+     * @param type the type of the record
+     * @return the data, or null if the header has no such record
+     */
+    public byte[] getExtension(int type) {
+        int offset = findExtension(type);
+        if (offset == -1) {
+            return null;
+        }
+        int length = ByteBuffer.wrap(extensions, offset - 4, 4).getInt();
+
+        return Arrays.copyOfRange(extensions, offset, offset + length);
+    }
+
+    /**
+     * Gets the position of the data of an extension record in the file, so
+     * that the data can be replaced by data of the same length.
+     *
+     * @param type the type of the record
+     * @return the position in bytes, or -1 if the header has no such record
+     */
+    public long getExtensionPosition(int type) {
+        int offset = findExtension(type);
+
+        return offset == -1 ? -1 : getLength() - extensions.length + offset;
+    }
+
+    /**
+     * Gets the header data, which is authenticated with every segment. The ID
+     * and the extensions are not part of it.
+     *
+     * @return the authenticated data as a byte-array
+     */
+    public byte[] getAssociatedData() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            dos.write(MAGIC);
+            dos.write(version);
+            dos.write(iv);
+            dos.writeInt(segmentSize);
+        } catch (IOException ex) {
+            // Can not happen with a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+
+        return baos.toByteArray();
+    }
+
+    /**
+     * Gets the version of the container.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the SessionID of the key.
+     *
+     * @return the SessionID as a string
+     */
+    public String getID() {
+        return id;
+    }
+
+    /**
+     * Gets the initialvector.
+     *
+     * @return the IV as a byte-array
+     */
+    public byte[] getIV() {
+        return iv;
+    }
+
+    /**
+     * Gets the size of the plaintext of a segment.
+     *
+     * @return the segment size in bytes, or 0 for version 1
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Gets the length of the header in the file.
+     *
+     * @return the length in bytes
+     */
+    public int getLength() {
+        if (version == VERSION_1) {
+            return ID_SIZE + IV_SIZE;
+        }
+
+        return MAGIC.length + 1 + ID_SIZE + IV_SIZE + 4 + 4 + extensions.length;
+    }
+
+    private int findExtension(int type) {
+        ByteBuffer records = ByteBuffer.wrap(extensions);
+        while (records.remaining() >= RECORD_HEADER_SIZE) {
+            int recordType = Short.toUnsignedInt(records.getShort());
+            int length = records.getInt();
+            if (length < 0 || length > records.remaining()) {
+                return -1;
+            }
+            if (recordType == type) {
+                return records.position();
+            }
+            records.position(records.position() + length);
+        }
+
+        return -1;
+    }
+
+    private static String toID(byte[] bytes) {
+        String id = "";
+        for (byte b : bytes) {
+            id += (char) b;
+        }
+
+        return id;
+    }
+}
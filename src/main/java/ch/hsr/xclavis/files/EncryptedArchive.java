@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.helpers.CountingInputStream;
+import ch.hsr.xclavis.helpers.CountingOutputStream;
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+
+/**
+ * This class gives random access to the files inside an encrypted archive of
+ * the container version 2. The ZIP central directory at the end of the
+ * plaintext serves as index of the entry offsets. Because it is stored inside
+ * the authenticated segments, only the segments with the central directory
+ * and those of the requested entry have to be decrypted.
+ *
+ * @author Gian Poltéra
+ */
+public class EncryptedArchive implements Closeable {
+
+    private final static int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private final static int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private final static int END_SIGNATURE = 0x06054b50;
+    private final static int ZIP64_END_SIGNATURE = 0x06064b50;
+    private final static int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private final static int ZIP64_EXTRA_ID = 0x0001;
+    private final static int LOCAL_HEADER_SIZE = 30;
+    private final static int CENTRAL_HEADER_SIZE = 46;
+    private final static int END_SIZE = 22;
+    private final static int ZIP64_END_SIZE = 56;
+    private final static int ZIP64_LOCATOR_SIZE = 20;
+    private final static int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final Volumes.Reader channel;
+    private final ContainerHeader header;
+    private final SessionKey sessionKey;
+    private final SegmentedAESGCM segmentedAES;
+    private final int chunkSize;
+    private final long segments;
+    private final long plaintextLength;
+    private long cachedIndex = -1;
+    private byte[] cachedSegment;
+    private Telemetry telemetry = new Telemetry();
+    private BooleanSupplier cancelled = () -> false;
+
+    /**
+     * Opens an encrypted archive for random access.
+     *
+     * @param file the encrypted file or its first volume
+     * @param sessionKey the SessionKey for the decryption
+     * @throws IOException if the file could not be opened or is not of the
+     * container version 2
+     */
+    public EncryptedArchive(File file, SessionKey sessionKey) throws IOException {
+        this(Volumes.find(file, Collections.emptyList()), sessionKey);
+    }
+
+    /**
+     * Opens an encrypted archive, which is split into volumes, for random
+     * access.
+     *
+     * @param volumes the volumes in their order
+     * @param sessionKey the SessionKey for the decryption
+     * @throws IOException if a volume could not be opened or the file is not
+     * of the container version 2
+     */
+    public EncryptedArchive(List<File> volumes, SessionKey sessionKey) throws IOException {
+        this.header = ContainerHeader.read(volumes.get(0));
+        if (header.getVersion() < ContainerHeader.VERSION_2) {
+            throw new IOException("Random access needs the container version " + ContainerHeader.VERSION_2);
+        }
+        this.sessionKey = Envelope.open(header, sessionKey);
+        this.segmentedAES = new SegmentedAESGCM(this.sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        this.chunkSize = header.getSegmentSize() + SegmentedAESGCM.TAG_SIZE;
+        this.channel = new Volumes.Reader(volumes);
+
+        long payloadLength = channel.size() - header.getLength();
+        this.segments = (payloadLength + chunkSize - 1) / chunkSize;
+        if (segments == 0 || payloadLength - (segments - 1) * chunkSize < SegmentedAESGCM.TAG_SIZE) {
+            channel.close();
+            throw new InvalidCipherTextIOException("Encrypted data is truncated", new EOFException());
+        }
+        this.plaintextLength = payloadLength - segments * SegmentedAESGCM.TAG_SIZE;
+    }
+
+    /**
+     * Sets the telemetry, which counts the read, decrypted, decompressed and
+     * written bytes of an extraction and the time of each stage.
+     *
+     * @param telemetry the telemetry for the counters
+     */
+    public void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Sets the check for a cancellation. It is called on each buffer of an
+     * extraction, which then stops with a CancellationException and deletes
+     * its temporary file.
+     *
+     * @param cancelled returns true, if the extraction should stop
+     */
+    public void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Gets the length of the plaintext, that is the ZIP archive.
+     *
+     * @return the length in bytes
+     */
+    public long getPlaintextLength() {
+        return plaintextLength;
+    }
+
+    /**
+     * Lists the files inside the archive. The manifest in the header is
+     * used, if there is a valid one, otherwise the ZIP central directory is
+     * read.
+     *
+     * @return the entries of the archive
+     * @throws IOException if the index could not be read or verified
+     */
+    public List<ArchiveEntry> getEntries() throws IOException {
+        List<ArchiveEntry> manifest = Manifest.read(header, sessionKey);
+        if (manifest != null) {
+            return manifest;
+        }
+
+        return getCentralDirectory();
+    }
+
+    /**
+     * Lists the files inside the archive by reading the ZIP central
+     * directory.
+     *
+     * @return the entries of the archive
+     * @throws IOException if the index could not be read or verified
+     */
+    public List<ArchiveEntry> getCentralDirectory() throws IOException {
+        return readCentralDirectory(this::read, plaintextLength);
+    }
+
+    /**
+     * Reads the ZIP central directory of a ZIP, also in the ZIP64 format.
+     *
+     * @param zip reads the bytes of the ZIP at a position
+     * @param length the length of the ZIP
+     * @return the entries of the ZIP
+     * @throws IOException if the central directory could not be read or is
+     * not valid
+     */
+    static List<ArchiveEntry> readCentralDirectory(RandomAccess zip, long length) throws IOException {
+        // The end record is at the end of the ZIP, followed only by the comment
+        int tailLength = (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = zip.read(length - tailLength, tailLength);
+        int end = -1;
+        for (int i = tailLength - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            throw new IOException("No ZIP central directory found");
+        }
+        long count = Short.toUnsignedInt(tail.getShort(end + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+        // A ZIP64 end record is found by the locator right before the end record
+        long locatorPosition = length - tailLength + end - ZIP64_LOCATOR_SIZE;
+        ByteBuffer locator = locatorPosition >= 0 ? zip.read(locatorPosition, ZIP64_LOCATOR_SIZE) : null;
+        if (locator != null && locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+            long zip64End = locator.getLong(8);
+            if (zip64End < 0 || zip64End + ZIP64_END_SIZE > locatorPosition) {
+                throw new IOException("Invalid ZIP64 end record");
+            }
+            ByteBuffer record = zip.read(zip64End, ZIP64_END_SIZE);
+            if (record.getInt(0) != ZIP64_END_SIGNATURE) {
+                throw new IOException("Invalid ZIP64 end record");
+            }
+            count = record.getLong(32);
+            directorySize = record.getLong(40);
+            directoryOffset = record.getLong(48);
+        }
+        if (count < 0 || directorySize < 0 || directorySize > Integer.MAX_VALUE || directoryOffset < 0
+                || directoryOffset + directorySize > length) {
+            throw new IOException("Invalid ZIP central directory");
+        }
+
+        List<ArchiveEntry> entries = new ArrayList<>();
+        ByteBuffer directory = zip.read(directoryOffset, (int) directorySize);
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            if (directory.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Invalid ZIP central directory entry");
+            }
+            int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            long dosTime = Integer.toUnsignedLong(directory.getInt(position + 12));
+            long crc = Integer.toUnsignedLong(directory.getInt(position + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long size = Integer.toUnsignedLong(directory.getInt(position + 24));
+            int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long offset = Integer.toUnsignedLong(directory.getInt(position + 42));
+            byte[] name = new byte[nameLength];
+            directory.position(position + CENTRAL_HEADER_SIZE);
+            directory.get(name);
+            // The values of 4 GB and more are in the ZIP64 extra field, in this order
+            int extra = position + CENTRAL_HEADER_SIZE + nameLength;
+            while (extra + 4 <= position + CENTRAL_HEADER_SIZE + nameLength + extraLength) {
+                int id = Short.toUnsignedInt(directory.getShort(extra));
+                int fieldsLength = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if (id == ZIP64_EXTRA_ID) {
+                    int field = extra + 4;
+                    if (size == ZipWriter.ZIP64_MAGIC && field + 8 <= extra + 4 + fieldsLength) {
+                        size = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (compressedSize == ZipWriter.ZIP64_MAGIC && field + 8 <= extra + 4 + fieldsLength) {
+                        compressedSize = directory.getLong(field);
+                        field += 8;
+                    }
+                    if (offset == ZipWriter.ZIP64_MAGIC && field + 8 <= extra + 4 + fieldsLength) {
+                        offset = directory.getLong(field);
+                    }
+                }
+                extra += 4 + fieldsLength;
+            }
+            entries.add(new ArchiveEntry(new String(name, StandardCharsets.UTF_8), size, compressedSize, crc, method, ZipWriter.dosToJavaTime(dosTime), offset));
+            position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Extracts a single file from the archive. Only the segments of this
+     * file are decrypted. The file is written to a temporary file first and
+     * moved to its final name after the CRC-32 has been checked.
+     *
+     * @param entry the entry to be extracted
+     * @param output the output-path for the extracted file
+     * @return the extracted file
+     * @throws IOException if the file could not be extracted or verified
+     */
+    public File extract(ArchiveEntry entry, String output) throws IOException {
+        File file = new File(output + File.separator + new File(entry.getName()).getName());
+        if (file.exists()) {
+            throw new IOException(file.getName() + " already exists");
+        }
+        extractTo(entry, file.toPath());
+        Logfile.addEntry(entry.getName() + " extracted to " + file.getPath());
+
+        return file;
+    }
+
+    /**
+     * Extracts a single file from the archive to a specific path. The file
+     * is written to a temporary file next to the target first and moved to
+     * the target after the CRC-32 has been checked. An existing file at the
+     * target is replaced.
+     *
+     * @param entry the entry to be extracted
+     * @param target the path of the extracted file
+     * @throws IOException if the file could not be extracted or verified
+     */
+    public void extractTo(ArchiveEntry entry, Path target) throws IOException {
+        ByteBuffer local = read(entry.getOffset(), LOCAL_HEADER_SIZE);
+        if (local.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Invalid ZIP local header for " + entry.getName());
+        }
+        int nameLength = Short.toUnsignedInt(local.getShort(26));
+        int extraLength = Short.toUnsignedInt(local.getShort(28));
+        long dataOffset = entry.getOffset() + LOCAL_HEADER_SIZE + nameLength + extraLength;
+
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), ".xclavis", ".tmp");
+        try {
+            InputStream data = new BufferedInputStream(new CountingInputStream(
+                    new PlaintextStream(dataOffset, entry.getCompressedSize()), telemetry, Telemetry.Stage.CRYPTION));
+            if (entry.getMethod() == ZipEntry.DEFLATED) {
+                data = new CountingInputStream(new InflaterInputStream(data, new Inflater(true)), telemetry, Telemetry.Stage.COMPRESSION);
+            }
+            CRC32 crc = new CRC32();
+            long size = 0;
+            try (InputStream is = data;
+                    OutputStream os = new CountingOutputStream(Files.newOutputStream(temp), telemetry, Telemetry.Stage.WRITE)) {
+                byte[] buffer = BufferPool.getShared().acquire();
+                try {
+                    int length;
+                    while ((length = is.read(buffer)) != -1) {
+                        if (cancelled.getAsBoolean()) {
+                            throw new CancellationException("The job was cancelled");
+                        }
+                        os.write(buffer, 0, length);
+                        crc.update(buffer, 0, length);
+                        size += length;
+                    }
+                } finally {
+                    BufferPool.getShared().release(buffer);
+                }
+            }
+            if (size != entry.getSize() || crc.getValue() != entry.getCrc()) {
+                throw new IOException("CRC-32 of " + entry.getName() + " is not correct");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads the bytes of a ZIP with random access.
+     */
+    @FunctionalInterface
+    interface RandomAccess {
+
+        /**
+         * Reads bytes of the ZIP.
+         *
+         * @param position the position in the ZIP
+         * @param length the number of bytes
+         * @return the bytes in little-endian order
+         * @throws IOException if the bytes could not be read
+         */
+        ByteBuffer read(long position, int length) throws IOException;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        byte[] result = new byte[length];
+        int done = 0;
+        while (done < length) {
+            done += read(position + done, result, done, length - done);
+        }
+
+        return ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private int read(long position, byte[] b, int off, int len) throws IOException {
+        if (position >= plaintextLength) {
+            throw new EOFException();
+        }
+        long index = position / header.getSegmentSize();
+        byte[] segment = getSegment(index);
+        int segmentOffset = (int) (position - index * header.getSegmentSize());
+        int length = Math.min(len, segment.length - segmentOffset);
+        System.arraycopy(segment, segmentOffset, b, off, length);
+
+        return length;
+    }
+
+    private byte[] getSegment(long index) throws IOException {
+        if (index != cachedIndex) {
+            long position = header.getLength() + index * chunkSize;
+            int length = (int) Math.min(chunkSize, channel.size() - position);
+            ByteBuffer chunk = ByteBuffer.allocate(length);
+            long outer = Telemetry.begin();
+            long start = System.nanoTime();
+            try {
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, position + chunk.position()) == -1) {
+                        throw new EOFException();
+                    }
+                }
+            } finally {
+                telemetry.add(Telemetry.Stage.READ, chunk.position(), Telemetry.end(outer, System.nanoTime() - start));
+            }
+            try {
+                cachedSegment = segmentedAES.decryptSegment(index, index == segments - 1, chunk.array(), length);
+                cachedIndex = index;
+            } catch (InvalidCipherTextException ex) {
+                throw new InvalidCipherTextIOException("Segment " + index + " is not authentic", ex);
+            }
+        }
+
+        return cachedSegment;
+    }
+
+    private class PlaintextStream extends InputStream {
+
+        private long position;
+        private final long end;
+
+        PlaintextStream(long position, long length) {
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int length = read(b, 0, 1);
+
+            return length == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int length = EncryptedArchive.this.read(position, b, off, (int) Math.min(len, end - position));
+            position += length;
+
+            return length;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+
+/**
+ * This class allows several recipients to decrypt the same encrypted file.
+ * The data is encrypted once with a random data key, which is stored in an
+ * extension record of the header wrapped with the SessionKey of each
+ * recipient. Another recipient only costs the ID and the wrapped data key,
+ * that is 52 bytes.
+ *
+ * The ID in the header is the one of the first recipient, so the file is
+ * still listed by readers, which do not know the record.
+ *
+ * @author Gian Poltéra
+ */
+public class Envelope {
+
+    /**
+     * The type of the extension record.
+     */
+    public final static int EXTENSION_TYPE = 4;
+    /**
+     * The size of the data key in bytes.
+     */
+    public final static int DATA_KEY_SIZE = 32;
+    /**
+     * The file extension of the journal of a rekey.
+     */
+    public final static String JOURNAL_EXTENSION = ".rekey";
+    private final static int CONTEXT = 4;
+    private final static int ID_SIZE = 4;
+    private final static int WRAPPED_SIZE = DATA_KEY_SIZE + 16;
+
+    private Envelope() {
+    }
+
+    /**
+     * Adds the data key wrapped for each recipient to a header. A recipient
+     * listed twice is only added once.
+     *
+     * @param header the header of the encrypted file
+     * @param dataKey the data key, which encrypts the file
+     * @param recipients the SessionKeys of the recipients
+     * @return the header with the wrapped data keys
+     */
+    public static ContainerHeader addTo(ContainerHeader header, byte[] dataKey, List<SessionKey> recipients) {
+        List<SessionKey> unique = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        recipients.stream().filter((recipient) -> (!ids.contains(recipient.getID()))).forEach((recipient) -> {
+            ids.add(recipient.getID());
+            unique.add(recipient);
+        });
+        ByteBuffer record = ByteBuffer.allocate(2 + unique.size() * (ID_SIZE + WRAPPED_SIZE));
+        record.putShort((short) unique.size());
+        for (SessionKey recipient : unique) {
+            // The same nonce for each recipient is safe, because each has its own key
+            record.put(recipient.getID().getBytes(StandardCharsets.US_ASCII));
+            record.put(Manifest.encrypt(header, recipient, CONTEXT, dataKey));
+        }
+
+        return header.withExtension(EXTENSION_TYPE, record.array());
+    }
+
+    /**
+     * Checks whether an encrypted file has several recipients.
+     *
+     * @param header the header of the encrypted file
+     * @return true, if the file has wrapped data keys or false otherwise
+     */
+    public static boolean isEnvelope(ContainerHeader header) {
+        return header.getVersion() >= ContainerHeader.VERSION_2 && header.getExtension(EXTENSION_TYPE) != null;
+    }
+
+    /**
+     * Gets the SessionIDs of all recipients of an encrypted file.
+     *
+     * @param header the header of the encrypted file
+     * @return the SessionIDs, or only the ID of the header for a file with a
+     * single recipient
+     */
+    public static List<String> getIDs(ContainerHeader header) {
+        if (!isEnvelope(header)) {
+            return Collections.singletonList(header.getID());
+        }
+        ByteBuffer record = ByteBuffer.wrap(header.getExtension(EXTENSION_TYPE));
+        int count = Math.min(Short.toUnsignedInt(record.getShort()), record.remaining() / (ID_SIZE + WRAPPED_SIZE));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[ID_SIZE];
+            record.get(id);
+            record.position(record.position() + WRAPPED_SIZE);
+            ids.add(new String(id, StandardCharsets.US_ASCII));
+        }
+
+        return ids;
+    }
+
+    /**
+     * Gets the key, which decrypts the data of an encrypted file. For a file
+     * with several recipients, this is the data key unwrapped with the
+     * SessionKey of the recipient.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey of a recipient
+     * @return a SessionKey with the data key, or the given SessionKey for a
+     * file with a single recipient
+     * @throws IOException if the SessionKey is not one of the recipients
+     * @throws InvalidCipherTextIOException if the wrapped data key was
+     * modified or the SessionKey is not correct
+     */
+    public static SessionKey open(ContainerHeader header, SessionKey sessionKey) throws IOException {
+        if (!isEnvelope(header)) {
+            return sessionKey;
+        }
+        ByteBuffer record = ByteBuffer.wrap(header.getExtension(EXTENSION_TYPE));
+        int count = Math.min(Short.toUnsignedInt(record.getShort()), record.remaining() / (ID_SIZE + WRAPPED_SIZE));
+        for (int i = 0; i < count; i++) {
+            byte[] id = new byte[ID_SIZE];
+            record.get(id);
+            byte[] wrapped = new byte[WRAPPED_SIZE];
+            record.get(wrapped);
+            if (new String(id, StandardCharsets.US_ASCII).equals(sessionKey.getID())) {
+                try {
+                    byte[] dataKey = Manifest.decrypt(header, sessionKey, CONTEXT, wrapped);
+                    SessionKey opened = new SessionKey(sessionKey.getSessionID(), dataKey);
+                    opened.setIV(header.getIV());
+
+                    return opened;
+                } catch (InvalidCipherTextException ex) {
+                    throw new InvalidCipherTextIOException("The data key for " + sessionKey.getID() + " is not correct", ex);
+                }
+            }
+        }
+
+        throw new IOException(sessionKey.getID() + " is not a recipient of the file");
+    }
+
+    /**
+     * Replaces a recipient of an encrypted file by another one. The data key
+     * is unwrapped with the old SessionKey and wrapped with the new one, so
+     * only the header is written again. The header keeps its length, so it
+     * is rewritten in place.
+     *
+     * The old header is kept in a journal next to the file, until the new
+     * one is forced to the disk. If the rekey is interrupted, the next rekey
+     * or recover of the file restores the old header from the journal.
+     *
+     * @param file the encrypted file
+     * @param oldKey the SessionKey of the recipient to replace
+     * @param newKey the SessionKey of the new recipient
+     * @throws IOException if the file has no wrapped data keys, the old
+     * SessionKey is not a recipient or the header could not be written
+     */
+    public static void rekey(File file, SessionKey oldKey, SessionKey newKey) throws IOException {
+        recover(file);
+        ContainerHeader header = ContainerHeader.read(file);
+        ContainerHeader rekeyed = rekey(header, oldKey, newKey);
+        byte[] bytes = rekeyed.toBytes();
+        if (bytes.length != header.getLength()) {
+            throw new IOException("The header of " + file.getName() + " changed its length");
+        }
+        byte[] old = new byte[header.getLength()];
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(old);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) == -1) {
+                    throw new IOException("The header of " + file.getName() + " is truncated");
+                }
+            }
+        }
+        // The journal only appears complete, so an interrupted write of it leaves the file untouched
+        Path journal = getJournal(file);
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        write(temp, old, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        Files.move(temp, journal, StandardCopyOption.ATOMIC_MOVE);
+        write(file.toPath(), bytes, StandardOpenOption.WRITE);
+        Files.delete(journal);
+    }
+
+    /**
+     * Restores the old header of an encrypted file, whose rekey was
+     * interrupted. The file can then be opened with the old SessionKey
+     * again and rekeyed once more.
+     *
+     * @param file the encrypted file
+     * @return true, if the old header was restored or false, if no rekey of
+     * the file was interrupted
+     * @throws IOException if the header could not be restored
+     */
+    public static boolean recover(File file) throws IOException {
+        Path journal = getJournal(file);
+        // An incomplete journal was written before the file was changed
+        Files.deleteIfExists(journal.resolveSibling(journal.getFileName() + ".tmp"));
+        if (!Files.exists(journal)) {
+            return false;
+        }
+        write(file.toPath(), Files.readAllBytes(journal), StandardOpenOption.WRITE);
+        Files.delete(journal);
+
+        return true;
+    }
+
+    /**
+     * Gets the journal of a rekey of an encrypted file.
+     *
+     * @param file the encrypted file
+     * @return the path of the journal
+     */
+    public static Path getJournal(File file) {
+        return Paths.get(file.getPath() + JOURNAL_EXTENSION);
+    }
+
+    private static void write(Path path, byte[] bytes, OpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Creates a copy of a header, in which a recipient is replaced by
+     * another one. The ID in the header is changed too, if it is the one of
+     * the old recipient.
+     *
+     * @param header the header of the encrypted file
+     * @param oldKey the SessionKey of the recipient to replace
+     * @param newKey the SessionKey of the new recipient
+     * @return the new header
+     * @throws IOException if the header has no wrapped data keys, the old
+     * SessionKey is not a recipient or the new one is already
+     */
+    public static ContainerHeader rekey(ContainerHeader header, SessionKey oldKey, SessionKey newKey) throws IOException {
+        if (!isEnvelope(header)) {
+            throw new IOException("Only a file with a wrapped data key can be rekeyed");
+        }
+        List<String> ids = getIDs(header);
+        if (ids.contains(newKey.getID())) {
+            throw new IOException(newKey.getID() + " is already a recipient of the file");
+        }
+        byte[] dataKey = open(header, oldKey).getKey();
+        ByteBuffer record = ByteBuffer.wrap(header.getExtension(EXTENSION_TYPE).clone());
+        record.position(2 + ids.indexOf(oldKey.getID()) * (ID_SIZE + WRAPPED_SIZE));
+        record.put(newKey.getID().getBytes(StandardCharsets.US_ASCII));
+        record.put(Manifest.encrypt(header, newKey, CONTEXT, dataKey));
+
+        ContainerHeader rekeyed = header.withReplacedExtension(EXTENSION_TYPE, record.array());
+        if (header.getID().equals(oldKey.getID())) {
+            rekeyed = rekeyed.withID(newKey.getID());
+        }
+
+        return rekeyed;
+    }
+}
@@ -1,159 +1,1330 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.files;
-
-import ch.hsr.xclavis.keys.SessionKey;
-import ch.hsr.xclavis.crypto.AESGCM;
-import ch.hsr.xclavis.helpers.Logfile;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import javafx.beans.property.ReadOnlyDoubleProperty;
-import javafx.beans.property.ReadOnlyIntegerProperty;
-import javafx.concurrent.Task;
-
-/**
- * This class encrypts and decrypts files.
- *
- * @author Gian Poltéra
- */
-public class FileCrypter {
-
-    private final static int ID_SIZE = 4;
-    private final static int IV_SIZE = 96 / Byte.SIZE;
-    private byte[] buffer = new byte[2048];
-    private final static boolean COMPRESSION = true;
-
-    private FileZipper zip;
-    private AESGCM aes;
-
-    private ReadOnlyIntegerProperty numberFiles;
-
-    /**
-     * Encrypts a list of files to a specific output.
-     *
-     * @param sessionKey for the encryption
-     * @param files list of files to encrypt
-     * @param output output-path for the encrpyted file
-     * @return the status of the encryption as a ReadOnlyDoubleProperty
-     */
-    public ReadOnlyDoubleProperty encrypt(SessionKey sessionKey, List<File> files, String output) {
-        this.zip = new FileZipper();
-        this.aes = new AESGCM(sessionKey.getKey(), sessionKey.getIV());
-        Task task = new Task<Void>() {
-            @Override
-            public Void call() {
-                updateProgress(1, 10);
-                Logfile.addTitle("ENCRYPTION");
-                Logfile.addEntry(files.size() + " files selected for encryption");
-                long before = System.nanoTime();
-                // ZIP the files
-                Logfile.addEntry("Begin to zip the selected files");
-                byte[] input = zip.getZippedBytes(files, COMPRESSION);
-                Logfile.addEntry("All files zipped");
-                updateProgress(7, 10);
-                // Encrypt the files
-                Logfile.addEntry("Begin to encrypt the zipped file");
-                boolean result = aes.encrypt(input, output, sessionKey);
-                Logfile.addEntry("Encryption finished");
-                Logfile.addEntry("Encrypted file " + output);
-                long after = System.nanoTime();
-                long runningTimeMs = (after - before) / 1000000;
-                updateProgress(10, 10);
-                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
-                return null;
-            }
-        };
-        new Thread(task).start();
-
-        return task.progressProperty();
-    }
-
-    /**
-     * Decrypts a file to a specific output.
-     *
-     * @param sessionKey for the decryption
-     * @param file to decrypt
-     * @param output output-path for the decrpyted file
-     * @return the status of the encryption as a ReadOnlyDoubleProperty
-     */
-    public ReadOnlyDoubleProperty decrypt(SessionKey sessionKey, File file, String output) {
-        this.zip = new FileZipper();
-        this.aes = new AESGCM(sessionKey.getKey(), sessionKey.getIV());
-        Task task = new Task<Void>() {
-            @Override
-            public Void call() {
-                updateProgress(1, 10);
-                Logfile.addTitle("DECRYPTION");
-                long before = System.nanoTime();
-                byte[] encrypted = fileToByteArrayOutputStream(file);
-                // Decrypt the file
-                Logfile.addEntry("Begin to decrypt the selected file " + file.getName());
-                byte[] decrypted = aes.decryptToByteStream(encrypted);
-                Logfile.addEntry("Decryption finished");
-                updateProgress(5, 10);
-                // DeZIP the files
-                Logfile.addEntry("Begin to dezip the decrypted file");
-                zip.getFilesFromZippedBytes(decrypted, output);
-                Logfile.addEntry("All files dezipped");
-                long after = System.nanoTime();
-                long runningTimeMs = (after - before) / 1000000;
-                updateProgress(10, 10);
-                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
-                return null;
-            }
-        };
-        new Thread(task).start();
-
-        return task.progressProperty();
-    }
-
-    private byte[] fileToByteArrayOutputStream(File file) {
-        try (FileInputStream fis = new FileInputStream(file);
-                DataInputStream dis = new DataInputStream(fis);
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            // Remove the ID and the IV from the beginning of the file.
-            dis.skipBytes(ID_SIZE + IV_SIZE);
-            int length;
-            while ((length = dis.read(buffer)) > 0) {
-                baos.write(buffer, 0, length);
-            }
-            return baos.toByteArray();
-        } catch (IOException ex) {
-            Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
-        }
-
-        return null;
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.keys.SessionKey;
+import ch.hsr.xclavis.crypto.AESGCM;
+import ch.hsr.xclavis.crypto.RandomGenerator;
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.helpers.Abortable;
+import ch.hsr.xclavis.helpers.AsyncInputStream;
+import ch.hsr.xclavis.helpers.AsyncOutputStream;
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.helpers.CountingInputStream;
+import ch.hsr.xclavis.helpers.CountingOutputStream;
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.helpers.VolumeInputStream;
+import ch.hsr.xclavis.helpers.VolumeOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.concurrent.Task;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+
+/**
+ * This class encrypts and decrypts files.
+ *
+ * A cryption runs as a pipeline. The input is read, compressed, cryptographed
+ * and written by different threads, which are joined by bounded queues of
+ * pooled buffers. A slow stage therefore holds the others back instead of
+ * filling the heap, and the throughput approaches that of the slowest stage.
+ *
+ * A cryption can be cancelled with the cancel method of its job. The
+ * cancellation is checked on each buffer, the streams are then closed and
+ * the partial output is deleted.
+ *
+ * @author Gian Poltéra
+ */
+public class FileCrypter {
+
+    private final static boolean COMPRESSION = true;
+
+    private FileZipper zip;
+    private AESGCM aes;
+    private boolean mappedIO = false;
+    private Path chunkStore;
+    private long volumeSize = 0;
+    private List<Path> volumeFolders = Collections.emptyList();
+    private JobScheduler scheduler = JobScheduler.getShared();
+    private Job job;
+    private volatile boolean intact = false;
+
+    private ReadOnlyIntegerProperty numberFiles;
+
+    /**
+     * Activates the memory-mapped I/O backend for the encrypted files.
+     *
+     * @param mappedIO true, for memory-mapped I/O or false for stream I/O
+     */
+    public void setMappedIO(boolean mappedIO) {
+        this.mappedIO = mappedIO;
+    }
+
+    /**
+     * Sets the folder of the chunk store for deduplicated encryptions. By
+     * default the store is next to the encrypted file.
+     *
+     * @param chunkStore the folder of the chunk store
+     */
+    public void setChunkStore(Path chunkStore) {
+        this.chunkStore = chunkStore;
+    }
+
+    /**
+     * Splits the encrypted files into volumes of a fixed size. The volumes
+     * are spread over the folders in turns and searched there again for the
+     * decryption.
+     *
+     * @param volumeSize the size of a volume in bytes, or 0 for a single
+     * file
+     * @param folders the folders for the volumes, or an empty list for the
+     * folder of the encrypted file
+     */
+    public void setVolumes(long volumeSize, List<Path> folders) {
+        if (volumeSize != 0 && volumeSize < Volumes.MIN_SIZE) {
+            throw new IllegalArgumentException("A volume needs at least " + Volumes.MIN_SIZE + " bytes");
+        }
+        this.volumeSize = volumeSize;
+        this.volumeFolders = new ArrayList<>(folders);
+    }
+
+    /**
+     * Sets the scheduler, which runs the cryption jobs.
+     *
+     * @param scheduler the JobScheduler for the jobs
+     */
+    public void setScheduler(JobScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the last job of this FileCrypter.
+     *
+     * @return the last job or null, if no job was submitted
+     */
+    public Job getJob() {
+        return job;
+    }
+
+    /**
+     * Checks whether the archive of the last verification was intact.
+     *
+     * @return true, if all authentication tags were correct or false
+     * otherwise
+     */
+    public boolean isIntact() {
+        return intact;
+    }
+
+    /**
+     * Encrypts a list of files to a specific output.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty encrypt(SessionKey sessionKey, List<File> files, String output) {
+        if (volumeSize > 0) {
+            return encryptVolumes(sessionKey, files, output);
+        }
+        this.zip = new FileZipper();
+        long size = files.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, size);
+        zip.setTelemetry(telemetry);
+        Checkpoint checkpoint = new Checkpoint(Paths.get(output + Checkpoint.EXTENSION), sessionKey,
+                Checkpoint.getFingerprint(files, output, sessionKey.getID(), String.valueOf(COMPRESSION)));
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("ENCRYPTION");
+                Logfile.addEntry(files.size() + " files selected for encryption");
+                long before = System.nanoTime();
+                // ZIP the files directly into the encryption stream
+                Logfile.addEntry("Begin to zip and encrypt the selected files");
+                zip.setCancellation(this::isCancelled);
+                try {
+                    OutputStream os = getEncryptionStream(sessionKey, output, telemetry, checkpoint, Manifest.getLength(files));
+                    try {
+                        zip.setResumeListener(checkpoint::mark);
+                        zip.zipToStream(files, os, COMPRESSION, checkpoint.getResumePoint());
+                    } catch (IOException | RuntimeException ex) {
+                        abort(os, ex);
+                        throw ex;
+                    }
+                    os.close();
+                    // The list of the files is stored in the reserved header record
+                    if (!Manifest.write(new File(output), sessionKey, zip.getEntries())) {
+                        Logfile.addEntry("The manifest could not be written, the contents are listed from the archive");
+                    }
+                    checkpoint.delete();
+                    Logfile.addEntry("All files zipped");
+                    Logfile.addEntry("Encryption finished");
+                    Logfile.addEntry("Encrypted file " + output);
+                } catch (CancellationException ex) {
+                    checkpoint.delete();
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Encryption cancelled, the partial file was deleted");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Encryption failed: " + ex.getMessage());
+                    if (Files.exists(checkpoint.getPath())) {
+                        Logfile.addEntry("The encryption can be resumed by encrypting the same files to " + output);
+                    } else {
+                        deleteOutput(Paths.get(output));
+                        Logfile.addEntry("The partial file was deleted");
+                    }
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        files.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        job = scheduler.submit("Encryption of " + new File(output).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Encrypts a list of files to volumes of the set size. The volumes are
+     * named like the output with a number, e.g. ENC_XXXX.enc.001.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty encryptVolumes(SessionKey sessionKey, List<File> files, String output) {
+        long size = files.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, size);
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("ENCRYPTION");
+                Logfile.addEntry(files.size() + " files selected for encryption");
+                long before = System.nanoTime();
+                try {
+                    List<File> volumes = encryptVolumes(sessionKey, files, output, telemetry, this::isCancelled);
+                    Logfile.addEntry("Encryption finished");
+                    volumes.forEach((volume) -> Logfile.addEntry("Encrypted volume " + volume));
+                } catch (CancellationException ex) {
+                    Logfile.addEntry("Encryption cancelled, the partial volumes were deleted");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Encryption failed: " + ex.getMessage());
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        files.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        paths.addAll(volumeFolders);
+        job = scheduler.submit("Encryption of " + new File(output).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Encrypts a list of files to volumes like encryptVolumes, but on the
+     * calling thread. The next volume is filled, while the full one is still
+     * written, so volumes in different folders are written at the same time.
+     * A partial encryption is deleted. An existing volume is not overwritten,
+     * and the encryption fails, if a volume of an earlier encryption would
+     * follow the last volume.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @param telemetry the telemetry for the counters
+     * @param cancelled returns true, if the encryption should stop
+     * @return the volumes in their order
+     * @throws IOException if a file could not be read, a volume not be
+     * written or a volume already exists
+     */
+    List<File> encryptVolumes(SessionKey sessionKey, List<File> files, String output, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        this.zip = new FileZipper();
+        zip.setTelemetry(telemetry);
+        zip.setCancellation(cancelled);
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), ContainerHeader.DEFAULT_SEGMENT_SIZE);
+        ContainerHeader withManifest = header.withExtension(Manifest.EXTENSION_TYPE, new byte[Manifest.getLength(files)]);
+        // The manifest is written into the first volume afterwards, so it must fit there
+        if (withManifest.getLength() <= volumeSize) {
+            header = withManifest;
+        }
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        segmentedAES.setTelemetry(telemetry);
+
+        VolumeOutputStream volumes = new VolumeOutputStream((index) -> Volumes.getPath(output, index, volumeFolders), volumeSize);
+        try {
+            OutputStream file = new CountingOutputStream(volumes, telemetry, Telemetry.Stage.WRITE);
+            header.write(file);
+            OutputStream os = segmentedAES.getEncryptionStream(file);
+            try {
+                zip.zipToStream(files, os, COMPRESSION);
+            } catch (IOException | RuntimeException ex) {
+                abort(os, ex);
+                throw ex;
+            }
+            os.close();
+            // A volume of an earlier encryption after the last one would be read as trailing data
+            List<File> found = Volumes.find(volumes.getVolumes().get(0).toFile(), volumeFolders);
+            if (found.size() > volumes.getVolumes().size()) {
+                throw new FileAlreadyExistsException(found.get(volumes.getVolumes().size()).getPath(), null, "The volume of an earlier encryption follows the last volume");
+            }
+        } catch (IOException | RuntimeException ex) {
+            try {
+                volumes.close();
+            } catch (IOException closing) {
+                ex.addSuppressed(closing);
+            }
+            for (Path volume : volumes.getVolumes()) {
+                deleteOutput(volume);
+            }
+            throw ex;
+        }
+        List<File> result = new ArrayList<>();
+        volumes.getVolumes().forEach((volume) -> result.add(volume.toFile()));
+        if (!Manifest.write(result.get(0), sessionKey, zip.getEntries())) {
+            Logfile.addEntry("The manifest could not be written, the contents are listed from the archive");
+        }
+
+        return result;
+    }
+
+    /**
+     * Encrypts a list of files once for several recipients to a specific
+     * output. The files are encrypted with a random data key, which is
+     * wrapped with the SessionKey of each recipient in the header.
+     *
+     * @param recipients the SessionKeys of the recipients, the first one is
+     * used for the ID in the header
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty encryptEnvelope(List<SessionKey> recipients, List<File> files, String output) {
+        long size = files.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, size);
+        List<String> ids = new ArrayList<>();
+        recipients.forEach((recipient) -> ids.add(recipient.getID()));
+        ids.add(output);
+        ids.add(String.valueOf(COMPRESSION));
+        Checkpoint checkpoint = new Checkpoint(Paths.get(output + Checkpoint.EXTENSION), recipients.get(0),
+                Checkpoint.getFingerprint(files, ids.toArray(new String[ids.size()])));
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("ENCRYPTION");
+                Logfile.addEntry(files.size() + " files selected for encryption for " + recipients.size() + " recipients");
+                long before = System.nanoTime();
+                try {
+                    encryptEnvelope(recipients, files, output, telemetry, checkpoint, this::isCancelled);
+                    Logfile.addEntry("Encryption finished");
+                    Logfile.addEntry("Encrypted file " + output);
+                } catch (CancellationException ex) {
+                    checkpoint.delete();
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Encryption cancelled, the partial file was deleted");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Encryption failed: " + ex.getMessage());
+                    if (Files.exists(checkpoint.getPath())) {
+                        Logfile.addEntry("The encryption can be resumed by encrypting the same files to " + output);
+                    } else {
+                        deleteOutput(Paths.get(output));
+                        Logfile.addEntry("The partial file was deleted");
+                    }
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        files.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        job = scheduler.submit("Encryption of " + new File(output).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Encrypts a list of files for several recipients like encryptEnvelope,
+     * but on the calling thread.
+     *
+     * @param recipients the SessionKeys of the recipients
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @param telemetry the telemetry for the counters
+     * @param checkpoint the checkpoint of the encryption
+     * @param cancelled returns true, if the encryption should stop
+     * @throws IOException if a file could not be read or written
+     */
+    void encryptEnvelope(List<SessionKey> recipients, List<File> files, String output, Telemetry telemetry, Checkpoint checkpoint,
+            BooleanSupplier cancelled) throws IOException {
+        this.zip = new FileZipper();
+        zip.setTelemetry(telemetry);
+        zip.setCancellation(cancelled);
+        SessionKey first = recipients.get(0);
+        SessionKey dataKey = resumeDataKey(first, output, checkpoint);
+        if (dataKey == null) {
+            dataKey = new SessionKey(first.getSessionID(), RandomGenerator.getRandomBytes(Envelope.DATA_KEY_SIZE));
+        }
+        ContainerHeader header = new ContainerHeader(first.getID(), RandomGenerator.getRandomBytes(first.getIV().length), ContainerHeader.DEFAULT_SEGMENT_SIZE)
+                .withExtension(Manifest.EXTENSION_TYPE, new byte[Manifest.getLength(files)]);
+        header = Envelope.addTo(header, dataKey.getKey(), recipients);
+        OutputStream os = getEncryptionStream(dataKey, output, telemetry, checkpoint, header);
+        try {
+            zip.setResumeListener(checkpoint::mark);
+            zip.zipToStream(files, os, COMPRESSION, checkpoint.getResumePoint());
+        } catch (IOException | RuntimeException ex) {
+            abort(os, ex);
+            throw ex;
+        }
+        os.close();
+        if (!Manifest.write(new File(output), dataKey, zip.getEntries())) {
+            Logfile.addEntry("The manifest could not be written, the contents are listed from the archive");
+        }
+        checkpoint.delete();
+    }
+
+    private SessionKey resumeDataKey(SessionKey recipient, String output, Checkpoint checkpoint) {
+        // An interrupted encryption can only be continued with its data key
+        if (!Files.exists(checkpoint.getPath()) || !Files.exists(Paths.get(output))) {
+            return null;
+        }
+        try {
+            ContainerHeader header = ContainerHeader.read(new File(output));
+            if (Envelope.isEnvelope(header)) {
+                return Envelope.open(header, recipient);
+            }
+        } catch (IOException ex) {
+            Logger.getLogger(FileCrypter.class.getName()).log(Level.WARNING, null, ex);
+        }
+
+        return null;
+    }
+
+    /**
+     * Encrypts only the files, which were added or changed since a previous
+     * encryption of the same files, to a specific output. The encrypted file
+     * contains a snapshot of all files and the files deleted since, so the
+     * chain of encrypted files can be restored with restore.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of all files of the chain
+     * @param previous the previous encrypted file of the chain, or null to
+     * begin a new chain with all files
+     * @param output output-path for the encrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty encryptIncremental(SessionKey sessionKey, List<File> files, File previous, String output) {
+        long size = files.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, size);
+        Checkpoint checkpoint = new Checkpoint(Paths.get(output + Checkpoint.EXTENSION), sessionKey,
+                Checkpoint.getFingerprint(files, output, sessionKey.getID(), String.valueOf(COMPRESSION),
+                        previous == null ? "" : previous.getAbsolutePath()));
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("INCREMENTAL ENCRYPTION");
+                Logfile.addEntry(files.size() + " files selected for encryption");
+                long before = System.nanoTime();
+                try {
+                    encryptIncremental(sessionKey, files, previous, output, telemetry, checkpoint, this::isCancelled);
+                    Logfile.addEntry("Encryption finished");
+                    Logfile.addEntry("Encrypted file " + output);
+                } catch (CancellationException ex) {
+                    checkpoint.delete();
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Encryption cancelled, the partial file was deleted");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Encryption failed: " + ex.getMessage());
+                    if (Files.exists(checkpoint.getPath())) {
+                        Logfile.addEntry("The encryption can be resumed by encrypting the same files to " + output);
+                    } else {
+                        deleteOutput(Paths.get(output));
+                        Logfile.addEntry("The partial file was deleted");
+                    }
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        files.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        job = scheduler.submit("Incremental encryption of " + new File(output).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Encrypts the changed files like encryptIncremental, but on the
+     * calling thread.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of all files of the chain
+     * @param previous the previous encrypted file of the chain, or null to
+     * begin a new chain with all files
+     * @param output output-path for the encrpyted file
+     * @param telemetry the telemetry for the counters
+     * @param checkpoint the checkpoint of the encryption
+     * @param cancelled returns true, if the encryption should stop
+     * @return the snapshot of the files
+     * @throws IOException if a file could not be read or written, or the
+     * previous file has no snapshot
+     */
+    Snapshot encryptIncremental(SessionKey sessionKey, List<File> files, File previous, String output, Telemetry telemetry, Checkpoint checkpoint,
+            BooleanSupplier cancelled) throws IOException {
+        this.zip = new FileZipper();
+        zip.setTelemetry(telemetry);
+        zip.setCancellation(cancelled);
+        Snapshot last = null;
+        byte[] lastIV = null;
+        if (previous != null) {
+            ContainerHeader previousHeader = ContainerHeader.read(previous);
+            last = Snapshot.read(previousHeader, sessionKey);
+            if (last == null) {
+                throw new IOException(previous.getName() + " is not part of an incremental encryption");
+            }
+            lastIV = previousHeader.getIV();
+        }
+        Snapshot snapshot = Snapshot.create(files, last, lastIV);
+        List<File> changed = snapshot.getChanged(files);
+        Logfile.addEntry(changed.size() + " files new or changed, " + snapshot.getDeleted().size() + " files deleted");
+
+        // Every file of a chain uses the same key, so each needs its own IV
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), RandomGenerator.getRandomBytes(sessionKey.getIV().length), ContainerHeader.DEFAULT_SEGMENT_SIZE)
+                .withExtension(Manifest.EXTENSION_TYPE, new byte[Manifest.getLength(changed)]);
+        header = snapshot.addTo(header, sessionKey);
+        OutputStream os = getEncryptionStream(sessionKey, output, telemetry, checkpoint, header);
+        try {
+            zip.setResumeListener(checkpoint::mark);
+            zip.zipToStream(changed, os, COMPRESSION, checkpoint.getResumePoint());
+        } catch (IOException | RuntimeException ex) {
+            abort(os, ex);
+            throw ex;
+        }
+        os.close();
+        if (!Manifest.write(new File(output), sessionKey, zip.getEntries())) {
+            Logfile.addEntry("The manifest could not be written, the contents are listed from the archive");
+        }
+        checkpoint.delete();
+
+        return snapshot;
+    }
+
+    /**
+     * Restores the files of a chain of incremental encryptions to a specific
+     * output. Each file is only extracted from the newest encrypted file,
+     * which contains it, and the deleted files are left out. An existing file
+     * in the output is skipped like at a decryption.
+     *
+     * @param sessionKey for the decryption
+     * @param chain the encrypted files of the chain, the oldest first
+     * @param output output-path for the restored files
+     * @return the status of the restore as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty restore(SessionKey sessionKey, List<File> chain, String output) {
+        long size = chain.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.CRYPTION, size);
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("RESTORE");
+                long before = System.nanoTime();
+                Logfile.addEntry("Begin to restore " + chain.size() + " encrypted files");
+                try {
+                    restore(sessionKey, chain, output, telemetry, this::isCancelled);
+                    Logfile.addEntry("Restore finished");
+                } catch (InvalidCipherTextIOException ex) {
+                    Logfile.addEntry("Hash for the file is not correct");
+                } catch (CancellationException ex) {
+                    Logfile.addEntry("Restore cancelled");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Restore failed: " + ex.getMessage());
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        chain.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        job = scheduler.submit("Restore of " + chain.get(chain.size() - 1).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Restores the files of a chain like restore, but on the calling thread.
+     *
+     * @param sessionKey for the decryption
+     * @param chain the encrypted files of the chain, the oldest first
+     * @param output output-path for the restored files
+     * @param telemetry the telemetry for the counters
+     * @param cancelled returns true, if the restore should stop
+     * @throws IOException if the chain is not complete or a file could not be
+     * read, verified or written
+     */
+    void restore(SessionKey sessionKey, List<File> chain, String output, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        Snapshot snapshot = null;
+        byte[] lastIV = new byte[0];
+        for (File file : chain) {
+            ContainerHeader header = ContainerHeader.read(file);
+            snapshot = Snapshot.read(header, sessionKey);
+            if (snapshot == null) {
+                throw new IOException(file.getName() + " is not part of an incremental encryption");
+            }
+            if (!Arrays.equals(lastIV, snapshot.getPrevious())) {
+                throw new IOException(file.getName() + " does not follow the previous file of the chain");
+            }
+            lastIV = header.getIV();
+        }
+        if (snapshot == null) {
+            throw new IOException("The chain is empty");
+        }
+        Logfile.addEntry(snapshot.getEntries().size() + " files in the newest snapshot");
+
+        Set<String> remaining = new HashSet<>();
+        snapshot.getEntries().forEach((entry) -> remaining.add(entry.getName()));
+        // The newest encrypted file with a file contains its current content
+        for (int i = chain.size() - 1; i >= 0 && !remaining.isEmpty(); i--) {
+            try (EncryptedArchive archive = new EncryptedArchive(chain.get(i), sessionKey)) {
+                archive.setTelemetry(telemetry);
+                archive.setCancellation(cancelled);
+                for (ArchiveEntry entry : archive.getEntries()) {
+                    if (remaining.remove(entry.getName())) {
+                        String name = new File(entry.getName()).getName();
+                        Path target = Paths.get(output, name);
+                        if (Files.exists(target)) {
+                            Logfile.addEntry(name + " already exists, file skipped");
+                        } else {
+                            archive.extractTo(entry, target);
+                            Logfile.addEntry(entry.getName() + " restored from " + chain.get(i).getName());
+                        }
+                    }
+                }
+            }
+        }
+        if (!remaining.isEmpty()) {
+            throw new IOException(remaining.size() + " files are missing in the chain");
+        }
+    }
+
+    /**
+     * Encrypts a list of files to a specific output with deduplication. The
+     * files are split into chunks, which are stored encrypted in the chunk
+     * store, if they are not yet there. The encrypted file only contains the
+     * recipe to put the files together again.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty encryptDeduplicated(SessionKey sessionKey, List<File> files, String output) {
+        long size = files.stream().mapToLong(File::length).sum();
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, size);
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("DEDUPLICATED ENCRYPTION");
+                Logfile.addEntry(files.size() + " files selected for encryption");
+                long before = System.nanoTime();
+                try {
+                    encryptDeduplicated(sessionKey, files, output, telemetry, this::isCancelled);
+                    Logfile.addEntry("Encryption finished");
+                    Logfile.addEntry("Encrypted file " + output);
+                } catch (CancellationException ex) {
+                    // The chunks already stored are used by the next encryption
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Encryption cancelled, the partial file was deleted");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Encryption failed: " + ex.getMessage());
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("The partial file was deleted");
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        List<Path> paths = new ArrayList<>();
+        files.forEach((file) -> paths.add(file.toPath()));
+        paths.add(Paths.get(output));
+        paths.add(getChunkStore(new File(output)));
+        job = scheduler.submit("Deduplicated encryption of " + new File(output).getName(), task, size, paths.toArray(new Path[paths.size()]));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Encrypts a list of files with deduplication like encryptDeduplicated,
+     * but on the calling thread.
+     *
+     * @param sessionKey for the encryption
+     * @param files list of files to encrypt
+     * @param output output-path for the encrpyted file
+     * @param telemetry the telemetry for the counters
+     * @param cancelled returns true, if the encryption should stop
+     * @throws IOException if a file could not be read or written
+     */
+    void encryptDeduplicated(SessionKey sessionKey, List<File> files, String output, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        Path folder = getChunkStore(new File(output));
+        ChunkStore store = new ChunkStore(folder, sessionKey);
+        Recipe recipe = new Recipe();
+        for (File file : files) {
+            recipe.add(store.put(file, telemetry, cancelled));
+        }
+        Logfile.addEntry(store.getChunks() + " chunks, " + store.getNewChunks() + " of them new with " + store.getStoredBytes() + " bytes");
+
+        // The path of the store is kept relative, so both can be moved together
+        Path parent = Paths.get(output).toAbsolutePath().getParent();
+        Path storePath = folder.toAbsolutePath();
+        String location = storePath.startsWith(parent) ? parent.relativize(storePath).toString() : storePath.toString();
+        // Every recipe of a store uses the same key, so each needs its own IV
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), RandomGenerator.getRandomBytes(sessionKey.getIV().length), ContainerHeader.DEFAULT_SEGMENT_SIZE)
+                .withExtension(Recipe.EXTENSION_TYPE, location.getBytes(StandardCharsets.UTF_8));
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        segmentedAES.setTelemetry(telemetry);
+        OutputStream file = new CountingOutputStream(AESGCM.getOutputStream(output, mappedIO), telemetry, Telemetry.Stage.WRITE);
+        try {
+            header.write(file);
+        } catch (IOException ex) {
+            file.close();
+            throw ex;
+        }
+        OutputStream os = segmentedAES.getEncryptionStream(file);
+        try {
+            recipe.write(os);
+        } catch (IOException | RuntimeException ex) {
+            abort(os, ex);
+            throw ex;
+        }
+        os.close();
+    }
+
+    /**
+     * Decrypts a file with a recipe by putting the files together from the
+     * chunk store. The files are written to a temporary folder first and
+     * moved to the output after all chunks were verified.
+     *
+     * @param sessionKey for the decryption
+     * @param file the encrypted file with the recipe
+     * @param output output-path for the decrpyted files
+     * @param telemetry the telemetry for the counters
+     * @param cancelled returns true, if the decryption should stop
+     * @throws IOException if the recipe or a chunk could not be read or
+     * verified, or a file not be written
+     */
+    void decryptDeduplicated(SessionKey sessionKey, File file, String output, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        Recipe recipe;
+        try (InputStream is = getDecryptionStream(sessionKey, file, telemetry)) {
+            recipe = Recipe.read(is);
+        }
+        String location = new String(ContainerHeader.read(file).getExtension(Recipe.EXTENSION_TYPE), StandardCharsets.UTF_8);
+        Path folder = chunkStore != null ? chunkStore : file.getAbsoluteFile().toPath().getParent().resolve(location);
+        ChunkStore store = new ChunkStore(folder, sessionKey);
+        telemetry.setProgress(Telemetry.Stage.WRITE, recipe.getEntries().stream().mapToLong(Recipe.Entry::getSize).sum());
+
+        Path temp = Files.createTempDirectory(Paths.get(output), ".xclavis");
+        try {
+            for (Recipe.Entry entry : recipe.getEntries()) {
+                try (OutputStream os = new CountingOutputStream(Files.newOutputStream(temp.resolve(new File(entry.getName()).getName())), telemetry, Telemetry.Stage.WRITE)) {
+                    store.get(entry, os, cancelled);
+                }
+            }
+            for (Recipe.Entry entry : recipe.getEntries()) {
+                String name = new File(entry.getName()).getName();
+                Path target = Paths.get(output, name);
+                if (Files.exists(target)) {
+                    Logfile.addEntry(name + " already exists, file skipped");
+                } else {
+                    Files.move(temp.resolve(name), target);
+                    target.toFile().setLastModified(entry.getTime());
+                    Logfile.addEntry(name + " decrypted to " + target);
+                }
+            }
+        } finally {
+            deleteTree(temp);
+        }
+    }
+
+    /**
+     * Decrypts a file to a specific output.
+     *
+     * @param sessionKey for the decryption
+     * @param file to decrypt
+     * @param output output-path for the decrpyted file
+     * @return the status of the encryption as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty decrypt(SessionKey sessionKey, File file, String output) {
+        this.zip = new FileZipper();
+        Telemetry telemetry = new Telemetry();
+        long length = Volumes.getLength(getVolumes(file));
+        telemetry.setProgress(Telemetry.Stage.READ, length);
+        zip.setTelemetry(telemetry);
+        Checkpoint checkpoint = new Checkpoint(Paths.get(output, file.getName() + Checkpoint.EXTENSION), sessionKey,
+                Checkpoint.getFingerprint(Collections.singletonList(file), output, sessionKey.getID()));
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("DECRYPTION");
+                long before = System.nanoTime();
+                // Decrypt and DeZIP the file in one pass
+                Logfile.addEntry("Begin to decrypt and dezip the selected file " + file.getName());
+                zip.setCancellation(this::isCancelled);
+                try {
+                    if (Recipe.isRecipe(ContainerHeader.read(file))) {
+                        checkpoint.delete();
+                        decryptDeduplicated(sessionKey, file, output, telemetry, this::isCancelled);
+                    } else if (checkpoint.load() && checkpoint.getTempDirectory() != null) {
+                        try (EncryptedArchive archive = new EncryptedArchive(getVolumes(file), sessionKey)) {
+                            zip.resumeUnzip(archive, output, checkpoint);
+                        }
+                    } else {
+                        checkpoint.discard();
+                        checkpoint.delete();
+                        // Only an archive with random access can be resumed
+                        boolean resumable = ContainerHeader.read(file).getVersion() >= ContainerHeader.VERSION_2;
+                        try (InputStream is = getDecryptionStream(sessionKey, file, telemetry)) {
+                            zip.unzipFromStream(is, output, resumable ? checkpoint : null);
+                        }
+                    }
+                    checkpoint.delete();
+                    Logfile.addEntry("Decryption finished");
+                    Logfile.addEntry("All files dezipped");
+                } catch (InvalidCipherTextIOException ex) {
+                    checkpoint.delete();
+                    Logfile.addEntry("Hash for the file is not correct, no files written");
+                } catch (CancellationException ex) {
+                    // The dezipped files are deleted with their temporary folder
+                    checkpoint.delete();
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Decryption cancelled, no files written");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Decryption failed: " + ex.getMessage());
+                    if (Files.exists(checkpoint.getPath())) {
+                        Logfile.addEntry("The decryption can be resumed by decrypting the same file to " + output);
+                    }
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        job = scheduler.submit("Decryption of " + file.getName(), task, length, file.toPath(), Paths.get(output));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Lists the files inside an encrypted file without decrypting all of it.
+     *
+     * @param sessionKey for the decryption
+     * @param file the encrypted file
+     * @return the files inside, or an empty list if the file can not be read
+     * with random access
+     */
+    public List<ArchiveEntry> list(SessionKey sessionKey, File file) {
+        try (EncryptedArchive archive = new EncryptedArchive(getVolumes(file), sessionKey)) {
+            return archive.getEntries();
+        } catch (IOException ex) {
+            Logger.getLogger(FileCrypter.class.getName()).log(Level.WARNING, null, ex);
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Extracts a single file from an encrypted file to a specific output.
+     * Only the parts of the encrypted file, which contain this file, are
+     * decrypted.
+     *
+     * @param sessionKey for the decryption
+     * @param file the encrypted file
+     * @param entry the file inside to extract
+     * @param output output-path for the extracted file
+     * @return the status of the extraction as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty extract(SessionKey sessionKey, File file, ArchiveEntry entry, String output) {
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.WRITE, entry.getSize());
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("EXTRACTION");
+                long before = System.nanoTime();
+                Logfile.addEntry("Begin to extract " + entry.getName() + " from " + file.getName());
+                try (EncryptedArchive archive = new EncryptedArchive(getVolumes(file), sessionKey)) {
+                    archive.setTelemetry(telemetry);
+                    archive.setCancellation(this::isCancelled);
+                    archive.extract(entry, output);
+                    Logfile.addEntry("Extraction finished");
+                } catch (InvalidCipherTextIOException ex) {
+                    Logfile.addEntry("Hash for the file is not correct, no files written");
+                } catch (CancellationException ex) {
+                    deleteOutput(Paths.get(output));
+                    Logfile.addEntry("Extraction cancelled, no files written");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Extraction failed: " + ex.getMessage());
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        job = scheduler.submit("Extraction of " + entry.getName(), task, entry.getCompressedSize(), file.toPath(), Paths.get(output));
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Verifies the authentication tags of an encrypted file without writing
+     * any plaintext. The ciphertext is only read and hashed, so the
+     * verification costs the I/O and the GHASH of the file.
+     *
+     * @param sessionKey for the verification
+     * @param file the encrypted file
+     * @return the status of the verification as a ReadOnlyDoubleProperty
+     */
+    public ReadOnlyDoubleProperty verify(SessionKey sessionKey, File file) {
+        Telemetry telemetry = new Telemetry();
+        long length = Volumes.getLength(getVolumes(file));
+        telemetry.setProgress(Telemetry.Stage.READ, length);
+        intact = false;
+        Task task = new Task<Void>() {
+            @Override
+            public Void call() {
+                startTelemetry(telemetry, this::updateProgress);
+                Logfile.addTitle("VERIFICATION");
+                long before = System.nanoTime();
+                Logfile.addEntry("Begin to verify " + file.getName());
+                try {
+                    intact = verify(sessionKey, file, telemetry, this::isCancelled);
+                    Logfile.addEntry(intact ? "Verification finished, the file is intact" : "Hash for the file is not correct");
+                } catch (CancellationException ex) {
+                    Logfile.addEntry("Verification cancelled");
+                } catch (IOException ex) {
+                    Logger.getLogger(FileCrypter.class.getName()).log(Level.SEVERE, null, ex);
+                    Logfile.addEntry("Verification failed: " + ex.getMessage());
+                }
+                long after = System.nanoTime();
+                long runningTimeMs = (after - before) / 1000000;
+                stopTelemetry(telemetry);
+                updateProgress(1, 1);
+                Logfile.addEntry("Elapsed time: " + runningTimeMs + "ms");
+                return null;
+            }
+        };
+        job = scheduler.submit("Verification of " + file.getName(), task, length, file.toPath());
+        job.setTelemetry(telemetry);
+
+        return task.progressProperty();
+    }
+
+    /**
+     * Verifies the authentication tags of an encrypted file like verify,
+     * but on the calling thread.
+     *
+     * @param sessionKey for the verification
+     * @param file the encrypted file
+     * @param telemetry the telemetry for the counters
+     * @param cancelled returns true, if the verification should stop
+     * @return true, if all authentication tags are correct or false otherwise
+     * @throws IOException if the file could not be read
+     */
+    boolean verify(SessionKey sessionKey, File file, Telemetry telemetry, BooleanSupplier cancelled) throws IOException {
+        try (InputStream is = openEncryptedFile(file, telemetry)) {
+            ContainerHeader header = ContainerHeader.read(is);
+            InputStream ciphertext = new CancellableInputStream(is, cancelled);
+            if (header.getVersion() == ContainerHeader.VERSION_1) {
+                AESGCM gcm = new AESGCM(sessionKey.getKey(), header.getIV());
+                return gcm.verify(new CountingInputStream(ciphertext, telemetry, Telemetry.Stage.CRYPTION));
+            }
+            SessionKey dataKey = Envelope.open(header, sessionKey);
+            SegmentedAESGCM segmentedAES = new SegmentedAESGCM(dataKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+            segmentedAES.setTelemetry(telemetry);
+            segmentedAES.verify(ciphertext);
+
+            return true;
+        } catch (InvalidCipherTextIOException ex) {
+            return false;
+        }
+    }
+
+    private void startTelemetry(Telemetry telemetry, BiConsumer<Double, Double> progress) {
+        // The listener is throttled, so the FX thread is not flooded
+        telemetry.setListener(() -> progress.accept(telemetry.getProgress(), 1.0));
+        telemetry.start();
+        progress.accept(-1.0, 1.0);
+    }
+
+    private void stopTelemetry(Telemetry telemetry) {
+        telemetry.stop();
+        telemetry.getSummary().forEach(Logfile::addEntry);
+    }
+
+    private Path getChunkStore(File output) {
+        if (chunkStore != null) {
+            return chunkStore;
+        }
+
+        return output.getAbsoluteFile().toPath().getParent().resolve(ChunkStore.DEFAULT_NAME);
+    }
+
+    private static void deleteTree(Path folder) throws IOException {
+        if (!Files.exists(folder)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Collections.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void abort(OutputStream os, Exception cause) {
+        try {
+            // An aborted encryption stream writes no last segment, so the partial file does not verify
+            if (os instanceof Abortable) {
+                ((Abortable) os).abort();
+            } else {
+                os.close();
+            }
+        } catch (IOException ex) {
+            cause.addSuppressed(ex);
+        }
+    }
+
+    private static void deleteOutput(Path output) {
+        try {
+            // An output folder is only deleted, if the cryption left it empty
+            if (Files.isDirectory(output)) {
+                try (Stream<Path> rest = Files.list(output)) {
+                    if (rest.findAny().isPresent()) {
+                        return;
+                    }
+                }
+            }
+            Files.deleteIfExists(output);
+        } catch (IOException ex) {
+            Logger.getLogger(FileCrypter.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Opens the stream for the ZIP stream of an encryption. If the checkpoint
+     * belongs to an interrupted encryption to the same output, the encrypted
+     * file is truncated to the last saved segment and the stream continues
+     * there. The ZIP stream must then begin at the resume point of the
+     * checkpoint.
+     *
+     * @param sessionKey for the encryption
+     * @param output output-path for the encrypted file
+     * @param telemetry the telemetry for the counters
+     * @param checkpoint the checkpoint of the encryption
+     * @return the stream to write the ZIP stream to
+     * @throws IOException if the encrypted file could not be opened
+     */
+    OutputStream getEncryptionStream(SessionKey sessionKey, String output, Telemetry telemetry, Checkpoint checkpoint) throws IOException {
+        return getEncryptionStream(sessionKey, output, telemetry, checkpoint, 0);
+    }
+
+    /**
+     * Opens the stream for the ZIP stream of an encryption like
+     * getEncryptionStream, but reserves a header record for the manifest.
+     *
+     * @param sessionKey for the encryption
+     * @param output output-path for the encrypted file
+     * @param telemetry the telemetry for the counters
+     * @param checkpoint the checkpoint of the encryption
+     * @param manifestLength the length of the manifest record, or 0 for none
+     * @return the stream to write the ZIP stream to
+     * @throws IOException if the encrypted file could not be opened
+     */
+    OutputStream getEncryptionStream(SessionKey sessionKey, String output, Telemetry telemetry, Checkpoint checkpoint, int manifestLength) throws IOException {
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), ContainerHeader.DEFAULT_SEGMENT_SIZE);
+        if (manifestLength > 0) {
+            header = header.withExtension(Manifest.EXTENSION_TYPE, new byte[manifestLength]);
+        }
+
+        return getEncryptionStream(sessionKey, output, telemetry, checkpoint, header);
+    }
+
+    private OutputStream getEncryptionStream(SessionKey sessionKey, String output, Telemetry telemetry, Checkpoint checkpoint, ContainerHeader newHeader) throws IOException {
+        ContainerHeader header = null;
+        if (checkpoint.load() && checkpoint.getResumePoint() != null) {
+            header = resumeOutput(checkpoint, output);
+        }
+        long segments = 0;
+        OutputStream file;
+        if (header == null) {
+            checkpoint.discard();
+            checkpoint.delete();
+            header = newHeader;
+            file = AESGCM.getOutputStream(output, mappedIO);
+        } else {
+            segments = checkpoint.getSegments();
+            file = new BufferedOutputStream(Files.newOutputStream(Paths.get(output), StandardOpenOption.APPEND), BufferPool.DEFAULT_SIZE);
+        }
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        segmentedAES.setTelemetry(telemetry);
+        checkpoint.setSegmentSize(header.getSegmentSize());
+        segmentedAES.setSegmentListener(checkpoint::commit);
+
+        // The encrypted file is written on its own thread, behind a bounded queue
+        AsyncOutputStream os = new AsyncOutputStream(new CountingOutputStream(file, telemetry, Telemetry.Stage.WRITE));
+        checkpoint.setSync(() -> {
+            os.sync();
+            try (FileChannel channel = FileChannel.open(Paths.get(output), StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+        });
+        if (segments == 0) {
+            try {
+                // Plaintext header at the beginning of the file
+                header.write(os);
+            } catch (IOException ex) {
+                os.close();
+                throw ex;
+            }
+
+            return segmentedAES.getEncryptionStream(os);
+        }
+        // The ZIP stream is continued a bit before the first segment to write
+        long skip = segments * header.getSegmentSize() - checkpoint.getResumePoint().getPosition();
+
+        return new SkippingOutputStream(segmentedAES.getEncryptionStream(os, segments), skip);
+    }
+
+    private ContainerHeader resumeOutput(Checkpoint checkpoint, String output) {
+        try {
+            ContainerHeader header = ContainerHeader.read(new File(output));
+            long length = header.getLength() + checkpoint.getSegments() * (header.getSegmentSize() + SegmentedAESGCM.TAG_SIZE);
+            try (FileChannel channel = FileChannel.open(Paths.get(output), StandardOpenOption.WRITE)) {
+                if (header.getVersion() < ContainerHeader.VERSION_2 || header.getSegmentSize() != checkpoint.getSegmentSize()
+                        || channel.size() < length) {
+                    Logfile.addEntry("The interrupted encryption can not be resumed, it is started over");
+                    return null;
+                }
+                // The segments behind the checkpoint are encrypted again
+                channel.truncate(length);
+            }
+            Logfile.addEntry("Resuming the interrupted encryption at segment " + checkpoint.getSegments());
+
+            return header;
+        } catch (IOException ex) {
+            Logger.getLogger(FileCrypter.class.getName()).log(Level.WARNING, null, ex);
+        }
+
+        return null;
+    }
+
+    private InputStream getDecryptionStream(SessionKey sessionKey, File file, Telemetry telemetry) throws IOException {
+        InputStream is = openEncryptedFile(file, telemetry);
+        try {
+            // Read the plaintext header, the stream is then at the encrypted data
+            ContainerHeader header = ContainerHeader.read(is);
+            if (header.getVersion() == ContainerHeader.VERSION_1) {
+                aes = new AESGCM(sessionKey.getKey(), header.getIV());
+                aes.setMappedIO(mappedIO);
+
+                return new CountingInputStream(aes.getDecryptionStream(is), telemetry, Telemetry.Stage.CRYPTION);
+            }
+            SessionKey dataKey = Envelope.open(header, sessionKey);
+            SegmentedAESGCM segmentedAES = new SegmentedAESGCM(dataKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+            segmentedAES.setTelemetry(telemetry);
+
+            return segmentedAES.getDecryptionStream(is);
+        } catch (IOException ex) {
+            is.close();
+            throw ex;
+        }
+    }
+
+    private InputStream openEncryptedFile(File file, Telemetry telemetry) throws IOException {
+        if (Volumes.isVolume(file)) {
+            // Each volume is read ahead on its own thread, the next one together with the current one
+            List<Path> volumes = new ArrayList<>();
+            getVolumes(file).forEach((volume) -> volumes.add(volume.toPath()));
+
+            return new CountingInputStream(new VolumeInputStream(volumes), telemetry, Telemetry.Stage.READ);
+        }
+        // The encrypted file is read ahead on its own thread, behind a bounded queue
+        return new AsyncInputStream(new CountingInputStream(AESGCM.getInputStream(file.getPath(), mappedIO), telemetry, Telemetry.Stage.READ));
+    }
+
+    private List<File> getVolumes(File file) {
+        return Volumes.find(file, volumeFolders);
+    }
+
+    private static class CancellableInputStream extends FilterInputStream {
+
+        private final BooleanSupplier cancelled;
+
+        CancellableInputStream(InputStream input, BooleanSupplier cancelled) {
+            super(input);
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int length = read(b, 0, 1);
+
+            return length == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("The job was cancelled");
+            }
+
+            return in.read(b, off, len);
+        }
+    }
+
+    private static class SkippingOutputStream extends FilterOutputStream implements Abortable {
+
+        private long skip;
+
+        SkippingOutputStream(OutputStream output, long skip) {
+            super(output);
+            this.skip = skip;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            int skipped = (int) Math.min(skip, len);
+            skip -= skipped;
+            if (len > skipped) {
+                out.write(b, off + skipped, len - skipped);
+            }
+        }
+
+        @Override
+        public void abort() throws IOException {
+            ((Abortable) out).abort();
+        }
+    }
+}
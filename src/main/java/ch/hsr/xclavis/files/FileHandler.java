@@ -1,259 +1,304 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.files;
-
-import java.awt.image.BufferedImage;
-import java.io.DataInputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.text.NumberFormat;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
-import javafx.collections.ObservableList;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javax.swing.ImageIcon;
-import javax.swing.filechooser.FileSystemView;
-
-/**
- * This class handles the selected files of a user.
- *
- * @author Gian Poltéra
- */
-public class FileHandler {
-
-    private final static String ENCRYPTED_FILE_EXTENSION = "enc";
-    private final ObservableList<SelectedFile> files;
-    private final IntegerProperty mode;
-
-    /**
-     * Creates a new FileHandler instance.
-     */
-    public FileHandler() {
-        this.files = FXCollections.observableArrayList();
-        this.mode = new SimpleIntegerProperty(0);
-        this.files.addListener((ListChangeListener.Change<? extends SelectedFile> c) -> {
-            if (files.isEmpty()) {
-                mode.set(0);
-            }
-        });
-    }
-
-    /**
-     * Gets the filelist as a Observable object.
-     *
-     * @return the filelist as ObservableList
-     */
-    public ObservableList<SelectedFile> getObservableFileList() {
-        return files;
-    }
-
-    /**
-     * Returns the mode in which the FileHandler is.
-     *
-     * @return the mode as a IntegerProperty
-     */
-    public IntegerProperty modeProperty() {
-        return mode;
-    }
-
-    /**
-     * Adds a file to the FileHandler.
-     *
-     * @param file the file to be added
-     */
-    public void add(File file) {
-        // Check if the file is no Directory, is a file and that we can read them.
-        if (!file.isDirectory() && file.isFile() && file.canRead()) {
-            // If is the first file in the list.
-            if (firstFile()) {
-                // If is the file is encrypted.
-                if (isEncrypted(file)) {
-                    String fileName = getName(file);
-                    String fileSize = getSize(file);
-                    String fileExtension = getExtension(file);
-                    boolean fileEncrypted = isEncrypted(file);
-                    ImageView fileIcon = new ImageView(new Image(getClass().getResourceAsStream("/images/encrypted_icon.png")));
-                    String fileID = getID(file);
-                    byte[] fileIV = getIV(file);
-                    SelectedFile selectedFile = new SelectedFile(file, fileIcon, fileName, fileExtension, fileSize, fileEncrypted, fileID, fileIV);
-                    files.add(selectedFile);
-                    mode.set(1);
-                } else {
-                    mode.set(2);
-                }
-            }
-            // If the file is not encrypted and we are in the encryption mode.
-            if (!isEncrypted(file) && mode.get() == 2) {
-                // If file not already exists in the list.
-                if (!existsFile(file)) {
-                    String fileName = getName(file);
-                    String fileSize = getSize(file);
-                    String fileExtension = getExtension(file);
-                    boolean fileEncrypted = isEncrypted(file);
-                    ImageView fileIcon = getIcon(file);
-                    SelectedFile selectedFile = new SelectedFile(file, fileIcon, fileName, fileExtension, fileSize, fileEncrypted);
-                    files.add(selectedFile);
-                }
-            }
-        }
-    }
-
-    /**
-     * Removes a SelectedFile from the FileHandler.
-     *
-     * @param selectedFile the SelectedFile to be remove
-     */
-    public void remove(SelectedFile selectedFile) {
-        files.remove(selectedFile);
-
-        if (firstFile()) {
-            mode.set(0);
-        }
-    }
-
-    /**
-     * Removes all SelectedFiles from the FileHandler.
-     */
-    public void removeAll() {
-        files.clear();
-
-        mode.set(0);
-    }
-
-    private boolean firstFile() {
-        return files.size() == 0;
-    }
-
-    private boolean existsFile(File file) {
-        boolean result = false;
-        for (SelectedFile existingFile : files) {
-            if (existingFile.getFile().equals(file)) {
-                result = true;
-                break;
-            }
-        }
-
-        return result;
-    }
-
-    private ImageView getIcon(File file) {
-        ImageIcon iconSWT = (ImageIcon) FileSystemView.getFileSystemView().getSystemIcon(file); //16x16 Icon
-        BufferedImage bufferedImage = new BufferedImage(iconSWT.getIconWidth(), iconSWT.getIconHeight(), BufferedImage.TYPE_INT_ARGB);
-        bufferedImage.getGraphics().drawImage(iconSWT.getImage(), 0, 0, iconSWT.getImageObserver());
-        Image iconFX = SwingFXUtils.toFXImage(bufferedImage, null);
-        ImageView imageView = new ImageView();
-        imageView.setImage(iconFX);
-
-        return imageView;
-    }
-
-    private String getSize(File file) {
-        double bytesize = (double) file.length();
-        NumberFormat n = NumberFormat.getInstance();
-        n.setMaximumFractionDigits(2);
-        String size = bytesize + " Byte";
-        if (bytesize >= 1024) {
-            size = n.format(bytesize / 1024) + " KB";
-        }
-        if (bytesize >= 1024 * 1024) {
-            size = n.format(bytesize / (1024 * 1024)) + " MB";
-        }
-
-        if (bytesize >= 1024 * 1024 * 1024) {
-            size = n.format(bytesize / (1024 * 1024 * 1024)) + " GB";
-        }
-
-        return size;
-    }
-
-    private String getName(File file) {
-        String fileName = file.getName().substring(0, file.getName().lastIndexOf('.'));
-
-        if (fileName.length() > 60) {
-            fileName = fileName.substring(0, 60);
-            fileName += "...";
-        }
-
-        return fileName;
-    }
-
-    private String getExtension(File file) {
-        String fileExtension = file.getName().substring(file.getName().lastIndexOf('.'));
-        fileExtension = fileExtension.substring(1);
-
-        return fileExtension;
-    }
-
-    private boolean isEncrypted(File file) {
-        String fileExtension = getExtension(file);
-
-        return fileExtension.equals(ENCRYPTED_FILE_EXTENSION);
-    }
-
-    private String getID(File file) {
-        String id = "";
-        if (isEncrypted(file)) {
-            //4 Bytes ID
-            try (FileInputStream fis = new FileInputStream(file);
-                    DataInputStream dis = new DataInputStream(fis)) {
-                for (int i = 0; i < 4; i++) {
-                    id += (char) dis.readByte();
-                }
-            } catch (IOException ex) {
-                Logger.getLogger(FileHandler.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-
-        return id;
-    }
-
-    private byte[] getIV(File file) {
-        byte[] iv = new byte[12];
-        if (isEncrypted(file)) {
-            //12 Bytes IV
-            try (FileInputStream fis = new FileInputStream(file);
-                    DataInputStream dis = new DataInputStream(fis)) {
-                dis.skipBytes(4);
-                for (int i = 0; i < 12; i++) {
-                    iv[i] = dis.readByte();
-                }
-            } catch (IOException ex) {
-                Logger.getLogger(FileHandler.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        return iv;
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.keys.SessionKey;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javax.swing.ImageIcon;
+import javax.swing.filechooser.FileSystemView;
+
+/**
+ * This class handles the selected files of a user.
+ *
+ * @author Gian Poltéra
+ */
+public class FileHandler {
+
+    private final static String ENCRYPTED_FILE_EXTENSION = "enc";
+    private final ObservableList<SelectedFile> files;
+    private final IntegerProperty mode;
+
+    /**
+     * Creates a new FileHandler instance.
+     */
+    public FileHandler() {
+        this.files = FXCollections.observableArrayList();
+        this.mode = new SimpleIntegerProperty(0);
+        this.files.addListener((ListChangeListener.Change<? extends SelectedFile> c) -> {
+            if (files.isEmpty()) {
+                mode.set(0);
+            }
+        });
+    }
+
+    /**
+     * Gets the filelist as a Observable object.
+     *
+     * @return the filelist as ObservableList
+     */
+    public ObservableList<SelectedFile> getObservableFileList() {
+        return files;
+    }
+
+    /**
+     * Returns the mode in which the FileHandler is.
+     *
+     * @return the mode as a IntegerProperty
+     */
+    public IntegerProperty modeProperty() {
+        return mode;
+    }
+
+    /**
+     * Adds a file to the FileHandler.
+     *
+     * @param file the file to be added
+     */
+    public void add(File file) {
+        // Check if the file is no Directory, is a file and that we can read them.
+        if (!file.isDirectory() && file.isFile() && file.canRead()) {
+            // The further volumes belong to the first one
+            if (Volumes.isVolume(file) && !Volumes.isFirstVolume(file)) {
+                return;
+            }
+            // If is the first file in the list.
+            if (firstFile()) {
+                // If is the file is encrypted.
+                if (isEncrypted(file)) {
+                    // A first volume is shown like the encrypted file with the size of all volumes
+                    File named = new File(Volumes.getBaseName(file));
+                    String fileName = getName(named);
+                    String fileSize = getSize(Volumes.getLength(Volumes.find(file, Collections.emptyList())));
+                    String fileExtension = getExtension(named);
+                    boolean fileEncrypted = isEncrypted(file);
+                    ImageView fileIcon = new ImageView(new Image(getClass().getResourceAsStream("/images/encrypted_icon.png")));
+                    List<String> fileIDs = getIDs(file);
+                    byte[] fileIV = getIV(file);
+                    SelectedFile selectedFile = new SelectedFile(file, fileIcon, fileName, fileExtension, fileSize, fileEncrypted, fileIDs, fileIV);
+                    files.add(selectedFile);
+                    mode.set(1);
+                } else {
+                    mode.set(2);
+                }
+            }
+            // If the file is not encrypted and we are in the encryption mode.
+            if (!isEncrypted(file) && mode.get() == 2) {
+                // If file not already exists in the list.
+                if (!existsFile(file)) {
+                    String fileName = getName(file);
+                    String fileSize = getSize(file.length());
+                    String fileExtension = getExtension(file);
+                    boolean fileEncrypted = isEncrypted(file);
+                    ImageView fileIcon = getIcon(file);
+                    SelectedFile selectedFile = new SelectedFile(file, fileIcon, fileName, fileExtension, fileSize, fileEncrypted);
+                    files.add(selectedFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Shows the files inside the selected encrypted file below it. Only the
+     * manifest in the header is decrypted, so an encrypted file without a
+     * manifest is shown alone.
+     *
+     * @param sessionKey the SessionKey of the encrypted file
+     */
+    public void showContents(SessionKey sessionKey) {
+        if (mode.get() != 1 || files.size() != 1) {
+            return;
+        }
+        File file = files.get(0).getFile();
+        try {
+            List<ArchiveEntry> entries = Manifest.read(file, sessionKey);
+            if (entries == null) {
+                return;
+            }
+            entries.forEach((entry) -> {
+                String entryName = entry.getName();
+                int dot = entryName.lastIndexOf('.');
+                String name = "    " + (dot > 0 ? entryName.substring(0, dot) : entryName);
+                String extension = dot > 0 ? entryName.substring(dot + 1) : "";
+                files.add(new SelectedFile(file, new ImageView(), name, extension, getSize(entry.getSize()), entry));
+            });
+        } catch (IOException ex) {
+            Logger.getLogger(FileHandler.class.getName()).log(Level.WARNING, null, ex);
+        }
+    }
+
+    /**
+     * Removes a SelectedFile from the FileHandler.
+     *
+     * @param selectedFile the SelectedFile to be remove
+     */
+    public void remove(SelectedFile selectedFile) {
+        // The files inside an encrypted file are only shown together with it
+        if (mode.get() == 1) {
+            removeAll();
+            return;
+        }
+        files.remove(selectedFile);
+
+        if (firstFile()) {
+            mode.set(0);
+        }
+    }
+
+    /**
+     * Removes all SelectedFiles from the FileHandler.
+     */
+    public void removeAll() {
+        files.clear();
+
+        mode.set(0);
+    }
+
+    private boolean firstFile() {
+        return files.size() == 0;
+    }
+
+    private boolean existsFile(File file) {
+        boolean result = false;
+        for (SelectedFile existingFile : files) {
+            if (existingFile.getFile().equals(file)) {
+                result = true;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private ImageView getIcon(File file) {
+        ImageIcon iconSWT = (ImageIcon) FileSystemView.getFileSystemView().getSystemIcon(file); //16x16 Icon
+        BufferedImage bufferedImage = new BufferedImage(iconSWT.getIconWidth(), iconSWT.getIconHeight(), BufferedImage.TYPE_INT_ARGB);
+        bufferedImage.getGraphics().drawImage(iconSWT.getImage(), 0, 0, iconSWT.getImageObserver());
+        Image iconFX = SwingFXUtils.toFXImage(bufferedImage, null);
+        ImageView imageView = new ImageView();
+        imageView.setImage(iconFX);
+
+        return imageView;
+    }
+
+    private String getSize(long length) {
+        double bytesize = (double) length;
+        NumberFormat n = NumberFormat.getInstance();
+        n.setMaximumFractionDigits(2);
+        String size = bytesize + " Byte";
+        if (bytesize >= 1024) {
+            size = n.format(bytesize / 1024) + " KB";
+        }
+        if (bytesize >= 1024 * 1024) {
+            size = n.format(bytesize / (1024 * 1024)) + " MB";
+        }
+
+        if (bytesize >= 1024 * 1024 * 1024) {
+            size = n.format(bytesize / (1024 * 1024 * 1024)) + " GB";
+        }
+
+        return size;
+    }
+
+    private String getName(File file) {
+        String fileName = file.getName().substring(0, file.getName().lastIndexOf('.'));
+
+        if (fileName.length() > 60) {
+            fileName = fileName.substring(0, 60);
+            fileName += "...";
+        }
+
+        return fileName;
+    }
+
+    private String getExtension(File file) {
+        String fileExtension = file.getName().substring(file.getName().lastIndexOf('.'));
+        fileExtension = fileExtension.substring(1);
+
+        return fileExtension;
+    }
+
+    /**
+     * Checks whether a file is treated as an encrypted file.
+     *
+     * @param file the file to check
+     * @return true, if it is a readable file with the extension of the
+     * encrypted files or the first volume of one, or false otherwise
+     */
+    public static boolean isEncryptedFile(File file) {
+        return file.isFile() && file.canRead() && (file.getName().endsWith("." + ENCRYPTED_FILE_EXTENSION) || Volumes.isFirstVolume(file));
+    }
+
+    private boolean isEncrypted(File file) {
+        String fileExtension = getExtension(file);
+
+        return fileExtension.equals(ENCRYPTED_FILE_EXTENSION) || Volumes.isFirstVolume(file);
+    }
+
+    private List<String> getIDs(File file) {
+        List<String> ids = Collections.singletonList("");
+        if (isEncrypted(file)) {
+            // 4 Bytes ID, after the container magic for version 2, or the IDs of all recipients
+            try {
+                ids = Envelope.getIDs(ContainerHeader.read(file));
+            } catch (IOException ex) {
+                Logger.getLogger(FileHandler.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+
+        return ids;
+    }
+
+    private byte[] getIV(File file) {
+        byte[] iv = new byte[12];
+        if (isEncrypted(file)) {
+            //12 Bytes IV
+            try {
+                iv = ContainerHeader.read(file).getIV();
+            } catch (IOException ex) {
+                Logger.getLogger(FileHandler.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+        return iv;
+    }
+}
@@ -1,140 +1,899 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.files;
-
-import ch.hsr.xclavis.helpers.Logfile;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.List;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.zip.Deflater;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
-
-/**
- * This class zips and dezips files.
- *
- * @author Gian Poltéra
- */
-public class FileZipper {
-
-    private byte[] buffer = new byte[2048];
-
-    /**
-     * Gets zipped-bytes from a filelist.
-     *
-     * @param files the file list to zip
-     * @param compression true, for activate or false for deactivate compression
-     * @return the zipped-byted as byte-array
-     */
-    public byte[] getZippedBytes(List<File> files, boolean compression) {
-        byte[] result = null;
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        //BufferedOutputStream bos = new BufferedOutputStream(baos);
-        ZipOutputStream zos = new ZipOutputStream(baos);
-        zos.setComment("Created by XClavis");
-        zos.setMethod(ZipOutputStream.DEFLATED);
-        if (compression) {
-            zos.setLevel(Deflater.DEFAULT_COMPRESSION);
-        } else {
-            zos.setLevel(Deflater.NO_COMPRESSION);
-        }
-
-        try {
-            //Put each File in the ZipStream
-            files.stream().forEach((file) -> {
-                try {
-                    zos.putNextEntry(new ZipEntry(file.getName()));
-                    zos.write(Files.readAllBytes(Paths.get(file.getPath())));
-                    zos.closeEntry();
-                    Logfile.addEntry(file.getName() + " zipped");
-                } catch (IOException ex) {
-                    Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
-                }
-            });
-        } finally {
-            try {
-                zos.close();
-                result = baos.toByteArray();
-                baos.close();
-            } catch (IOException ex) {
-                Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Dezip a file and write the dezipped files to a specific output.
-     *
-     * @param input the byte-array of the zipped-file
-     * @param output the output-path for the dezipped-files
-     */
-    public void getFilesFromZippedBytes(byte[] input, String output) {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(input);
-                ZipInputStream zis = new ZipInputStream(bais)) {
-            int i = 0;
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                String filename = output + File.separator + entry.getName();
-                if (checkOverwriteFile(filename)) {
-                    try (FileOutputStream fos = new FileOutputStream(filename)) {
-                        i++;
-                        int length = 0;
-                        while ((length = zis.read(buffer)) > 0) {
-                            fos.write(buffer, 0, length);
-                        }
-                        Logfile.addEntry(entry.getName() + " dezipped to " + filename);
-                    }
-                } else {
-                    Logfile.addEntry(entry.getName() + " already exists, file skipped");
-                }
-            }
-            Logfile.addEntry(i + " files results from the decryption");
-        } catch (IOException ex) {
-            Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
-        }
-    }
-
-    private boolean checkOverwriteFile(String filename) {
-        File file = new File(filename);
-        if (file.exists()) {
-            return false;
-        } else {
-            return true;
-        }
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.AsyncInputStream;
+import ch.hsr.xclavis.helpers.AsyncOutputStream;
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.helpers.CountingInputStream;
+import ch.hsr.xclavis.helpers.CountingOutputStream;
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.helpers.Telemetry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+
+/**
+ * This class zips and dezips files.
+ *
+ * @author Gian Poltéra
+ */
+public class FileZipper {
+
+    private final static int CHUNK_SIZE = 1024 * 1024;
+    private final static int DICTIONARY_SIZE = 32 * 1024;
+    private final static String TEMP_PREFIX = ".xclavis";
+
+    private boolean parallel = true;
+    private Telemetry telemetry = new Telemetry();
+    private Consumer<ResumePoint> resumeListener;
+    private BooleanSupplier cancelled = () -> false;
+    private List<ArchiveEntry> entries = new ArrayList<>();
+
+    /**
+     * Gets zipped-bytes from a filelist.
+     *
+     * @param files the file list to zip
+     * @param compression true, for activate or false for deactivate compression
+     * @return the zipped-byted as byte-array
+     * @deprecated the array limits the ZIP to 2 GB, zipToStream writes a
+     * ZIP of any size
+     */
+    @Deprecated
+    public byte[] getZippedBytes(List<File> files, boolean compression) {
+        byte[] result = null;
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            zipToStream(files, baos, compression);
+            result = baos.toByteArray();
+        } catch (IOException ex) {
+            Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return result;
+    }
+
+    /**
+     * Activates or deactivates the parallel compression. In the parallel mode
+     * the files are compressed on all cores.
+     *
+     * @param parallel true, for parallel or false for sequential compression
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the telemetry, which counts the read, compressed and written bytes
+     * and the time of each stage.
+     *
+     * @param telemetry the telemetry for the counters
+     */
+    public void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Sets the check for a cancellation. It is called on each buffer of the
+     * zipping and dezipping loops, which then stop with a
+     * CancellationException.
+     *
+     * @param cancelled returns true, if the zipping or dezipping should stop
+     */
+    public void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Gets the entries of the last ZIP stream, which was zipped completely.
+     *
+     * @return the entries with their offsets in the ZIP stream
+     */
+    public List<ArchiveEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Sets a listener, which gets the resume points of the ZIP stream while
+     * zipping. The listener is called on the thread, that writes the stream.
+     *
+     * @param resumeListener the listener or null
+     */
+    void setResumeListener(Consumer<ResumePoint> resumeListener) {
+        this.resumeListener = resumeListener;
+    }
+
+    /**
+     * Zips a filelist directly into an output stream. The files are read in
+     * chunks, so the memory usage does not depend on the file sizes. The
+     * output stream is finished, but not closed.
+     *
+     * Like pigz, each chunk is deflated independently on a worker, primed
+     * with the last 32 KB of the previous chunk. All chunks but the last of
+     * a file end with a sync flush, so they can simply be concatenated in the
+     * right order to a valid deflate stream.
+     *
+     * The files are read ahead on a separate thread, so the disk reads
+     * overlap with the compression.
+     *
+     * With compression, the beginning of each file is sniffed. Already
+     * compressed or encrypted files are stored without compression, files
+     * with a high entropy are deflated with the fastest level. Without
+     * compression, all files are stored. The CRC-32 of a stored file is
+     * computed in advance and the file is then transferred in large blocks
+     * from its FileChannel.
+     *
+     * @param files the file list to zip
+     * @param output the stream to which the zipped-bytes are written
+     * @param compression true, for activate or false for deactivate compression
+     * @throws IOException if the zipped-bytes could not be written
+     */
+    public void zipToStream(List<File> files, OutputStream output, boolean compression) throws IOException {
+        zipToStream(files, output, compression, null);
+    }
+
+    /**
+     * Zips a filelist into an output stream like zipToStream, but continues
+     * at a resume point of an earlier run with the same files. The output
+     * stream gets the ZIP stream from the position of the resume point on.
+     *
+     * @param files the file list to zip
+     * @param output the stream to which the zipped-bytes are written
+     * @param compression true, for activate or false for deactivate compression
+     * @param from the resume point or null, to zip from the beginning
+     * @throws IOException if the zipped-bytes could not be written
+     */
+    void zipToStream(List<File> files, OutputStream output, boolean compression, ResumePoint from) throws IOException {
+        ZipJob job = new ZipJob(output, from);
+        CompressionSniffer sniffer = new CompressionSniffer(Deflater.DEFAULT_COMPRESSION);
+        try {
+            int first = from == null ? 0 : from.fileIndex;
+            if (from != null && from.isInsideEntry()) {
+                job.fileIndex = first;
+                job.resume(files.get(first), from);
+                first++;
+            }
+            //Put each File in the ZipStream
+            for (int i = first; i < files.size(); i++) {
+                checkCancelled();
+                File file = files.get(i);
+                job.fileIndex = i;
+                ZipEntry entry = new ZipEntry(file.getName());
+                entry.setTime(file.lastModified());
+                if (!compression) {
+                    try {
+                        job.addStored(entry, file);
+                    } catch (NoSuchFileException ex) {
+                        Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
+                    }
+                    continue;
+                }
+                try (InputStream is = new AsyncInputStream(new CountingInputStream(new FileInputStream(file), telemetry, Telemetry.Stage.READ))) {
+                    byte[] input = BufferPool.getShared().acquire(CHUNK_SIZE);
+                    try {
+                        int length = readChunk(is, input);
+                        CompressionSniffer.Decision decision = sniffer.sniff(input, length);
+                        Logfile.addEntry(file.getName() + " " + decision);
+                        if (decision.isStored()) {
+                            job.addStored(entry, file);
+                        } else {
+                            // The deflate takes the buffer over
+                            byte[] firstChunk = input;
+                            input = null;
+                            job.addDeflated(entry, is, firstChunk, length, decision.getLevel(), 0, 0, null);
+                        }
+                    } finally {
+                        if (input != null) {
+                            BufferPool.getShared().release(input);
+                        }
+                    }
+                } catch (FileNotFoundException ex) {
+                    Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            }
+            job.fileIndex = files.size();
+            job.finish();
+            entries = job.zip.getEntries();
+            if (compression) {
+                Logfile.addEntry(job.storedFiles + " of " + (job.storedFiles + job.deflatedFiles) + " files stored without compression, "
+                        + job.storedBytes / (1024 * 1024) + " MB not deflated");
+            }
+        } finally {
+            job.cancel();
+        }
+    }
+
+    /**
+     * Dezip a file and write the dezipped files to a specific output.
+     *
+     * @param input the byte-array of the zipped-file
+     * @param output the output-path for the dezipped-files
+     * @deprecated the array limits the ZIP to 2 GB, unzipFromStream reads a
+     * ZIP of any size
+     */
+    @Deprecated
+    public void getFilesFromZippedBytes(byte[] input, String output) {
+        byte[] buffer = BufferPool.getShared().acquire();
+        try (ByteArrayInputStream bais = new ByteArrayInputStream(input);
+                ZipInputStream zis = new ZipInputStream(bais)) {
+            int i = 0;
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                String filename = output + File.separator + entry.getName();
+                if (checkOverwriteFile(filename)) {
+                    try (FileOutputStream fos = new FileOutputStream(filename)) {
+                        i++;
+                        int length = 0;
+                        while ((length = zis.read(buffer)) > 0) {
+                            fos.write(buffer, 0, length);
+                        }
+                        Logfile.addEntry(entry.getName() + " dezipped to " + filename);
+                    }
+                } else {
+                    Logfile.addEntry(entry.getName() + " already exists, file skipped");
+                }
+            }
+            Logfile.addEntry(i + " files results from the decryption");
+        } catch (IOException ex) {
+            Logger.getLogger(FileZipper.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            BufferPool.getShared().release(buffer);
+        }
+    }
+
+    /**
+     * Dezip a stream and write the dezipped files to a specific output. The
+     * entries are first written to temporary files in the output folder and
+     * only moved to their final names, after the whole stream has been read
+     * without an error. If the stream is an authenticated decryption stream,
+     * no unverified plaintext is left behind. All temporary files are written
+     * by one stage on a separate thread.
+     *
+     * @param input the stream with the zipped-bytes
+     * @param output the output-path for the dezipped-files
+     * @throws IOException if the stream could not be read or verified
+     */
+    public void unzipFromStream(InputStream input, String output) throws IOException {
+        unzipFromStream(input, output, null);
+    }
+
+    /**
+     * Dezip a stream like unzipFromStream and save the progress to a
+     * checkpoint. If the stream fails for another reason than a wrong
+     * authentication tag or a cancellation, the completely dezipped files are
+     * kept for a resume.
+     *
+     * @param input the stream with the zipped-bytes
+     * @param output the output-path for the dezipped-files
+     * @param checkpoint the checkpoint for the progress or null
+     * @throws IOException if the stream could not be read or verified
+     */
+    public void unzipFromStream(InputStream input, String output, Checkpoint checkpoint) throws IOException {
+        Path temp = Files.createTempDirectory(Paths.get(output), TEMP_PREFIX);
+        List<String> names = new ArrayList<>();
+        boolean keep = false;
+        byte[] buffer = BufferPool.getShared().acquire();
+        try {
+            TempFileOutputStream files = new TempFileOutputStream();
+            // One stage writes all temporary files, it opens and closes them in the order of the data
+            try (AsyncOutputStream os = new AsyncOutputStream(new CountingOutputStream(files, telemetry, Telemetry.Stage.WRITE))) {
+                if (checkpoint != null) {
+                    checkpoint.setSync(os::sync);
+                }
+                ZipInputStream zis = new ZipInputStream(input);
+                InputStream is = new CountingInputStream(zis, telemetry, Telemetry.Stage.COMPRESSION);
+                ZipEntry entry;
+                while ((entry = zis.getNextEntry()) != null) {
+                    Path tempFile = temp.resolve(names.size() + ".tmp");
+                    os.execute(() -> files.open(tempFile));
+                    int length;
+                    while ((length = is.read(buffer)) > 0) {
+                        checkCancelled();
+                        os.write(buffer, 0, length);
+                    }
+                    os.execute(files::closeFile);
+                    names.add(entry.getName());
+                    if (checkpoint != null) {
+                        checkpoint.commit(temp, names);
+                    }
+                }
+                // Read to the end, so that the authentication tag is verified
+                while (input.read(buffer) != -1) {
+                    checkCancelled();
+                }
+            }
+            moveFiles(temp, names, output);
+        } catch (InvalidCipherTextIOException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            keep = checkpoint != null && Files.exists(checkpoint.getPath());
+            throw ex;
+        } finally {
+            BufferPool.getShared().release(buffer);
+            if (!keep) {
+                deleteTempDirectory(temp);
+            }
+        }
+    }
+
+    /**
+     * Continues an interrupted unzipFromStream of an encrypted archive. The
+     * files, which were not dezipped completely, are extracted with random
+     * access, so the files before them are not decrypted again.
+     *
+     * @param archive the encrypted archive
+     * @param output the output-path for the dezipped-files
+     * @param checkpoint the loaded checkpoint of the interrupted dezip
+     * @throws IOException if the archive could not be read or verified
+     */
+    void resumeUnzip(EncryptedArchive archive, String output, Checkpoint checkpoint) throws IOException {
+        Path temp = checkpoint.getTempDirectory();
+        List<String> names = new ArrayList<>(checkpoint.getNames());
+        List<ArchiveEntry> entries = archive.getEntries();
+        if (!temp.getFileName().toString().startsWith(TEMP_PREFIX) || names.size() > entries.size()) {
+            throw new IOException("The checkpoint does not belong to the archive");
+        }
+        for (int i = 0; i < names.size(); i++) {
+            if (!names.get(i).equals(entries.get(i).getName()) || !Files.exists(temp.resolve(i + ".tmp"))) {
+                deleteTempDirectory(temp);
+                throw new IOException("The dezipped file " + names.get(i) + " is missing");
+            }
+        }
+        Logfile.addEntry("Resuming the interrupted decryption at file " + (names.size() + 1) + " of " + entries.size());
+        boolean keep = false;
+        try {
+            archive.setTelemetry(telemetry);
+            archive.setCancellation(cancelled);
+            for (int i = names.size(); i < entries.size(); i++) {
+                archive.extractTo(entries.get(i), temp.resolve(i + ".tmp"));
+                names.add(entries.get(i).getName());
+                checkpoint.commit(temp, names);
+            }
+            moveFiles(temp, names, output);
+        } catch (InvalidCipherTextIOException ex) {
+            throw ex;
+        } catch (IOException ex) {
+            keep = Files.exists(checkpoint.getPath());
+            throw ex;
+        } finally {
+            if (!keep) {
+                deleteTempDirectory(temp);
+            }
+        }
+    }
+
+    private void moveFiles(Path temp, List<String> names, String output) throws IOException {
+        int i = 0;
+        for (int j = 0; j < names.size(); j++) {
+            String filename = output + File.separator + new File(names.get(j)).getName();
+            if (checkOverwriteFile(filename)) {
+                Files.move(temp.resolve(j + ".tmp"), Paths.get(filename));
+                i++;
+                Logfile.addEntry(names.get(j) + " dezipped to " + filename);
+            } else {
+                Logfile.addEntry(names.get(j) + " already exists, file skipped");
+            }
+        }
+        Logfile.addEntry(i + " files results from the decryption");
+    }
+
+    private static void deleteTempDirectory(Path temp) throws IOException {
+        if (!Files.exists(temp)) {
+            return;
+        }
+        try (DirectoryStream<Path> rest = Files.newDirectoryStream(temp)) {
+            for (Path path : rest) {
+                Files.deleteIfExists(path);
+            }
+        }
+        Files.deleteIfExists(temp);
+    }
+
+    private boolean checkOverwriteFile(String filename) {
+        File file = new File(filename);
+        if (file.exists()) {
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    private static byte[] deflate(byte[] input, int length, byte[] dictionary, int level, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        byte[] buffer = BufferPool.getShared().acquire();
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream(length / 2 + 64)) {
+            if (dictionary != null && dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(input, 0, length);
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int i = deflater.deflate(buffer);
+                    baos.write(buffer, 0, i);
+                }
+            } else {
+                int i;
+                do {
+                    i = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    baos.write(buffer, 0, i);
+                } while (i == buffer.length);
+            }
+
+            return baos.toByteArray();
+        } catch (IOException ex) {
+            // Can not happen with a ByteArrayOutputStream
+            throw new UncheckedIOException(ex);
+        } finally {
+            deflater.end();
+            BufferPool.getShared().release(buffer);
+        }
+    }
+
+    private void checkCancelled() {
+        if (cancelled.getAsBoolean()) {
+            throw new CancellationException("The job was cancelled");
+        }
+    }
+
+    private long getCRC(FileChannel channel, long size) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = BufferPool.getShared().acquireDirect(CHUNK_SIZE);
+        try {
+            long position = 0;
+            while (position < size) {
+                checkCancelled();
+                buffer.clear();
+                int length = channel.read(buffer, position);
+                if (length == -1) {
+                    throw new EOFException("File was truncated while zipping");
+                }
+                buffer.flip();
+                crc.update(buffer);
+                position += length;
+            }
+        } finally {
+            BufferPool.getShared().releaseDirect(buffer);
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Combines the CRC-32 of two consecutive blocks to the CRC-32 of both,
+     * like crc32_combine of zlib.
+     */
+    private static long combineCRC(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc2 ^ crc1;
+        }
+        // Operator for one zero bit and then for two and four zero bits
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        squareMatrix(even, odd);
+        squareMatrix(odd, even);
+        // Apply length2 zero bytes to crc1
+        long length = length2;
+        do {
+            squareMatrix(even, odd);
+            if ((length & 1) != 0) {
+                crc1 = multiplyMatrix(even, crc1);
+            }
+            length >>= 1;
+            if (length == 0) {
+                break;
+            }
+            squareMatrix(odd, even);
+            if ((length & 1) != 0) {
+                crc1 = multiplyMatrix(odd, crc1);
+            }
+            length >>= 1;
+        } while (length != 0);
+
+        return crc1 ^ crc2;
+    }
+
+    private static long multiplyMatrix(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+
+        return sum;
+    }
+
+    private static void squareMatrix(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = multiplyMatrix(matrix, matrix[n]);
+        }
+    }
+
+    private static int readChunk(InputStream input, byte[] chunk) throws IOException {
+        return readChunk(input, chunk, CHUNK_SIZE);
+    }
+
+    private static int readChunk(InputStream input, byte[] chunk, int size) throws IOException {
+        int length = 0;
+        int read;
+        while (length < size && (read = input.read(chunk, length, size - length)) != -1) {
+            length += read;
+        }
+
+        return length;
+    }
+
+    private class ZipJob {
+
+        private final ZipWriter zip;
+        private final Executor executor;
+        private final int parallelism;
+        // Reorder buffer, the chunks are deflated in parallel but written in order
+        private final Deque<Chunk> pending = new ArrayDeque<>();
+        private int deflatedFiles = 0;
+        private int storedFiles = 0;
+        private long storedBytes = 0;
+        private int fileIndex = 0;
+
+        ZipJob(OutputStream output, ResumePoint from) {
+            this.zip = from == null ? new ZipWriter(output) : ZipWriter.resume(output, from.writer);
+            this.zip.setComment("Created by XClavis");
+            this.executor = parallel ? ForkJoinPool.commonPool() : Runnable::run;
+            this.parallelism = parallel ? ForkJoinPool.getCommonPoolParallelism() + 1 : 1;
+        }
+
+        // The pooled first chunk is taken over, it is released also on a failure
+        void addDeflated(ZipEntry entry, InputStream is, byte[] firstChunk, int firstLength, int level,
+                long offset, long crcBefore, byte[] dictionary) throws IOException {
+            entry.setMethod(ZipEntry.DEFLATED);
+            // The CRC-32 of the data before the offset is combined with that of the rest
+            CRC32 crc = new CRC32();
+            long size = offset;
+            byte[] input = firstChunk;
+            int length = firstLength;
+            boolean first = offset == 0;
+            try {
+                while (true) {
+                    checkCancelled();
+                    boolean last = length < CHUNK_SIZE;
+                    long chunkCrc = combineCRC(crcBefore, crc.getValue(), size - offset);
+                    crc.update(input, 0, length);
+                    size += length;
+                    if (last) {
+                        entry.setCrc(combineCRC(crcBefore, crc.getValue(), size - offset));
+                        entry.setSize(size);
+                    }
+                    // The deflate task releases the chunk, so its end is copied before
+                    byte[] next = last ? null : Arrays.copyOfRange(input, length - DICTIONARY_SIZE, length);
+                    byte[] chunk = input;
+                    input = null;
+                    submit(entry, first, last, chunk, length, dictionary, level, size - length, chunkCrc);
+                    if (last) {
+                        break;
+                    }
+                    dictionary = next;
+                    first = false;
+                    input = BufferPool.getShared().acquire(CHUNK_SIZE);
+                    length = readChunk(is, input);
+                }
+            } finally {
+                if (input != null) {
+                    BufferPool.getShared().release(input);
+                }
+            }
+            deflatedFiles++;
+        }
+
+        void addStored(ZipEntry entry, File file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                // The CRC-32 and the size are needed before the data
+                long modified = file.lastModified();
+                long size = channel.size();
+                entry.setMethod(ZipEntry.STORED);
+                long start = System.nanoTime();
+                entry.setCrc(getCRC(channel, size));
+                // Only the time, the bytes are counted once when transferred
+                telemetry.add(Telemetry.Stage.READ, 0, System.nanoTime() - start);
+                entry.setSize(size);
+
+                while (!pending.isEmpty()) {
+                    writeNext();
+                }
+                mark(0, 0, CompressionSniffer.STORED);
+                zip.putNextEntry(entry);
+                transfer(entry, file, channel, 0, modified);
+            }
+        }
+
+        void resume(File file, ResumePoint from) throws IOException {
+            ZipEntry entry = zip.getCurrentEntry();
+            if (from.level == CompressionSniffer.STORED) {
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    transfer(entry, file, channel, from.offset, file.lastModified());
+                }
+                return;
+            }
+            // Continue with the next chunk, primed with the end of the previous one
+            FileInputStream fis = new FileInputStream(file);
+            fis.getChannel().position(from.offset - DICTIONARY_SIZE);
+            try (InputStream is = new AsyncInputStream(new CountingInputStream(fis, telemetry, Telemetry.Stage.READ))) {
+                byte[] dictionary = new byte[DICTIONARY_SIZE];
+                if (readChunk(is, dictionary, DICTIONARY_SIZE) < DICTIONARY_SIZE) {
+                    throw new ZipException(file.getName() + " was changed since the interruption");
+                }
+                byte[] input = BufferPool.getShared().acquire(CHUNK_SIZE);
+                int length;
+                try {
+                    length = readChunk(is, input);
+                } catch (IOException | RuntimeException ex) {
+                    BufferPool.getShared().release(input);
+                    throw ex;
+                }
+                addDeflated(entry, is, input, length, from.level, from.offset, from.crc, dictionary);
+            }
+        }
+
+        void finish() throws IOException {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            mark(0, 0, 0);
+            zip.finish();
+        }
+
+        void cancel() {
+            // The deflate tasks are not cancelled, because only a finished task releases its chunk
+            pending.clear();
+        }
+
+        private void transfer(ZipEntry entry, File file, FileChannel channel, long position, long modified) throws IOException {
+            long size = entry.getSize();
+            while (position < size) {
+                checkCancelled();
+                // A block is the smallest unit, from which the entry can be resumed
+                mark(position, 0, CompressionSniffer.STORED);
+                long count = Math.min(CHUNK_SIZE, size - position);
+                long outer = Telemetry.begin();
+                long start = System.nanoTime();
+                zip.transferFrom(channel, position, count);
+                telemetry.add(Telemetry.Stage.READ, count, Telemetry.end(outer, System.nanoTime() - start));
+                telemetry.add(Telemetry.Stage.COMPRESSION, count, 0);
+                position += count;
+            }
+            if (channel.size() != size || file.lastModified() != modified) {
+                throw new ZipException(file.getName() + " was changed while zipping");
+            }
+            zip.closeEntry();
+            Logfile.addEntry(entry.getName() + " zipped");
+            storedFiles++;
+            storedBytes += size;
+        }
+
+        private void mark(long offset, long crc, int level) {
+            if (resumeListener != null) {
+                resumeListener.accept(new ResumePoint(zip.getState(), fileIndex, offset, crc, level));
+            }
+        }
+
+        private void submit(ZipEntry entry, boolean first, boolean last, byte[] input, int length, byte[] dictionary, int level,
+                long offset, long crc) throws IOException {
+            int index = fileIndex;
+            pending.add(new Chunk(entry, first, last, index, offset, crc, level, CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return deflate(input, length, dictionary, level, last);
+                } finally {
+                    BufferPool.getShared().release(input);
+                    telemetry.add(Telemetry.Stage.COMPRESSION, length, System.nanoTime() - start);
+                }
+            }, executor)));
+            while (pending.size() > parallelism) {
+                writeNext();
+            }
+        }
+
+        private void writeNext() throws IOException {
+            Chunk chunk = pending.removeFirst();
+            byte[] data;
+            long start = System.nanoTime();
+            try {
+                data = chunk.data.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            } finally {
+                Telemetry.exclude(System.nanoTime() - start);
+            }
+            int current = fileIndex;
+            fileIndex = chunk.fileIndex;
+            mark(chunk.offset, chunk.crc, chunk.level);
+            fileIndex = current;
+            if (chunk.first) {
+                zip.putNextEntry(chunk.entry);
+            }
+            zip.write(data, 0, data.length);
+            if (chunk.last) {
+                zip.closeEntry();
+                Logfile.addEntry(chunk.entry.getName() + " zipped");
+            }
+        }
+    }
+
+    /**
+     * A position in the ZIP stream of a zipToStream, from which the stream
+     * can be continued without zipping the files before it again. It is
+     * either the beginning of a file or the beginning of a chunk.
+     */
+    static class ResumePoint {
+
+        private final ZipWriter.State writer;
+        private final int fileIndex;
+        private final long offset;
+        private final long crc;
+        private final int level;
+
+        private ResumePoint(ZipWriter.State writer, int fileIndex, long offset, long crc, int level) {
+            this.writer = writer;
+            this.fileIndex = fileIndex;
+            this.offset = offset;
+            this.crc = crc;
+            this.level = level;
+        }
+
+        /**
+         * Gets the position in the ZIP stream.
+         *
+         * @return the number of bytes before this point
+         */
+        long getPosition() {
+            return writer.getWritten();
+        }
+
+        boolean isInsideEntry() {
+            return writer.hasCurrentEntry();
+        }
+
+        void write(DataOutput out) throws IOException {
+            writer.write(out);
+            out.writeInt(fileIndex);
+            out.writeLong(offset);
+            out.writeLong(crc);
+            out.writeInt(level);
+        }
+
+        static ResumePoint read(DataInput in) throws IOException {
+            return new ResumePoint(ZipWriter.State.read(in), in.readInt(), in.readLong(), in.readLong(), in.readInt());
+        }
+    }
+
+    private static class Chunk {
+
+        private final ZipEntry entry;
+        private final boolean first;
+        private final boolean last;
+        private final int fileIndex;
+        private final long offset;
+        private final long crc;
+        private final int level;
+        private final Future<byte[]> data;
+
+        Chunk(ZipEntry entry, boolean first, boolean last, int fileIndex, long offset, long crc, int level, Future<byte[]> data) {
+            this.entry = entry;
+            this.first = first;
+            this.last = last;
+            this.fileIndex = fileIndex;
+            this.offset = offset;
+            this.crc = crc;
+            this.level = level;
+            this.data = data;
+        }
+    }
+
+    private static class TempFileOutputStream extends OutputStream {
+
+        private OutputStream file;
+
+        void open(Path path) throws IOException {
+            closeFile();
+            file = Files.newOutputStream(path);
+        }
+
+        void closeFile() throws IOException {
+            if (file != null) {
+                OutputStream closing = file;
+                file = null;
+                closing.close();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (file == null) {
+                throw new IOException("No temporary file opened");
+            }
+            file.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeFile();
+        }
+    }
+}
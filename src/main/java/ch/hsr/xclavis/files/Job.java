@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a cryption job, which is run by the JobScheduler.
+ * A job is first queued, then running and at the end done.
+ *
+ * @author Gian Poltéra
+ */
+public class Job {
+
+    /**
+     * The states of a job.
+     */
+    public enum State {
+
+        QUEUED, RUNNING, DONE
+    }
+
+    private final String name;
+    private final Runnable task;
+    private final long size;
+    private final Set<String> devices;
+    private final long sequence;
+    private final JobScheduler scheduler;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+    private volatile State state = State.QUEUED;
+    private volatile long queuedTime;
+    private volatile long startTime;
+    private volatile long endTime;
+    private volatile Telemetry telemetry = new Telemetry();
+    private volatile boolean cancelled = false;
+
+    Job(String name, Runnable task, long size, Set<String> devices, long sequence, JobScheduler scheduler) {
+        this.name = name;
+        this.task = task;
+        this.size = size;
+        this.devices = Collections.unmodifiableSet(devices);
+        this.sequence = sequence;
+        this.scheduler = scheduler;
+        this.queuedTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the name of the job.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of bytes, which the job has to process.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the devices, which the job reads from or writes to.
+     *
+     * @return the names of the devices
+     */
+    public Set<String> getDevices() {
+        return devices;
+    }
+
+    /**
+     * Gets the current state of the job.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the time, when the job was queued.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getQueuedTime() {
+        return queuedTime;
+    }
+
+    /**
+     * Gets the time, when the job was started.
+     *
+     * @return the time in milliseconds since the epoch or 0
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the time, when the job was done.
+     *
+     * @return the time in milliseconds since the epoch or 0
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Gets the byte counters and stage times of the job.
+     *
+     * @return the telemetry of the job
+     */
+    public Telemetry getTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * Cancels the job. A queued job is removed from the queue and is never
+     * started. A running job is asked to stop, its task checks the
+     * cancellation on each buffer and stops as soon as possible.
+     */
+    public void cancel() {
+        cancelled = true;
+        if (task instanceof Future) {
+            ((Future<?>) task).cancel(false);
+        }
+        scheduler.cancel(this);
+    }
+
+    /**
+     * Checks whether the job was cancelled.
+     *
+     * @return true, if the job was cancelled or false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Adds a listener, which is called with the new state on each change of
+     * the state. The listener is called on the thread of the scheduler and
+     * must not block.
+     *
+     * @param listener the listener to add
+     */
+    public void addStateListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Runnable getTask() {
+        return task;
+    }
+
+    void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    void setState(State state) {
+        if (state == State.RUNNING) {
+            startTime = System.currentTimeMillis();
+        } else if (state == State.DONE) {
+            endTime = System.currentTimeMillis();
+        }
+        this.state = state;
+        listeners.forEach((listener) -> listener.accept(state));
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class runs the cryption jobs with a limited number of workers. A job
+ * is only started, if a worker is free and none of its devices is already
+ * used by the maximal number of jobs. The queued jobs are started in the
+ * order of their submission or the smallest job first.
+ *
+ * @author Gian Poltéra
+ */
+public class JobScheduler {
+
+    /**
+     * The order in which the queued jobs are started.
+     */
+    public enum Policy {
+
+        FIFO, SMALLEST_FIRST
+    }
+
+    /**
+     * The default number of workers.
+     */
+    public final static int DEFAULT_WORKERS = 2;
+    /**
+     * The default number of jobs per device.
+     */
+    public final static int DEFAULT_JOBS_PER_DEVICE = 1;
+    private final static JobScheduler SHARED = new JobScheduler(DEFAULT_WORKERS, DEFAULT_JOBS_PER_DEVICE, Policy.FIFO);
+    private final static AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final int workers;
+    private final int jobsPerDevice;
+    private final Policy policy;
+    private final List<Job> queue = new ArrayList<>();
+    private final Map<String, Integer> deviceJobs = new HashMap<>();
+    private final ExecutorService executor;
+    private int running = 0;
+    private long sequence = 0;
+
+    /**
+     * Creates a new JobScheduler.
+     *
+     * @param workers the maximal number of jobs running at the same time
+     * @param jobsPerDevice the maximal number of running jobs per device, or
+     * 0 for no limit
+     * @param policy the order in which the queued jobs are started
+     */
+    public JobScheduler(int workers, int jobsPerDevice, Policy policy) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.workers = workers;
+        this.jobsPerDevice = jobsPerDevice;
+        this.policy = policy;
+        this.executor = Executors.newCachedThreadPool((runnable) -> {
+            Thread thread = new Thread(runnable, "XClavis-Job-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the scheduler with the default settings, which is shared by all
+     * FileCrypters without an own scheduler.
+     *
+     * @return the shared JobScheduler
+     */
+    public static JobScheduler getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Parses a policy from its name in the properties.
+     *
+     * @param name the name of the policy, e.g. "fifo" or "smallest_first"
+     * @return the policy, or FIFO if the name is unknown
+     */
+    public static Policy toPolicy(String name) {
+        for (Policy policy : Policy.values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+
+        return Policy.FIFO;
+    }
+
+    /**
+     * Queues a new job. The job is started, as soon as a worker and its
+     * devices are free.
+     *
+     * @param name the name of the job
+     * @param task the task of the job
+     * @param size the number of bytes, which the job has to process
+     * @param paths the files and folders, which the job reads or writes
+     * @return the queued job
+     */
+    public Job submit(String name, Runnable task, long size, Path... paths) {
+        Set<String> devices = new HashSet<>();
+        for (Path path : paths) {
+            devices.add(getDevice(path));
+        }
+        Job job;
+        synchronized (this) {
+            job = new Job(name, task, size, devices, sequence++, this);
+            queue.add(job);
+            dispatch();
+        }
+
+        return job;
+    }
+
+    /**
+     * Gets the jobs, which are waiting to be started.
+     *
+     * @return the queued jobs in the order in which they are started
+     */
+    public synchronized List<Job> getQueuedJobs() {
+        List<Job> jobs = new ArrayList<>(queue);
+        jobs.sort(getComparator());
+
+        return jobs;
+    }
+
+    /**
+     * Gets the number of running jobs.
+     *
+     * @return the number of running jobs
+     */
+    public synchronized int getRunningJobs() {
+        return running;
+    }
+
+    /**
+     * Gets the device of a file or folder. Files, which do not exist yet,
+     * belong to the device of their next existing parent folder.
+     *
+     * @param path the file or folder
+     * @return the name of the device
+     */
+    public static String getDevice(Path path) {
+        Path existing = path.toAbsolutePath();
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        if (existing != null) {
+            try {
+                return Files.getFileStore(existing).name();
+            } catch (IOException ex) {
+                Logger.getLogger(JobScheduler.class.getName()).log(Level.WARNING, null, ex);
+            }
+        }
+
+        return String.valueOf(path.toAbsolutePath().getRoot());
+    }
+
+    synchronized void cancel(Job job) {
+        // A running job finishes by itself, when its task has stopped
+        if (queue.remove(job)) {
+            job.setState(Job.State.DONE);
+        }
+    }
+
+    private void dispatch() {
+        if (running >= workers || queue.isEmpty()) {
+            return;
+        }
+        queue.sort(getComparator());
+        Iterator<Job> iterator = queue.iterator();
+        while (running < workers && iterator.hasNext()) {
+            Job job = iterator.next();
+            if (isDeviceFree(job)) {
+                iterator.remove();
+                start(job);
+            }
+        }
+    }
+
+    private boolean isDeviceFree(Job job) {
+        if (jobsPerDevice <= 0) {
+            return true;
+        }
+
+        return job.getDevices().stream().allMatch((device) -> deviceJobs.getOrDefault(device, 0) < jobsPerDevice);
+    }
+
+    private void start(Job job) {
+        running++;
+        job.getDevices().forEach((device) -> deviceJobs.merge(device, 1, Integer::sum));
+        job.setState(Job.State.RUNNING);
+        executor.execute(() -> {
+            try {
+                job.getTask().run();
+            } catch (RuntimeException ex) {
+                Logger.getLogger(JobScheduler.class.getName()).log(Level.SEVERE, null, ex);
+            } finally {
+                finish(job);
+            }
+        });
+    }
+
+    private synchronized void finish(Job job) {
+        running--;
+        job.getDevices().forEach((device) -> deviceJobs.merge(device, -1, Integer::sum));
+        job.setState(Job.State.DONE);
+        dispatch();
+    }
+
+    private Comparator<Job> getComparator() {
+        Comparator<Job> fifo = Comparator.comparingLong(Job::getSequence);
+        if (policy == Policy.SMALLEST_FIRST) {
+            return Comparator.comparingLong(Job::getSize).thenComparing(fifo);
+        }
+
+        return fifo;
+    }
+}
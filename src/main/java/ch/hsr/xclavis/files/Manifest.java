@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.AeadEngine;
+import ch.hsr.xclavis.crypto.AeadEngines;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * This class stores the list of the files inside an encrypted archive in an
+ * extension record of the header, so the contents can be shown by decrypting
+ * only the manifest instead of the ZIP central directory at the end.
+ *
+ * The names are only known once the archive is zipped, so an encryption
+ * reserves the record with zeros of the maximum length and replaces it with
+ * the encrypted manifest at the end. The manifest is encrypted with its own
+ * nonce, which can not be the nonce of a segment, and authenticated together
+ * with the header data. A manifest, which is missing or can not be
+ * decrypted, is ignored.
+ *
+ * @author Gian Poltéra
+ */
+public class Manifest {
+
+    /**
+     * The type of the extension record.
+     */
+    public final static int EXTENSION_TYPE = 1;
+    private final static int TAG_SIZE = 16;
+    // Name length, size, compressed size, CRC-32, method, time and offset
+    private final static int ENTRY_SIZE = 2 + 8 + 8 + 8 + 2 + 8 + 8;
+    private final static int CONTEXT = 2;
+
+    private Manifest() {
+    }
+
+    /**
+     * Gets the length of the extension record for a list of files. It is
+     * enough for the manifest of all the files.
+     *
+     * @param files the files of the encryption
+     * @return the length of the encrypted manifest in bytes
+     */
+    public static int getLength(List<File> files) {
+        int length = 4 + TAG_SIZE;
+        for (File file : files) {
+            length += ENTRY_SIZE + file.getName().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes the manifest into the reserved extension record of an encrypted
+     * file.
+     *
+     * @param file the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @param entries the files inside the archive
+     * @return true, if the manifest was written, or false if the file has no
+     * record or the record is too small
+     * @throws IOException if the file could not be written
+     */
+    public static boolean write(File file, SessionKey sessionKey, List<ArchiveEntry> entries) throws IOException {
+        ContainerHeader header = ContainerHeader.read(file);
+        byte[] reserved = header.getExtension(EXTENSION_TYPE);
+        if (reserved == null) {
+            return false;
+        }
+        byte[] plaintext = toBytes(entries, reserved.length - TAG_SIZE);
+        if (plaintext == null) {
+            return false;
+        }
+        byte[] ciphertext = encrypt(header, sessionKey, CONTEXT, plaintext);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(ciphertext);
+            long position = header.getExtensionPosition(EXTENSION_TYPE);
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads the manifest of an encrypted file.
+     *
+     * @param file the encrypted file
+     * @param sessionKey the SessionKey of the encryption or of a recipient
+     * @return the files inside the archive, or null if the file has no valid
+     * manifest
+     * @throws IOException if the file could not be read
+     */
+    public static List<ArchiveEntry> read(File file, SessionKey sessionKey) throws IOException {
+        ContainerHeader header = ContainerHeader.read(file);
+
+        return read(header, Envelope.open(header, sessionKey));
+    }
+
+    /**
+     * Reads the manifest from the header of an encrypted file.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey or the data key of the encryption
+     * @return the files inside the archive, or null if the header has no
+     * valid manifest
+     */
+    public static List<ArchiveEntry> read(ContainerHeader header, SessionKey sessionKey) {
+        if (header.getVersion() < ContainerHeader.VERSION_2) {
+            return null;
+        }
+        byte[] record = header.getExtension(EXTENSION_TYPE);
+        if (record == null || record.length < TAG_SIZE) {
+            return null;
+        }
+        try {
+            return fromBytes(decrypt(header, sessionKey, CONTEXT, record));
+        } catch (InvalidCipherTextException ex) {
+            // Still the reserved record of an unfinished encryption
+            return null;
+        }
+    }
+
+    /**
+     * Encrypts the data of an extension record. Each type of record uses
+     * its own context, which selects the nonce and is authenticated together
+     * with the header data.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @param context the context of the record
+     * @param plaintext the data of the record
+     * @return the encrypted data with the authentication tag
+     */
+    static byte[] encrypt(ContainerHeader header, SessionKey sessionKey, int context, byte[] plaintext) {
+        AeadEngine engine = AeadEngines.getDefault();
+
+        return engine.encrypt(sessionKey.getKey(), getNonce(header, context), getAssociatedData(header, context), plaintext, 0, plaintext.length);
+    }
+
+    /**
+     * Decrypts the data of an extension record, which was encrypted with
+     * encrypt.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @param context the context of the record
+     * @param ciphertext the encrypted data with the authentication tag
+     * @return the data of the record
+     * @throws InvalidCipherTextException if the data or the header was
+     * modified or the key is not correct
+     */
+    static byte[] decrypt(ContainerHeader header, SessionKey sessionKey, int context, byte[] ciphertext) throws InvalidCipherTextException {
+        AeadEngine engine = AeadEngines.getDefault();
+
+        return engine.decrypt(sessionKey.getKey(), getNonce(header, context), getAssociatedData(header, context), ciphertext, 0, ciphertext.length);
+    }
+
+    private static byte[] toBytes(List<ArchiveEntry> entries, int length) {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        buffer.putInt(entries.size());
+        for (ArchiveEntry entry : entries) {
+            byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < ENTRY_SIZE + name.length) {
+                return null;
+            }
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            buffer.putLong(entry.getSize());
+            buffer.putLong(entry.getCompressedSize());
+            buffer.putLong(entry.getCrc());
+            buffer.putShort((short) entry.getMethod());
+            buffer.putLong(entry.getTime());
+            buffer.putLong(entry.getOffset());
+        }
+
+        // The rest of the record stays zero
+        return buffer.array();
+    }
+
+    private static List<ArchiveEntry> fromBytes(byte[] plaintext) {
+        ByteBuffer buffer = ByteBuffer.wrap(plaintext);
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / ENTRY_SIZE) {
+            return null;
+        }
+        List<ArchiveEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < ENTRY_SIZE) {
+                return null;
+            }
+            byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+            if (name.length > buffer.remaining() - (ENTRY_SIZE - 2)) {
+                return null;
+            }
+            buffer.get(name);
+            long size = buffer.getLong();
+            long compressedSize = buffer.getLong();
+            long crc = buffer.getLong();
+            int method = Short.toUnsignedInt(buffer.getShort());
+            long time = buffer.getLong();
+            long offset = buffer.getLong();
+            entries.add(new ArchiveEntry(new String(name, StandardCharsets.UTF_8), size, compressedSize, crc, method, time, offset));
+        }
+
+        return entries;
+    }
+
+    private static byte[] getNonce(ContainerHeader header, int context) {
+        // The segment nonces differ from the IV only in the counter at the end
+        byte[] nonce = header.getIV().clone();
+        nonce[0] ^= (byte) (0x80 | context);
+
+        return nonce;
+    }
+
+    private static byte[] getAssociatedData(ContainerHeader header, int context) {
+        byte[] data = header.getAssociatedData();
+        byte[] associatedData = new byte[data.length + 1];
+        System.arraycopy(data, 0, associatedData, 0, data.length);
+        associatedData[data.length] = (byte) context;
+
+        return associatedData;
+    }
+}
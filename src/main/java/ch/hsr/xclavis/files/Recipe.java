@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents the contents of a deduplicated encryption. Instead
+ * of the data, the encrypted file contains this recipe, which lists for
+ * each file the chunks in the ChunkStore to put it together again.
+ *
+ * The header of such a file has an extension record of the type
+ * EXTENSION_TYPE, which contains the path of the chunk store relative to
+ * the encrypted file.
+ *
+ * @author Gian Poltéra
+ */
+public class Recipe {
+
+    /**
+     * The type of the extension record.
+     */
+    public final static int EXTENSION_TYPE = 3;
+    private final static int MAX_COUNT = 16 * 1024 * 1024;
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds a file to the recipe.
+     *
+     * @param entry the file with its chunks
+     */
+    public void add(Entry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * Gets the files of the recipe.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Checks whether an encrypted file contains a recipe.
+     *
+     * @param header the header of the encrypted file
+     * @return true, if the file contains a recipe or false otherwise
+     */
+    public static boolean isRecipe(ContainerHeader header) {
+        return header.getVersion() >= ContainerHeader.VERSION_2 && header.getExtension(EXTENSION_TYPE) != null;
+    }
+
+    /**
+     * Writes the recipe to a stream.
+     *
+     * @param output the stream
+     * @throws IOException if the recipe could not be written
+     */
+    public void write(OutputStream output) throws IOException {
+        DataOutputStream dos = new DataOutputStream(output);
+        dos.writeInt(entries.size());
+        for (Entry entry : entries) {
+            byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            dos.writeShort(name.length);
+            dos.write(name);
+            dos.writeLong(entry.getSize());
+            dos.writeLong(entry.getTime());
+            dos.writeInt(entry.getChunks().size());
+            for (int i = 0; i < entry.getChunks().size(); i++) {
+                dos.write(entry.getChunks().get(i));
+                dos.writeInt(entry.getLengths().get(i));
+            }
+        }
+        dos.flush();
+    }
+
+    /**
+     * Reads a recipe from a stream.
+     *
+     * @param input the stream
+     * @return the recipe
+     * @throws IOException if the recipe could not be read
+     */
+    public static Recipe read(InputStream input) throws IOException {
+        DataInputStream dis = new DataInputStream(input);
+        Recipe recipe = new Recipe();
+        int count = dis.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid number of files " + count);
+        }
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[dis.readUnsignedShort()];
+            dis.readFully(name);
+            Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), dis.readLong(), dis.readLong());
+            int chunks = dis.readInt();
+            if (chunks < 0 || chunks > MAX_COUNT) {
+                throw new IOException("Invalid number of chunks " + chunks);
+            }
+            for (int j = 0; j < chunks; j++) {
+                byte[] id = new byte[ChunkStore.ID_SIZE];
+                dis.readFully(id);
+                entry.add(id, dis.readInt());
+            }
+            recipe.add(entry);
+        }
+
+        return recipe;
+    }
+
+    /**
+     * This class represents a single file of a recipe.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final long size;
+        private final long time;
+        private final List<byte[]> chunks = new ArrayList<>();
+        private final List<Integer> lengths = new ArrayList<>();
+
+        /**
+         * Creates a new Entry without chunks.
+         *
+         * @param name the name of the file
+         * @param size the size of the file in bytes
+         * @param time the last modification time in milliseconds
+         */
+        public Entry(String name, long size, long time) {
+            this.name = name;
+            this.size = size;
+            this.time = time;
+        }
+
+        /**
+         * Adds the next chunk of the file.
+         *
+         * @param id the ID of the chunk in the store
+         * @param length the length of the chunk in bytes
+         */
+        public void add(byte[] id, int length) {
+            chunks.add(id);
+            lengths.add(length);
+        }
+
+        /**
+         * Gets the name of the file.
+         *
+         * @return the name as String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the size of the file.
+         *
+         * @return the size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the last modification time of the file.
+         *
+         * @return the time in milliseconds since the epoch
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the IDs of the chunks of the file in their order.
+         *
+         * @return the IDs
+         */
+        public List<byte[]> getChunks() {
+            return Collections.unmodifiableList(chunks);
+        }
+
+        /**
+         * Gets the lengths of the chunks of the file in their order.
+         *
+         * @return the lengths in bytes
+         */
+        public List<Integer> getLengths() {
+            return Collections.unmodifiableList(lengths);
+        }
+    }
+}
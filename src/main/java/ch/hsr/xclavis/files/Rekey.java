@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.keys.KeyStore;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class replaces a key of the encrypted files in a folder by another
+ * one, e.g. when the old key is retired.
+ *
+ * Only the header of each file is written again: the data key is unwrapped
+ * with the old SessionKey and wrapped with the new one, so the time does not
+ * depend on the size of the files. This needs files with wrapped data keys,
+ * which are encrypted for one or several recipients. Other files are
+ * reported, but they can only be rekeyed by decrypting and encrypting them.
+ *
+ * The header is overwritten in place. Before, the old header is forced to a
+ * journal next to the file, which is deleted after the new header is on the
+ * disk. If the rekey is interrupted, e.g. by a crash or a full disk, the
+ * file may not open until the next rekey restores the old header from the
+ * journal. The report names the journal of such a file.
+ *
+ * The rekey can be run without the user interface:
+ * java -cp XClavis.jar ch.hsr.xclavis.files.Rekey folder oldID newID
+ * The password of the KeyStore is read from the console. The exit code is 0,
+ * if no file failed.
+ *
+ * @author Gian Poltéra
+ */
+public class Rekey {
+
+    /**
+     * The result of the rekey of a file.
+     */
+    public enum Result {
+
+        REKEYED, NOT_RECIPIENT, NO_DATA_KEY, FAILED
+    }
+
+    private final SessionKey oldKey;
+    private final SessionKey newKey;
+
+    /**
+     * Creates a new Rekey.
+     *
+     * @param oldKey the SessionKey, which is replaced
+     * @param newKey the SessionKey, which replaces the old one
+     */
+    public Rekey(SessionKey oldKey, SessionKey newKey) {
+        if (oldKey.getID().equals(newKey.getID())) {
+            throw new IllegalArgumentException("The old and the new key are the same");
+        }
+        this.oldKey = oldKey;
+        this.newKey = newKey;
+    }
+
+    /**
+     * Rekeys all encrypted files of the old key in a folder and its
+     * subfolders.
+     *
+     * @param folder the folder with the encrypted files
+     * @return the report of the rekey
+     * @throws IOException if the folder could not be scanned
+     */
+    public Report rekey(Path folder) throws IOException {
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(folder)) {
+            files = paths.map(Path::toFile).filter(FileHandler::isEncryptedFile).sorted().collect(Collectors.toList());
+        }
+        Logfile.addTitle("REKEY");
+        Logfile.addEntry(files.size() + " encrypted files found in " + folder);
+
+        List<Entry> entries = new ArrayList<>();
+        for (File file : files) {
+            entries.add(rekey(file));
+        }
+        Report report = new Report(entries);
+        report.getLines().forEach(Logfile::addEntry);
+
+        return report;
+    }
+
+    /**
+     * Rekeys a single encrypted file.
+     *
+     * @param file the encrypted file
+     * @return the result of the rekey
+     */
+    public Entry rekey(File file) {
+        String restored = null;
+        try {
+            if (Envelope.recover(file)) {
+                restored = "the old header of an interrupted rekey was restored";
+            }
+            ContainerHeader header = ContainerHeader.read(file);
+            if (!Envelope.getIDs(header).contains(oldKey.getID())) {
+                return new Entry(file, Result.NOT_RECIPIENT, restored);
+            }
+            if (!Envelope.isEnvelope(header)) {
+                return new Entry(file, Result.NO_DATA_KEY, "the payload is encrypted with " + oldKey.getID());
+            }
+            Envelope.rekey(file, oldKey, newKey);
+
+            return new Entry(file, Result.REKEYED, restored);
+        } catch (IOException ex) {
+            Path journal = Envelope.getJournal(file);
+            if (Files.exists(journal)) {
+                // The file may not open, until the old header is restored
+                return new Entry(file, Result.FAILED, ex.getMessage() + ", the old header is kept in " + journal
+                        + " and restored by the next rekey");
+            }
+
+            return new Entry(file, Result.FAILED, ex.getMessage());
+        }
+    }
+
+    /**
+     * Rekeys a folder without the user interface and prints the report.
+     *
+     * @param args the folder, the ID of the old key and the ID of the new key
+     * @throws IOException if the folder could not be scanned
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: Rekey folder oldID newID");
+            System.exit(2);
+        }
+        KeyStore keys = KeyStore.openFromConsole();
+        if (keys == null) {
+            System.err.println("The password of the KeyStore is not correct");
+            System.exit(2);
+        }
+        SessionKey oldKey = keys.getSessionKey(args[1]);
+        SessionKey newKey = keys.getSessionKey(args[2]);
+        if (oldKey == null || newKey == null) {
+            System.err.println("The KeyStore has no key for " + (oldKey == null ? args[1] : args[2]));
+            System.exit(2);
+        }
+        Report report = new Rekey(oldKey, newKey).rekey(Paths.get(args[0]));
+        report.getLines().forEach(System.out::println);
+        System.exit(report.count(Result.FAILED) == 0 ? 0 : 1);
+    }
+
+    /**
+     * The result of the rekey of a single file.
+     */
+    public static class Entry {
+
+        private final File file;
+        private final Result result;
+        private final String message;
+
+        private Entry(File file, Result result, String message) {
+            this.file = file;
+            this.result = result;
+            this.message = message;
+        }
+
+        /**
+         * Gets the encrypted file.
+         *
+         * @return the encrypted file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the result of the rekey.
+         *
+         * @return the result
+         */
+        public Result getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            String line = String.format("%-13s %s", result, file.getPath());
+            if (message != null) {
+                line += ": " + message;
+            }
+
+            return line;
+        }
+    }
+
+    /**
+     * The report of a rekey.
+     */
+    public static class Report {
+
+        private final List<Entry> entries;
+
+        private Report(List<Entry> entries) {
+            this.entries = Collections.unmodifiableList(entries);
+        }
+
+        /**
+         * Gets the results of all encrypted files.
+         *
+         * @return the entries in the order of the file paths
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Counts the files with a specific result.
+         *
+         * @param result the result to count
+         * @return the number of files
+         */
+        public int count(Result result) {
+            return (int) entries.stream().filter((entry) -> entry.getResult() == result).count();
+        }
+
+        /**
+         * Gets the lines of the report.
+         *
+         * @return a line for each file and a summary
+         */
+        public List<String> getLines() {
+            List<String> lines = entries.stream().map(Entry::toString).collect(Collectors.toList());
+            lines.add(String.format("%d rekeyed, %d of other keys, %d without a data key, %d failed",
+                    count(Result.REKEYED), count(Result.NOT_RECIPIENT), count(Result.NO_DATA_KEY), count(Result.FAILED)));
+
+            return lines;
+        }
+    }
+}
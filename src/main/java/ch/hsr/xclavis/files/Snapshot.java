@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.BufferPool;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+
+/**
+ * This class represents the state of the selected files at an incremental
+ * encryption. It is stored encrypted in an extension record of the header,
+ * so the next encryption of the same files only has to zip the files, which
+ * were added or changed since.
+ *
+ * A snapshot lists the name, size, modification time and SHA-256 of every
+ * file, marks the files contained in its own archive and lists the files,
+ * which were deleted since the previous snapshot. The files are identified
+ * by their name, so the names must be unique. It is linked to the
+ * previous archive of the chain by its IV. A file is only hashed again, if
+ * its size or modification time changed.
+ *
+ * @author Gian Poltéra
+ */
+public class Snapshot {
+
+    /**
+     * The type of the extension record.
+     */
+    public final static int EXTENSION_TYPE = 2;
+    private final static int CONTEXT = 3;
+    private final static int HASH_SIZE = 32;
+
+    private final byte[] previous;
+    private final Map<String, Entry> entries;
+    private final List<String> deleted;
+
+    private Snapshot(byte[] previous, Map<String, Entry> entries, List<String> deleted) {
+        this.previous = previous;
+        this.entries = entries;
+        this.deleted = deleted;
+    }
+
+    /**
+     * Creates the snapshot of files. The files, which are new or whose
+     * content differs from the previous snapshot, are marked as changed.
+     *
+     * @param files the selected files
+     * @param previous the snapshot of the previous archive, or null for the
+     * first archive of a chain
+     * @param previousIV the IV of the previous archive, or null for the first
+     * archive of a chain
+     * @return the snapshot
+     * @throws IOException if a file could not be read or two files have the
+     * same name
+     */
+    public static Snapshot create(List<File> files, Snapshot previous, byte[] previousIV) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (File file : files) {
+            String name = file.getName();
+            // The files are zipped by name only, so a name stands for one file of the chain
+            if (entries.containsKey(name)) {
+                throw new IOException(name + " is selected more than once");
+            }
+            long size = file.length();
+            long time = file.lastModified();
+            Entry last = previous == null ? null : previous.getEntry(name);
+            byte[] hash;
+            if (last != null && last.getSize() == size && last.getTime() == time) {
+                hash = last.getHash();
+            } else {
+                hash = hash(file);
+            }
+            boolean changed = last == null || !Arrays.equals(last.getHash(), hash);
+            entries.put(name, new Entry(name, size, time, hash, changed));
+        }
+        List<String> deleted = new ArrayList<>();
+        if (previous != null) {
+            previous.getEntries().stream().filter((entry) -> (!entries.containsKey(entry.getName()))).forEach((entry) -> {
+                deleted.add(entry.getName());
+            });
+        }
+
+        return new Snapshot(previousIV == null ? new byte[0] : previousIV.clone(), entries, deleted);
+    }
+
+    /**
+     * Reads the snapshot of an encrypted file.
+     *
+     * @param file the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @return the snapshot, or null if the file has no valid snapshot
+     * @throws IOException if the file could not be read
+     */
+    public static Snapshot read(File file, SessionKey sessionKey) throws IOException {
+        return read(ContainerHeader.read(file), sessionKey);
+    }
+
+    /**
+     * Reads the snapshot from the header of an encrypted file.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @return the snapshot, or null if the header has no valid snapshot
+     */
+    public static Snapshot read(ContainerHeader header, SessionKey sessionKey) {
+        if (header.getVersion() < ContainerHeader.VERSION_2) {
+            return null;
+        }
+        byte[] record = header.getExtension(EXTENSION_TYPE);
+        if (record == null) {
+            return null;
+        }
+        try {
+            return fromBytes(Manifest.decrypt(header, sessionKey, CONTEXT, record));
+        } catch (InvalidCipherTextException | BufferUnderflowException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the encrypted snapshot as an extension record to a header.
+     *
+     * @param header the header of the encrypted file
+     * @param sessionKey the SessionKey of the encryption
+     * @return the header with the snapshot
+     */
+    public ContainerHeader addTo(ContainerHeader header, SessionKey sessionKey) {
+        return header.withExtension(EXTENSION_TYPE, Manifest.encrypt(header, sessionKey, CONTEXT, toBytes()));
+    }
+
+    /**
+     * Gets the IV of the previous archive of the chain.
+     *
+     * @return the IV, or an empty array for the first archive
+     */
+    public byte[] getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Checks whether this is the snapshot of the first archive of a chain.
+     *
+     * @return true, if there is no previous archive or false otherwise
+     */
+    public boolean isFull() {
+        return previous.length == 0;
+    }
+
+    /**
+     * Gets the entry of a file.
+     *
+     * @param name the name of the file
+     * @return the entry, or null if the file is not in the snapshot
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Gets the entries of all files.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    /**
+     * Gets the files, which are contained in the archive of this snapshot.
+     *
+     * @param files the selected files
+     * @return the new or changed files
+     */
+    public List<File> getChanged(List<File> files) {
+        List<File> changed = new ArrayList<>();
+        files.stream().filter((file) -> (entries.containsKey(file.getName()) && entries.get(file.getName()).isChanged())).forEach((file) -> {
+            changed.add(file);
+        });
+
+        return changed;
+    }
+
+    /**
+     * Gets the names of the files, which were deleted since the previous
+     * snapshot.
+     *
+     * @return the names of the deleted files
+     */
+    public List<String> getDeleted() {
+        return Collections.unmodifiableList(deleted);
+    }
+
+    private byte[] toBytes() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            dos.write(previous.length);
+            dos.write(previous);
+            dos.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                writeName(dos, entry.getName());
+                dos.writeLong(entry.getSize());
+                dos.writeLong(entry.getTime());
+                dos.write(entry.getHash());
+                dos.writeBoolean(entry.isChanged());
+            }
+            dos.writeInt(deleted.size());
+            for (String name : deleted) {
+                writeName(dos, name);
+            }
+        } catch (IOException ex) {
+            // Can not happen with a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+
+        return baos.toByteArray();
+    }
+
+    private static Snapshot fromBytes(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte[] previous = new byte[Byte.toUnsignedInt(buffer.get())];
+        buffer.get(previous);
+        int count = buffer.getInt();
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = readName(buffer);
+            long size = buffer.getLong();
+            long time = buffer.getLong();
+            byte[] hash = new byte[HASH_SIZE];
+            buffer.get(hash);
+            boolean changed = buffer.get() != 0;
+            entries.put(name, new Entry(name, size, time, hash, changed));
+        }
+        count = buffer.getInt();
+        List<String> deleted = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            deleted.add(readName(buffer));
+        }
+
+        return new Snapshot(previous, entries, deleted);
+    }
+
+    private static void writeName(DataOutputStream dos, String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        dos.writeShort(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readName(ByteBuffer buffer) {
+        byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(name);
+
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] hash(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = BufferPool.getShared().acquire();
+            try (InputStream is = Files.newInputStream(file.toPath())) {
+                int length;
+                while ((length = is.read(buffer)) != -1) {
+                    digest.update(buffer, 0, length);
+                }
+            } finally {
+                BufferPool.getShared().release(buffer);
+            }
+
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * This class represents the state of a single file in a snapshot.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final long size;
+        private final long time;
+        private final byte[] hash;
+        private final boolean changed;
+
+        private Entry(String name, long size, long time, byte[] hash, boolean changed) {
+            this.name = name;
+            this.size = size;
+            this.time = time;
+            this.hash = hash;
+            this.changed = changed;
+        }
+
+        /**
+         * Gets the name of the file.
+         *
+         * @return the name as String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the size of the file.
+         *
+         * @return the size in bytes
+         */
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the last modification time of the file.
+         *
+         * @return the time in milliseconds since the epoch
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * Gets the SHA-256 of the content of the file.
+         *
+         * @return the hash as a byte-array
+         */
+        public byte[] getHash() {
+            return hash;
+        }
+
+        /**
+         * Returns the boolean value, whether the file is contained in the
+         * archive of the snapshot.
+         *
+         * @return true, if the file is new or changed or false otherwise
+         */
+        public boolean isChanged() {
+            return changed;
+        }
+    }
+}
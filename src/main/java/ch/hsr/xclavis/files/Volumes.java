@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class handles an encrypted file, which is split into volumes of a
+ * fixed size, e.g. for a FAT32 stick or an upload limit. The volumes are
+ * named like the encrypted file with a number: ENC_XXXX.enc.001,
+ * ENC_XXXX.enc.002 and so on. The first volume begins with the header, so
+ * it is treated like the encrypted file itself.
+ *
+ * The segments of the container are authenticated with their index and a
+ * mark for the last one, so a missing, swapped or truncated volume is
+ * detected by the decryption. The volumes are decrypted directly, without
+ * joining them to a single file first.
+ *
+ * @author Gian Poltéra
+ */
+public final class Volumes {
+
+    /**
+     * The smallest size of a volume in bytes, so the header with the
+     * manifest fits into the first volume.
+     */
+    public final static long MIN_SIZE = 1024 * 1024;
+    /**
+     * The largest size of a file on FAT32 in bytes.
+     */
+    public final static long FAT32_SIZE = 4L * 1024 * 1024 * 1024 - 1;
+    private final static Pattern VOLUME = Pattern.compile("(.+\\.enc)\\.(\\d{3,})");
+
+    private Volumes() {
+    }
+
+    /**
+     * Gets the path of a volume. The volumes are spread over the folders in
+     * turns, or written next to the encrypted file without folders.
+     *
+     * @param output the path of the encrypted file
+     * @param index the index of the volume, beginning at 0
+     * @param folders the folders for the volumes, or an empty list
+     * @return the path of the volume
+     */
+    public static Path getPath(String output, int index, List<Path> folders) {
+        Path path = new File(output).getAbsoluteFile().toPath();
+        String name = path.getFileName() + String.format(".%03d", index + 1);
+        if (folders.isEmpty()) {
+            return path.resolveSibling(name);
+        }
+
+        return folders.get(index % folders.size()).resolve(name);
+    }
+
+    /**
+     * Checks whether a file is a volume of an encrypted file.
+     *
+     * @param file the file to check
+     * @return true, if the file has the name of a volume or false otherwise
+     */
+    public static boolean isVolume(File file) {
+        return VOLUME.matcher(file.getName()).matches();
+    }
+
+    /**
+     * Checks whether a file is the first volume of an encrypted file.
+     *
+     * @param file the file to check
+     * @return true, if the file has the name of the first volume or false
+     * otherwise
+     */
+    public static boolean isFirstVolume(File file) {
+        Matcher matcher = VOLUME.matcher(file.getName());
+
+        return matcher.matches() && Integer.parseInt(matcher.group(2)) == 1;
+    }
+
+    /**
+     * Gets the name of the encrypted file, which a volume belongs to.
+     *
+     * @param file the volume
+     * @return the name without the number of the volume
+     */
+    public static String getBaseName(File file) {
+        Matcher matcher = VOLUME.matcher(file.getName());
+
+        return matcher.matches() ? matcher.group(1) : file.getName();
+    }
+
+    /**
+     * Finds all volumes of an encrypted file. The volumes are searched next
+     * to the first volume and in the given folders, until a number is
+     * missing. For a file, which is not a volume, only the file is returned.
+     *
+     * @param file the encrypted file or its first volume
+     * @param folders further folders with volumes, or an empty list
+     * @return the volumes in their order
+     */
+    public static List<File> find(File file, List<Path> folders) {
+        if (!isVolume(file)) {
+            return Collections.singletonList(file);
+        }
+        List<Path> search = new ArrayList<>();
+        search.add(file.getAbsoluteFile().toPath().getParent());
+        search.addAll(folders);
+        String baseName = getBaseName(file);
+        List<File> volumes = new ArrayList<>();
+        volumes.add(file);
+        while (true) {
+            String name = baseName + String.format(".%03d", volumes.size() + 1);
+            File next = search.stream().map((folder) -> folder.resolve(name).toFile()).filter(File::isFile).findFirst().orElse(null);
+            if (next == null) {
+                return volumes;
+            }
+            volumes.add(next);
+        }
+    }
+
+    /**
+     * Gets the length of all volumes together.
+     *
+     * @param volumes the volumes
+     * @return the length in bytes
+     */
+    public static long getLength(List<File> volumes) {
+        return volumes.stream().mapToLong(File::length).sum();
+    }
+
+    /**
+     * This class reads the volumes of an encrypted file with random access,
+     * as if they were a single file.
+     */
+    static class Reader implements Closeable {
+
+        private final List<FileChannel> channels = new ArrayList<>();
+        private final long[] positions;
+        private final long size;
+
+        /**
+         * Opens the volumes.
+         *
+         * @param volumes the volumes in their order
+         * @throws IOException if a volume could not be opened
+         */
+        Reader(List<File> volumes) throws IOException {
+            this.positions = new long[volumes.size()];
+            long position = 0;
+            try {
+                for (int i = 0; i < volumes.size(); i++) {
+                    FileChannel channel = FileChannel.open(volumes.get(i).toPath(), StandardOpenOption.READ);
+                    channels.add(channel);
+                    positions[i] = position;
+                    position += channel.size();
+                }
+            } catch (IOException ex) {
+                close();
+                throw ex;
+            }
+            this.size = position;
+        }
+
+        /**
+         * Gets the length of all volumes together.
+         *
+         * @return the length in bytes
+         */
+        long size() {
+            return size;
+        }
+
+        /**
+         * Reads bytes at a position like FileChannel.read. A read does not go
+         * beyond the end of a volume.
+         *
+         * @param buffer the buffer to read into
+         * @param position the position in all volumes
+         * @return the number of read bytes, or -1 at the end
+         * @throws IOException if a volume could not be read
+         */
+        int read(ByteBuffer buffer, long position) throws IOException {
+            if (position >= size) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(positions, position);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            // An empty volume shares its position with the next one
+            while (index + 1 < positions.length && positions[index + 1] == position) {
+                index++;
+            }
+
+            return channels.get(index).read(buffer, position - positions[index]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException error = null;
+            for (FileChannel channel : channels) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    error = ex;
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+}
@@ -0,0 +1,567 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.BufferPool;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * This class writes a ZIP stream from entries, whose data is already
+ * compressed. In contrast to the ZipOutputStream, the compression can
+ * therefore be done outside of the writer, for example in parallel.
+ *
+ * If the CRC-32 and the sizes of an entry are known, when the entry is put,
+ * they are written to the local header. Otherwise they are written in a data
+ * descriptor behind the data, which is only possible for DEFLATED entries.
+ *
+ * Sizes and offsets of 4 GB and more and more than 65,534 entries are
+ * written in the ZIP64 format. The ZIP64 records are only used, where they
+ * are needed, so a small ZIP can still be read by any tool.
+ *
+ * @author Gian Poltéra
+ */
+public class ZipWriter {
+
+    private final static int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private final static int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private final static int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private final static int END_SIGNATURE = 0x06054b50;
+    private final static int ZIP64_END_SIGNATURE = 0x06064b50;
+    private final static int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private final static int LOCAL_HEADER_SIZE = 30;
+    private final static int CENTRAL_HEADER_SIZE = 46;
+    private final static int END_SIZE = 22;
+    private final static int ZIP64_END_SIZE = 56;
+    private final static int ZIP64_LOCATOR_SIZE = 20;
+    private final static int ZIP64_EXTRA_ID = 0x0001;
+    private final static int VERSION = 20;
+    private final static int VERSION_ZIP64 = 45;
+    /**
+     * The value of a 32 bit size or offset, which is stored in the ZIP64
+     * extra field instead.
+     */
+    final static long ZIP64_MAGIC = 0xFFFFFFFFL;
+    /**
+     * The value of a 16 bit number of entries, which is stored in the ZIP64
+     * end record instead.
+     */
+    final static int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private final static int FLAG_DATA_DESCRIPTOR = 0x08;
+    private final static int FLAG_UTF8 = 0x800;
+    private final static int TRANSFER_SIZE = 1024 * 1024;
+
+    private final OutputStream output;
+    private final List<Record> records = new ArrayList<>();
+    private byte[] comment = new byte[0];
+    private Record current;
+    private long written = 0;
+    private boolean finished = false;
+
+    /**
+     * Creates a new ZipWriter.
+     *
+     * @param output the stream to which the ZIP is written
+     */
+    public ZipWriter(OutputStream output) {
+        this.output = output;
+    }
+
+    /**
+     * Creates a ZipWriter, which continues a ZIP stream at a saved state.
+     * The output stream must be at the same position as the saved stream.
+     *
+     * @param output the stream to which the rest of the ZIP is written
+     * @param state the saved state
+     * @return the ZipWriter
+     */
+    static ZipWriter resume(OutputStream output, State state) {
+        ZipWriter writer = new ZipWriter(output);
+        writer.records.addAll(state.records.subList(0, state.count));
+        writer.current = state.current;
+        writer.written = state.written;
+
+        return writer;
+    }
+
+    /**
+     * Sets the comment of the ZIP.
+     *
+     * @param comment the comment
+     */
+    public void setComment(String comment) {
+        this.comment = comment.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return the position in the ZIP stream
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Gets the current entry, whose data is written.
+     *
+     * @return the entry or null, if no entry is open
+     */
+    ZipEntry getCurrentEntry() {
+        return current == null ? null : current.entry;
+    }
+
+    /**
+     * Gets the current state of the writer. Taking the state is cheap, the
+     * closed entries are not copied.
+     *
+     * @return the state
+     */
+    State getState() {
+        return new State(records, records.size(), current == null ? null : current.copy(), written);
+    }
+
+    /**
+     * Begins a new entry and writes its local header. An open entry is
+     * closed. The entry must have a method, for STORED entries also the
+     * CRC-32 and the size.
+     *
+     * @param entry the entry to begin
+     * @throws IOException if the header could not be written
+     */
+    public void putNextEntry(ZipEntry entry) throws IOException {
+        if (current != null) {
+            closeEntry();
+        }
+        boolean known = entry.getCrc() != -1 && entry.getSize() != -1;
+        if (entry.getMethod() == ZipEntry.STORED) {
+            if (!known) {
+                throw new ZipException("STORED entry " + entry.getName() + " needs the size and CRC-32");
+            }
+            entry.setCompressedSize(entry.getSize());
+        } else if (entry.getMethod() != ZipEntry.DEFLATED) {
+            throw new ZipException("Invalid method for entry " + entry.getName());
+        }
+        known = known && entry.getCompressedSize() != -1;
+
+        Record record = new Record();
+        record.entry = entry;
+        record.name = entry.getName().getBytes(StandardCharsets.UTF_8);
+        record.flags = (known ? 0 : FLAG_DATA_DESCRIPTOR) | (isASCII(entry.getName()) ? 0 : FLAG_UTF8);
+        record.time = javaToDosTime(entry.getTime() == -1 ? System.currentTimeMillis() : entry.getTime());
+        record.offset = written;
+        // A local header has either both sizes in the ZIP64 extra field or none
+        boolean zip64 = known && (entry.getSize() >= ZIP64_MAGIC || entry.getCompressedSize() >= ZIP64_MAGIC);
+
+        ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE + record.name.length + (zip64 ? 20 : 0)).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+        header.putShort((short) record.flags);
+        header.putShort((short) entry.getMethod());
+        header.putInt((int) record.time);
+        header.putInt(known ? (int) entry.getCrc() : 0);
+        header.putInt(known ? (int) (zip64 ? ZIP64_MAGIC : entry.getCompressedSize()) : 0);
+        header.putInt(known ? (int) (zip64 ? ZIP64_MAGIC : entry.getSize()) : 0);
+        header.putShort((short) record.name.length);
+        header.putShort((short) (zip64 ? 20 : 0));
+        header.put(record.name);
+        if (zip64) {
+            header.putShort((short) ZIP64_EXTRA_ID);
+            header.putShort((short) 16);
+            header.putLong(entry.getSize());
+            header.putLong(entry.getCompressedSize());
+        }
+        write(header);
+
+        current = record;
+        record.dataOffset = written;
+    }
+
+    /**
+     * Writes data of the current entry. The data must already be compressed
+     * with the method of the entry.
+     *
+     * @param b the data
+     * @param off the offset in the data
+     * @param len the number of bytes to write
+     * @throws IOException if the data could not be written
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (current == null) {
+            throw new ZipException("No current ZIP entry");
+        }
+        output.write(b, off, len);
+        written += len;
+    }
+
+    /**
+     * Transfers data of the current entry directly from a file. The data is
+     * read with positional reads of large blocks, without a stream between
+     * the file and the output.
+     *
+     * @param channel the channel of the file
+     * @param position the position of the data in the file
+     * @param count the number of bytes to transfer
+     * @throws IOException if the data could not be transferred
+     */
+    public void transferFrom(FileChannel channel, long position, long count) throws IOException {
+        if (current == null) {
+            throw new ZipException("No current ZIP entry");
+        }
+        byte[] buffer = BufferPool.getShared().acquire(TRANSFER_SIZE);
+        try {
+            ByteBuffer block = ByteBuffer.wrap(buffer);
+            long end = position + count;
+            while (position < end) {
+                block.clear();
+                block.limit((int) Math.min(buffer.length, end - position));
+                int length = channel.read(block, position);
+                if (length == -1) {
+                    throw new EOFException("File was truncated while zipping");
+                }
+                output.write(buffer, 0, length);
+                written += length;
+                position += length;
+            }
+        } finally {
+            BufferPool.getShared().release(buffer);
+        }
+    }
+
+    /**
+     * Closes the current entry. The CRC-32 and the size of the entry must be
+     * set at the latest now.
+     *
+     * @throws IOException if the data descriptor could not be written or the
+     * entry does not match its header
+     */
+    public void closeEntry() throws IOException {
+        if (current == null) {
+            return;
+        }
+        Record record = current;
+        current = null;
+        ZipEntry entry = record.entry;
+        long compressedSize = written - record.dataOffset;
+        if (entry.getCrc() == -1 || entry.getSize() == -1) {
+            throw new ZipException("ZIP entry " + entry.getName() + " has no size and CRC-32");
+        }
+        if ((record.flags & FLAG_DATA_DESCRIPTOR) == 0) {
+            if (compressedSize != entry.getCompressedSize()) {
+                throw new ZipException("Invalid compressed size for entry " + entry.getName());
+            }
+        } else {
+            entry.setCompressedSize(compressedSize);
+            // The ZipInputStream expects 8 byte sizes, as soon as a size does not fit into 4 bytes
+            boolean zip64 = entry.getSize() > ZIP64_MAGIC || entry.getCompressedSize() > ZIP64_MAGIC;
+            ByteBuffer descriptor = ByteBuffer.allocate(zip64 ? 24 : 16).order(ByteOrder.LITTLE_ENDIAN);
+            descriptor.putInt(DATA_DESCRIPTOR_SIGNATURE);
+            descriptor.putInt((int) entry.getCrc());
+            if (zip64) {
+                descriptor.putLong(entry.getCompressedSize());
+                descriptor.putLong(entry.getSize());
+            } else {
+                descriptor.putInt((int) entry.getCompressedSize());
+                descriptor.putInt((int) entry.getSize());
+            }
+            write(descriptor);
+        }
+        records.add(record);
+    }
+
+    /**
+     * Gets the entries, which were written completely.
+     *
+     * @return the entries with their offsets in the ZIP stream
+     */
+    public List<ArchiveEntry> getEntries() {
+        List<ArchiveEntry> entries = new ArrayList<>();
+        records.forEach((record) -> {
+            ZipEntry entry = record.entry;
+            entries.add(new ArchiveEntry(entry.getName(), entry.getSize(), entry.getCompressedSize(), entry.getCrc(),
+                    entry.getMethod(), dosToJavaTime(record.time), record.offset));
+        });
+
+        return entries;
+    }
+
+    /**
+     * Writes the central directory. The output stream is not closed.
+     *
+     * @throws IOException if the central directory could not be written
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        closeEntry();
+        finished = true;
+        long start = written;
+        for (Record record : records) {
+            ZipEntry entry = record.entry;
+            // Only the values, which do not fit, are in the ZIP64 extra field
+            boolean zip64Size = entry.getSize() >= ZIP64_MAGIC;
+            boolean zip64CompressedSize = entry.getCompressedSize() >= ZIP64_MAGIC;
+            boolean zip64Offset = record.offset >= ZIP64_MAGIC;
+            int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+            if (extraLength > 0) {
+                extraLength += 4;
+            }
+            int version = extraLength > 0 ? VERSION_ZIP64 : VERSION;
+            ByteBuffer header = ByteBuffer.allocate(CENTRAL_HEADER_SIZE + record.name.length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(CENTRAL_HEADER_SIGNATURE);
+            header.putShort((short) version);
+            header.putShort((short) version);
+            header.putShort((short) record.flags);
+            header.putShort((short) entry.getMethod());
+            header.putInt((int) record.time);
+            header.putInt((int) entry.getCrc());
+            header.putInt((int) (zip64CompressedSize ? ZIP64_MAGIC : entry.getCompressedSize()));
+            header.putInt((int) (zip64Size ? ZIP64_MAGIC : entry.getSize()));
+            header.putShort((short) record.name.length);
+            // Extra field, comment, disk number, internal and external attributes
+            header.putShort((short) extraLength);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putShort((short) 0);
+            header.putInt(0);
+            header.putInt((int) (zip64Offset ? ZIP64_MAGIC : record.offset));
+            header.put(record.name);
+            if (extraLength > 0) {
+                header.putShort((short) ZIP64_EXTRA_ID);
+                header.putShort((short) (extraLength - 4));
+                if (zip64Size) {
+                    header.putLong(entry.getSize());
+                }
+                if (zip64CompressedSize) {
+                    header.putLong(entry.getCompressedSize());
+                }
+                if (zip64Offset) {
+                    header.putLong(record.offset);
+                }
+            }
+            write(header);
+        }
+
+        long directorySize = written - start;
+        boolean zip64 = records.size() >= ZIP64_MAGIC_COUNT || directorySize >= ZIP64_MAGIC || start >= ZIP64_MAGIC;
+        if (zip64) {
+            long zip64End = written;
+            ByteBuffer records64 = ByteBuffer.allocate(ZIP64_END_SIZE + ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            records64.putInt(ZIP64_END_SIGNATURE);
+            records64.putLong(ZIP64_END_SIZE - 12);
+            records64.putShort((short) VERSION_ZIP64);
+            records64.putShort((short) VERSION_ZIP64);
+            records64.putInt(0);
+            records64.putInt(0);
+            records64.putLong(records.size());
+            records64.putLong(records.size());
+            records64.putLong(directorySize);
+            records64.putLong(start);
+            records64.putInt(ZIP64_LOCATOR_SIGNATURE);
+            records64.putInt(0);
+            records64.putLong(zip64End);
+            records64.putInt(1);
+            write(records64);
+        }
+
+        int count = Math.min(records.size(), ZIP64_MAGIC_COUNT);
+        ByteBuffer end = ByteBuffer.allocate(END_SIZE + comment.length).order(ByteOrder.LITTLE_ENDIAN);
+        end.putInt(END_SIGNATURE);
+        end.putShort((short) 0);
+        end.putShort((short) 0);
+        end.putShort((short) count);
+        end.putShort((short) count);
+        end.putInt((int) Math.min(directorySize, ZIP64_MAGIC));
+        end.putInt((int) Math.min(start, ZIP64_MAGIC));
+        end.putShort((short) comment.length);
+        end.put(comment);
+        write(end);
+        output.flush();
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        output.write(buffer.array(), 0, buffer.position());
+        written += buffer.position();
+    }
+
+    private static boolean isASCII(String name) {
+        return name.chars().allMatch((c) -> c < 0x80);
+    }
+
+    private static long javaToDosTime(long time) {
+        LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (date.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+
+        return (date.getYear() - 1980) << 25 | date.getMonthValue() << 21 | date.getDayOfMonth() << 16
+                | date.getHour() << 11 | date.getMinute() << 5 | date.getSecond() >> 1;
+    }
+
+    static long dosToJavaTime(long dosTime) {
+        try {
+            LocalDateTime time = LocalDateTime.of((int) ((dosTime >> 25) & 0x7F) + 1980,
+                    (int) ((dosTime >> 21) & 0x0F),
+                    (int) ((dosTime >> 16) & 0x1F),
+                    (int) ((dosTime >> 11) & 0x1F),
+                    (int) ((dosTime >> 5) & 0x3F),
+                    (int) ((dosTime << 1) & 0x3E));
+
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * The state of a ZipWriter at a position of the ZIP stream, from which
+     * the stream can be continued.
+     */
+    static class State {
+
+        private final List<Record> records;
+        private final int count;
+        private final Record current;
+        private final long written;
+
+        private State(List<Record> records, int count, Record current, long written) {
+            this.records = records;
+            this.count = count;
+            this.current = current;
+            this.written = written;
+        }
+
+        long getWritten() {
+            return written;
+        }
+
+        boolean hasCurrentEntry() {
+            return current != null;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeLong(written);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                records.get(i).write(out);
+            }
+            out.writeBoolean(current != null);
+            if (current != null) {
+                current.write(out);
+            }
+        }
+
+        static State read(DataInput in) throws IOException {
+            long written = in.readLong();
+            int count = in.readInt();
+            List<Record> records = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                records.add(Record.read(in));
+            }
+            Record current = in.readBoolean() ? Record.read(in) : null;
+
+            return new State(records, count, current, written);
+        }
+    }
+
+    private static class Record {
+
+        private ZipEntry entry;
+        private byte[] name;
+        private int flags;
+        private long time;
+        private long offset;
+        private long dataOffset;
+
+        Record copy() {
+            Record copy = new Record();
+            copy.entry = new ZipEntry(entry);
+            copy.name = name;
+            copy.flags = flags;
+            copy.time = time;
+            copy.offset = offset;
+            copy.dataOffset = dataOffset;
+
+            return copy;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeUTF(entry.getName());
+            out.writeInt(entry.getMethod());
+            out.writeLong(entry.getCrc());
+            out.writeLong(entry.getSize());
+            out.writeLong(entry.getCompressedSize());
+            out.writeInt(flags);
+            out.writeLong(time);
+            out.writeLong(offset);
+            out.writeLong(dataOffset);
+        }
+
+        static Record read(DataInput in) throws IOException {
+            Record record = new Record();
+            record.entry = new ZipEntry(in.readUTF());
+            record.entry.setMethod(in.readInt());
+            long crc = in.readLong();
+            long size = in.readLong();
+            long compressedSize = in.readLong();
+            if (crc != -1) {
+                record.entry.setCrc(crc);
+            }
+            if (size != -1) {
+                record.entry.setSize(size);
+            }
+            if (compressedSize != -1) {
+                record.entry.setCompressedSize(compressedSize);
+            }
+            record.name = record.entry.getName().getBytes(StandardCharsets.UTF_8);
+            record.flags = in.readInt();
+            record.time = in.readLong();
+            record.offset = in.readLong();
+            record.dataOffset = in.readLong();
+
+            return record;
+        }
+    }
+}
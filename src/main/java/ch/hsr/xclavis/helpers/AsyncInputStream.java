@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This stream reads ahead from the given input stream on a separate thread.
+ * The reader fills pooled blocks and hands them over to the caller through
+ * a bounded queue. If the caller is slower than the reader, the reader
+ * waits for a free place in the queue, so the memory usage is limited to
+ * the queue depth.
+ *
+ * @author Gian Poltéra
+ */
+public class AsyncInputStream extends InputStream {
+
+    /**
+     * The size of a block in bytes.
+     */
+    public final static int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    /**
+     * The number of blocks, which are read ahead.
+     */
+    public final static int DEFAULT_DEPTH = 4;
+    private final static long POLL_INTERVAL = 100;
+
+    private final InputStream input;
+    private final int blockSize;
+    private final BlockingQueue<Block> queue;
+    private final Future<?> reader;
+    private volatile boolean closed = false;
+    private Block block;
+    private int position = 0;
+
+    /**
+     * Creates a new AsyncInputStream with the default block size and depth.
+     *
+     * @param input the stream to read from
+     */
+    public AsyncInputStream(InputStream input) {
+        this(input, DEFAULT_BLOCK_SIZE, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Creates a new AsyncInputStream.
+     *
+     * @param input the stream to read from
+     * @param blockSize the size of a block in bytes
+     * @param depth the number of blocks, which are read ahead
+     */
+    public AsyncInputStream(InputStream input, int blockSize, int depth) {
+        this.input = input;
+        this.blockSize = blockSize;
+        this.queue = new ArrayBlockingQueue<>(depth);
+        this.reader = Stages.start(this::readAhead);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int length = read(b, 0, 1);
+
+        return length == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (block == null || position == block.length) {
+            if (block != null && block.isEnd()) {
+                if (block.error != null) {
+                    throw new IOException("Reading failed", block.error);
+                }
+                return -1;
+            }
+            next();
+        }
+        int length = Math.min(len, block.length - position);
+        System.arraycopy(block.data, position, b, off, length);
+        position += length;
+
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return block != null && block.data != null ? block.length - position : 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        release(block);
+        block = null;
+        try {
+            reader.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            // The error has already been handed over to the caller
+        } finally {
+            queue.forEach(this::release);
+            queue.clear();
+            input.close();
+        }
+    }
+
+    private void next() throws IOException {
+        release(block);
+        block = null;
+        long start = System.nanoTime();
+        try {
+            block = queue.take();
+            position = 0;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            // Waiting for the reader is not work of the caller
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+    }
+
+    private void release(Block old) {
+        if (old != null && old.data != null) {
+            BufferPool.getShared().release(old.data);
+        }
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                byte[] data = BufferPool.getShared().acquire(blockSize);
+                int length = 0;
+                int read;
+                while (length < blockSize && (read = input.read(data, length, blockSize - length)) != -1) {
+                    length += read;
+                }
+                if (length > 0 && !put(new Block(data, length, null))) {
+                    BufferPool.getShared().release(data);
+                    return;
+                }
+                if (length == 0) {
+                    BufferPool.getShared().release(data);
+                }
+                if (length < blockSize) {
+                    put(new Block(null, 0, null));
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            put(new Block(null, 0, ex));
+        }
+    }
+
+    private boolean put(Block next) {
+        // The caller may close the stream without reading to the end
+        try {
+            while (!closed) {
+                if (queue.offer(next, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    private static class Block {
+
+        private final byte[] data;
+        private final int length;
+        private final IOException error;
+
+        Block(byte[] data, int length, IOException error) {
+            this.data = data;
+            this.length = length;
+            this.error = error;
+        }
+
+        boolean isEnd() {
+            return data == null;
+        }
+    }
+}
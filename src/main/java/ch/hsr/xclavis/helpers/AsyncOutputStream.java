@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This stream writes to the given output stream on a separate thread. The
+ * written bytes are collected in pooled blocks, which are handed over to
+ * the writer through a bounded queue. If the writer is slower than the
+ * caller, the caller waits for a free place in the queue, so the memory
+ * usage is limited to the queue depth.
+ *
+ * An error of the writer, checked or unchecked, is thrown on the next write
+ * or on close. The output stream is closed by the writer, after the last
+ * block has been written.
+ *
+ * Actions can be run on the writer in the order of the written bytes, e.g.
+ * to switch the file behind the output stream. So one stage can write many
+ * small files.
+ *
+ * @author Gian Poltéra
+ */
+public class AsyncOutputStream extends OutputStream {
+
+    /**
+     * The size of a block in bytes.
+     */
+    public final static int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    /**
+     * The number of blocks, which can wait for the writer.
+     */
+    public final static int DEFAULT_DEPTH = 4;
+    private final static Block END = new Block(null, 0);
+
+    private final OutputStream output;
+    private final int blockSize;
+    private final BlockingQueue<Block> queue;
+    private final Future<?> writer;
+    private volatile Exception error;
+    private byte[] block;
+    private int position = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new AsyncOutputStream with the default block size and depth.
+     *
+     * @param output the stream to write to
+     */
+    public AsyncOutputStream(OutputStream output) {
+        this(output, DEFAULT_BLOCK_SIZE, DEFAULT_DEPTH);
+    }
+
+    /**
+     * Creates a new AsyncOutputStream.
+     *
+     * @param output the stream to write to
+     * @param blockSize the size of a block in bytes
+     * @param depth the number of blocks, which can wait for the writer
+     */
+    public AsyncOutputStream(OutputStream output, int blockSize, int depth) {
+        this.output = output;
+        this.blockSize = blockSize;
+        this.queue = new ArrayBlockingQueue<>(depth);
+        this.block = BufferPool.getShared().acquire(blockSize);
+        this.writer = Stages.start(this::writeBehind);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        checkError();
+        while (len > 0) {
+            int length = Math.min(len, blockSize - position);
+            System.arraycopy(b, off, block, position, length);
+            position += length;
+            off += length;
+            len -= length;
+            if (position == blockSize) {
+                handOver();
+            }
+        }
+    }
+
+    /**
+     * Hands the collected bytes over to the writer, but does not wait until
+     * they are written.
+     *
+     * @throws IOException if the writer has failed
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!closed && position > 0) {
+            handOver();
+        }
+        checkError();
+    }
+
+    /**
+     * Hands the collected bytes over to the writer and waits until they are
+     * written and the output stream is flushed.
+     *
+     * @throws IOException if the writer has failed
+     */
+    public void sync() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        flush();
+        Block marker = new Block(output::flush, new CountDownLatch(1));
+        long start = System.nanoTime();
+        try {
+            put(marker);
+            while (!marker.done.await(100, TimeUnit.MILLISECONDS)) {
+                if (writer.isDone()) {
+                    throw new IOException("Writer stopped");
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+        checkError();
+    }
+
+    /**
+     * Hands the collected bytes over to the writer and runs an action on the
+     * writer, after they are written. Does not wait for the action. An error
+     * of the action is thrown like an error of the writer.
+     *
+     * @param action the action
+     * @throws IOException if the writer has failed
+     */
+    public void execute(Action action) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        flush();
+        long start = System.nanoTime();
+        try {
+            put(new Block(action, null));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long start = System.nanoTime();
+        try {
+            if (position > 0) {
+                put(new Block(block, position));
+            } else {
+                BufferPool.getShared().release(block);
+            }
+            block = null;
+            put(END);
+            writer.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writer.cancel(true);
+            throw new InterruptedIOException();
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        } finally {
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+        checkError();
+    }
+
+    private void handOver() throws IOException {
+        long start = System.nanoTime();
+        try {
+            put(new Block(block, position));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            // Waiting for the writer is backpressure, not work of the caller
+            Telemetry.exclude(System.nanoTime() - start);
+        }
+        block = BufferPool.getShared().acquire(blockSize);
+        position = 0;
+        checkError();
+    }
+
+    private void put(Block next) throws IOException, InterruptedException {
+        // A stopped writer would never free a place in the queue
+        while (!queue.offer(next, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                checkError();
+                throw new IOException("Writer stopped");
+            }
+        }
+    }
+
+    private void checkError() throws IOException {
+        if (error != null) {
+            throw new IOException("Writing failed", error);
+        }
+    }
+
+    private void writeBehind() {
+        try {
+            Block next;
+            while ((next = queue.take()) != END) {
+                if (next.action != null) {
+                    run(next.action);
+                    if (next.done != null) {
+                        next.done.countDown();
+                    }
+                    continue;
+                }
+                // After an error the blocks are only released, so the caller is never blocked
+                if (error == null) {
+                    try {
+                        output.write(next.data, 0, next.length);
+                    } catch (IOException | RuntimeException ex) {
+                        error = ex;
+                    }
+                }
+                BufferPool.getShared().release(next.data);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                output.close();
+            } catch (IOException | RuntimeException ex) {
+                if (error == null) {
+                    error = ex;
+                }
+            }
+        }
+    }
+
+    private void run(Action action) {
+        if (error == null) {
+            try {
+                action.run();
+            } catch (IOException | RuntimeException ex) {
+                error = ex;
+            }
+        }
+    }
+
+    /**
+     * An action, which is run on the writer.
+     */
+    @FunctionalInterface
+    public interface Action {
+
+        /**
+         * Runs the action.
+         *
+         * @throws IOException if the action has failed
+         */
+        void run() throws IOException;
+    }
+
+    private static class Block {
+
+        private final byte[] data;
+        private final int length;
+        private final Action action;
+        private final CountDownLatch done;
+
+        Block(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+            this.action = null;
+            this.done = null;
+        }
+
+        Block(Action action, CountDownLatch done) {
+            this.data = null;
+            this.length = 0;
+            this.action = action;
+            this.done = done;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * This class provides a shared pool of reusable buffers for the I/O and
+ * cryption loops. The buffers are grouped in size classes of powers of two,
+ * a requested size is rounded up to the next class. Each class keeps only a
+ * limited number of released buffers, the others are left to the garbage
+ * collector. A buffer of an exact size, e.g. a segment with its
+ * authentication tag, is kept in a class of its own size instead, so it does
+ * not take up the next power of two.
+ *
+ * The pool is thread-safe, each caller gets its own buffer and has to
+ * release it after use.
+ *
+ * @author Gian Poltéra
+ */
+public final class BufferPool {
+
+    /**
+     * The size of a buffer for a read/write loop in bytes.
+     */
+    public final static int DEFAULT_SIZE = 256 * 1024;
+    private final static int MIN_CLASS = 12;
+    private final static int MAX_CLASS = 26;
+    private final static int MAX_RETAINED_BYTES = 32 * 1024 * 1024;
+    private final static int MAX_RETAINED_BUFFERS = 64;
+    private final static BufferPool SHARED = new BufferPool();
+
+    private final List<BlockingQueue<byte[]>> heapBuffers;
+    private final List<BlockingQueue<ByteBuffer>> directBuffers;
+    private final ConcurrentMap<Integer, BlockingQueue<byte[]>> exactBuffers = new ConcurrentHashMap<>();
+
+    private BufferPool() {
+        int classes = MAX_CLASS - MIN_CLASS + 1;
+        heapBuffers = new ArrayList<>(classes);
+        directBuffers = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            int capacity = getCapacity(getClassSize(i));
+            heapBuffers.add(new ArrayBlockingQueue<>(capacity));
+            directBuffers.add(new ArrayBlockingQueue<>(capacity));
+        }
+    }
+
+    /**
+     * Gets the pool, which is shared by all cryptions.
+     *
+     * @return the shared BufferPool
+     */
+    public static BufferPool getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Acquires a buffer with the default size.
+     *
+     * @return a buffer with at least the default size
+     */
+    public byte[] acquire() {
+        return acquire(DEFAULT_SIZE);
+    }
+
+    /**
+     * Acquires a buffer with at least the given size. The content of the
+     * buffer is undefined.
+     *
+     * @param size the minimal size of the buffer in bytes
+     * @return a buffer with at least the given size
+     */
+    public byte[] acquire(int size) {
+        int sizeClass = getSizeClass(size);
+        if (sizeClass < 0) {
+            return new byte[size];
+        }
+        byte[] buffer = heapBuffers.get(sizeClass).poll();
+
+        return buffer != null ? buffer : new byte[getClassSize(sizeClass)];
+    }
+
+    /**
+     * Acquires a buffer with exactly the given size. The content of the
+     * buffer is undefined.
+     *
+     * @param size the size of the buffer in bytes
+     * @return a buffer with the given size
+     */
+    public byte[] acquireExact(int size) {
+        int sizeClass = getSizeClass(size);
+        if (sizeClass < 0) {
+            return new byte[size];
+        }
+        if (getClassSize(sizeClass) == size) {
+            return acquire(size);
+        }
+        byte[] buffer = exactBuffers.computeIfAbsent(size, (length) -> new ArrayBlockingQueue<>(getCapacity(length))).poll();
+
+        return buffer != null ? buffer : new byte[size];
+    }
+
+    /**
+     * Releases a buffer back to the pool. The buffer must not be used after
+     * it is released.
+     *
+     * @param buffer the buffer to release
+     */
+    public void release(byte[] buffer) {
+        int sizeClass = getSizeClass(buffer.length);
+        if (sizeClass >= 0 && getClassSize(sizeClass) == buffer.length) {
+            heapBuffers.get(sizeClass).offer(buffer);
+            return;
+        }
+        // Only the sizes, which were acquired exactly, have a class of their own
+        BlockingQueue<byte[]> exact = exactBuffers.get(buffer.length);
+        if (exact != null) {
+            exact.offer(buffer);
+        }
+    }
+
+    /**
+     * Acquires a direct buffer with at least the given capacity. The buffer
+     * is cleared, so its limit is at its capacity.
+     *
+     * @param size the minimal capacity of the buffer in bytes
+     * @return a direct buffer with at least the given capacity
+     */
+    public ByteBuffer acquireDirect(int size) {
+        int sizeClass = getSizeClass(size);
+        if (sizeClass < 0) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        ByteBuffer buffer = directBuffers.get(sizeClass).poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(getClassSize(sizeClass));
+        }
+        buffer.clear();
+
+        return buffer;
+    }
+
+    /**
+     * Releases a direct buffer back to the pool. The buffer must not be used
+     * after it is released.
+     *
+     * @param buffer the direct buffer to release
+     */
+    public void releaseDirect(ByteBuffer buffer) {
+        int sizeClass = getSizeClass(buffer.capacity());
+        if (buffer.isDirect() && sizeClass >= 0 && getClassSize(sizeClass) == buffer.capacity()) {
+            directBuffers.get(sizeClass).offer(buffer);
+        }
+    }
+
+    private static int getSizeClass(int size) {
+        int bits = size <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(size - 1);
+        bits = Math.max(bits, MIN_CLASS);
+
+        return bits > MAX_CLASS ? -1 : bits - MIN_CLASS;
+    }
+
+    private static int getClassSize(int sizeClass) {
+        return 1 << (MIN_CLASS + sizeClass);
+    }
+
+    private static int getCapacity(int size) {
+        return Math.max(2, Math.min(MAX_RETAINED_BUFFERS, MAX_RETAINED_BYTES / size));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This stream counts the bytes read through it and the exclusive time of
+ * the reads for a stage of a Telemetry.
+ *
+ * @author Gian Poltéra
+ */
+public class CountingInputStream extends FilterInputStream {
+
+    private final Telemetry telemetry;
+    private final Telemetry.Stage stage;
+
+    /**
+     * Creates a new CountingInputStream.
+     *
+     * @param input the stream to read from
+     * @param telemetry the telemetry for the counters
+     * @param stage the stage of the reads
+     */
+    public CountingInputStream(InputStream input, Telemetry telemetry, Telemetry.Stage stage) {
+        super(input);
+        this.telemetry = telemetry;
+        this.stage = stage;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int length = read(b, 0, 1);
+
+        return length == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long outer = Telemetry.begin();
+        long start = System.nanoTime();
+        int length = 0;
+        try {
+            length = in.read(b, off, len);
+            return length;
+        } finally {
+            long time = Telemetry.end(outer, System.nanoTime() - start);
+            telemetry.add(stage, Math.max(0, length), time);
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long outer = Telemetry.begin();
+        long start = System.nanoTime();
+        long length = 0;
+        try {
+            length = in.skip(n);
+            return length;
+        } finally {
+            long time = Telemetry.end(outer, System.nanoTime() - start);
+            telemetry.add(stage, length, time);
+        }
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
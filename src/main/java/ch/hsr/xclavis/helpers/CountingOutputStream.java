@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This stream counts the bytes written through it and the exclusive time of
+ * the writes for a stage of a Telemetry.
+ *
+ * @author Gian Poltéra
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private final Telemetry telemetry;
+    private final Telemetry.Stage stage;
+
+    /**
+     * Creates a new CountingOutputStream.
+     *
+     * @param output the stream to write to
+     * @param telemetry the telemetry for the counters
+     * @param stage the stage of the writes
+     */
+    public CountingOutputStream(OutputStream output, Telemetry telemetry, Telemetry.Stage stage) {
+        super(output);
+        this.telemetry = telemetry;
+        this.stage = stage;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long outer = Telemetry.begin();
+        long start = System.nanoTime();
+        try {
+            out.write(b, off, len);
+        } finally {
+            long time = Telemetry.end(outer, System.nanoTime() - start);
+            telemetry.add(stage, len, time);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long outer = Telemetry.begin();
+        long start = System.nanoTime();
+        try {
+            out.flush();
+        } finally {
+            telemetry.add(stage, 0, Telemetry.end(outer, System.nanoTime() - start));
+        }
+    }
+}
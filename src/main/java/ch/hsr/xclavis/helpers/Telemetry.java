@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects the byte counters and the busy times of the stages of
+ * a cryption job. The counters are thread-safe, so the stages can run on
+ * several threads.
+ *
+ * The busy time of a stage is measured exclusively. Time, which a measured
+ * call spends in a nested measured call or waiting for another thread, is
+ * not counted for the outer stage.
+ *
+ * @author Gian Poltéra
+ */
+public class Telemetry {
+
+    /**
+     * The stages of a cryption job.
+     */
+    public enum Stage {
+
+        READ, COMPRESSION, CRYPTION, WRITE
+    }
+
+    private final static long NOTIFY_INTERVAL = 100_000_000L;
+    private final static double MB = 1024 * 1024;
+    // Time of the nested calls in the currently measured call of this thread
+    private final static ThreadLocal<long[]> NESTED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Map<Stage, LongAdder> bytes = new EnumMap<>(Stage.class);
+    private final Map<Stage, LongAdder> nanos = new EnumMap<>(Stage.class);
+    private final AtomicLong lastNotify = new AtomicLong();
+    private volatile Stage progressStage = Stage.READ;
+    private volatile long total = 0;
+    private volatile long startTime = 0;
+    private volatile long endTime = 0;
+    private volatile Runnable listener;
+
+    /**
+     * Creates a new Telemetry.
+     */
+    public Telemetry() {
+        for (Stage stage : Stage.values()) {
+            bytes.put(stage, new LongAdder());
+            nanos.put(stage, new LongAdder());
+        }
+    }
+
+    /**
+     * Sets the stage, whose bytes are the progress of the job, and the total
+     * number of bytes of this stage.
+     *
+     * @param stage the stage for the progress
+     * @param total the total number of bytes
+     */
+    public void setProgress(Stage stage, long total) {
+        this.progressStage = stage;
+        this.total = total;
+    }
+
+    /**
+     * Sets a listener, which is called when the counters change. The
+     * listener is called on the thread of the stage, at most every 100 ms.
+     *
+     * @param listener the listener
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts the wall-clock time of the job.
+     */
+    public void start() {
+        startTime = System.nanoTime();
+        endTime = 0;
+    }
+
+    /**
+     * Stops the wall-clock time of the job.
+     */
+    public void stop() {
+        endTime = System.nanoTime();
+        Runnable current = listener;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+    /**
+     * Adds processed bytes and the busy time to a stage.
+     *
+     * @param stage the stage
+     * @param count the number of bytes
+     * @param time the busy time in nanoseconds
+     */
+    public void add(Stage stage, long count, long time) {
+        bytes.get(stage).add(count);
+        nanos.get(stage).add(time);
+        notifyListener();
+    }
+
+    /**
+     * Begins a measured call on this thread.
+     *
+     * @return the state of the outer call, which must be given to end
+     */
+    public static long begin() {
+        long[] nested = NESTED.get();
+        long outer = nested[0];
+        nested[0] = 0;
+
+        return outer;
+    }
+
+    /**
+     * Ends a measured call on this thread.
+     *
+     * @param outer the state returned by begin
+     * @param elapsed the elapsed time of the call in nanoseconds
+     * @return the exclusive time of the call in nanoseconds
+     */
+    public static long end(long outer, long elapsed) {
+        long[] nested = NESTED.get();
+        long exclusive = Math.max(0, elapsed - nested[0]);
+        nested[0] = outer + elapsed;
+
+        return exclusive;
+    }
+
+    /**
+     * Excludes a waiting time of this thread from the currently measured
+     * call, e.g. the time waiting for the result of another thread.
+     *
+     * @param time the waiting time in nanoseconds
+     */
+    public static void exclude(long time) {
+        NESTED.get()[0] += time;
+    }
+
+    /**
+     * Gets the processed bytes of a stage.
+     *
+     * @param stage the stage
+     * @return the number of bytes
+     */
+    public long getBytes(Stage stage) {
+        return bytes.get(stage).sum();
+    }
+
+    /**
+     * Gets the busy time of a stage.
+     *
+     * @param stage the stage
+     * @return the busy time in nanoseconds
+     */
+    public long getTime(Stage stage) {
+        return nanos.get(stage).sum();
+    }
+
+    /**
+     * Gets the wall-clock time of the job.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedTime() {
+        if (startTime == 0) {
+            return 0;
+        }
+
+        return (endTime != 0 ? endTime : System.nanoTime()) - startTime;
+    }
+
+    /**
+     * Gets the progress of the job.
+     *
+     * @return the progress between 0 and 1, or -1 if the total is unknown
+     */
+    public double getProgress() {
+        if (total <= 0) {
+            return -1;
+        }
+
+        return Math.min(1.0, (double) getBytes(progressStage) / total);
+    }
+
+    /**
+     * Gets the throughput of the job over the wall-clock time.
+     *
+     * @return the throughput in MB/s
+     */
+    public double getThroughput() {
+        long elapsed = getElapsedTime();
+
+        return elapsed > 0 ? getBytes(progressStage) / MB / (elapsed / 1e9) : 0;
+    }
+
+    /**
+     * Gets the estimated remaining time of the job.
+     *
+     * @return the remaining time in seconds, or -1 if it is unknown
+     */
+    public long getRemainingTime() {
+        long done = getBytes(progressStage);
+        long elapsed = getElapsedTime();
+        if (total <= 0 || done == 0 || elapsed == 0) {
+            return -1;
+        }
+
+        return (long) ((double) elapsed / done * Math.max(0, total - done) / 1e9);
+    }
+
+    /**
+     * Gets a line with the throughput and the remaining time.
+     *
+     * @return the status, e.g. "12.3 MB/s, 0:42 left"
+     */
+    public String getStatus() {
+        long remaining = getRemainingTime();
+        String status = String.format("%.1f MB/s", getThroughput());
+        if (remaining >= 0 && endTime == 0) {
+            status += String.format(", %d:%02d left", remaining / 60, remaining % 60);
+        }
+
+        return status;
+    }
+
+    /**
+     * Gets a summary with the bytes, busy time and throughput of each stage.
+     *
+     * @return one line per stage, which processed bytes, and a total line
+     */
+    public List<String> getSummary() {
+        List<String> summary = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            long count = getBytes(stage);
+            long time = getTime(stage);
+            if (count == 0 && time == 0) {
+                continue;
+            }
+            String line = String.format("%s: %.1f MB in %d ms", stage, count / MB, time / 1000000);
+            if (time > 0) {
+                line += String.format(" (%.1f MB/s)", count / MB / (time / 1e9));
+            }
+            summary.add(line);
+        }
+        summary.add(String.format("Total: %.1f MB/s over %d ms", getThroughput(), getElapsedTime() / 1000000));
+
+        return summary;
+    }
+
+    private void notifyListener() {
+        Runnable current = listener;
+        if (current == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastNotify.get();
+        if (now - last >= NOTIFY_INTERVAL && lastNotify.compareAndSet(last, now)) {
+            current.run();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This stream reads a series of volumes as one stream. Each volume is read
+ * ahead by its own AsyncInputStream, and the next volume is opened together
+ * with the current one. With the volumes on different disks, two volumes are
+ * read at the same time, so the change to the next volume does not wait for
+ * its disk.
+ *
+ * @author Gian Poltéra
+ */
+public class VolumeInputStream extends InputStream {
+
+    private final List<Path> volumes;
+    private int index = 0;
+    private InputStream current;
+    private InputStream next;
+    private boolean closed = false;
+
+    /**
+     * Creates a new VolumeInputStream.
+     *
+     * @param volumes the paths of the volumes in their order
+     * @throws IOException if the first volumes could not be opened
+     */
+    public VolumeInputStream(List<Path> volumes) throws IOException {
+        this.volumes = new ArrayList<>(volumes);
+        this.current = open(0);
+        try {
+            this.next = open(1);
+        } catch (IOException ex) {
+            current.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int length = read(b, 0, 1);
+
+        return length == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (current != null) {
+            int length = current.read(b, off, len);
+            if (length != -1) {
+                return length;
+            }
+            current.close();
+            current = next;
+            next = null;
+            index++;
+            next = open(index + 1);
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current != null) {
+                current.close();
+            }
+        } finally {
+            if (next != null) {
+                next.close();
+            }
+        }
+    }
+
+    private InputStream open(int volume) throws IOException {
+        if (volume >= volumes.size()) {
+            return null;
+        }
+
+        return new AsyncInputStream(Files.newInputStream(volumes.get(volume)));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * This stream splits the written bytes into volumes of a fixed size. Each
+ * volume is written by its own AsyncOutputStream, so a full volume is still
+ * written to its disk, while the next one is filled. With the volumes on
+ * different disks, two volumes are written at the same time. A volume is
+ * only created, if no file with its path exists yet.
+ *
+ * @author Gian Poltéra
+ */
+public class VolumeOutputStream extends OutputStream {
+
+    private final IntFunction<Path> paths;
+    private final long volumeSize;
+    private final List<Path> volumes = new ArrayList<>();
+    private OutputStream previous;
+    private OutputStream current;
+    private long position = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a new VolumeOutputStream.
+     *
+     * @param paths returns the path of the volume with the given index
+     * @param volumeSize the size of a volume in bytes
+     */
+    public VolumeOutputStream(IntFunction<Path> paths, long volumeSize) {
+        if (volumeSize < 1) {
+            throw new IllegalArgumentException("The size of a volume must be positive");
+        }
+        this.paths = paths;
+        this.volumeSize = volumeSize;
+    }
+
+    /**
+     * Gets the paths of the volumes, which were created so far.
+     *
+     * @return the paths in the order of the volumes
+     */
+    public List<Path> getVolumes() {
+        return Collections.unmodifiableList(volumes);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (len > 0) {
+            if (current == null || position == volumeSize) {
+                nextVolume();
+            }
+            int length = (int) Math.min(len, volumeSize - position);
+            current.write(b, off, length);
+            position += length;
+            off += length;
+            len -= length;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeVolume(previous);
+        } finally {
+            previous = null;
+            closeVolume(current);
+            current = null;
+        }
+    }
+
+    private void nextVolume() throws IOException {
+        // The volume before the full one had the time of a whole volume to be written
+        closeVolume(previous);
+        previous = current;
+        current = null;
+        Path path = paths.apply(volumes.size());
+        // An existing file is never overwritten, and only a created volume belongs to this stream
+        current = new AsyncOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+        volumes.add(path);
+        position = 0;
+    }
+
+    private static void closeVolume(OutputStream volume) throws IOException {
+        if (volume != null) {
+            volume.close();
+        }
+    }
+}
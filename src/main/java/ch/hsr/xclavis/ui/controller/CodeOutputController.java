@@ -1,95 +1,95 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.ui.controller;
-
-import ch.hsr.xclavis.qrcode.QRModel;
-import ch.hsr.xclavis.keys.ECDHKey;
-import ch.hsr.xclavis.keys.Key;
-import ch.hsr.xclavis.keys.SessionKey;
-import ch.hsr.xclavis.qrcode.QRCodeGenerator;
-import ch.hsr.xclavis.ui.MainApp;
-import java.net.URL;
-import java.util.List;
-import java.util.ResourceBundle;
-import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
-import javafx.scene.image.ImageView;
-
-/**
- * FXML Controller class
- * Shows the QR-Codes.
- * 
- * @author Gian Poltéra
- */
-public class CodeOutputController implements Initializable {
-
-    private MainApp mainApp;
-
-    @FXML
-    private ImageView imageView;
-
-    /**
-     * Initializes the controller class.
-     *
-     * @param url
-     * @param rb
-     */
-    @Override
-    public void initialize(URL url, ResourceBundle rb) {
-
-    }
-
-    /**
-     * Is called by the main application to give a reference back to itself.
-     *
-     * @param mainApp
-     */
-    public void setMainApp(MainApp mainApp) {
-        this.mainApp = mainApp;
-    }
-    
-    /**
-     * Sets the keys for the QR-Code output.
-     * 
-     * @param keys the keys for the QR-Code output
-     */
-    public void setKeys(List<Key> keys) {
-        QRModel qrModell = new QRModel();
-        
-        keys.stream().forEach((key) -> {
-            if (key.getSessionID().isSessionKey()) {
-                qrModell.addSessionKey((SessionKey) key);
-            } else if (key.getSessionID().isECDH()) {
-                qrModell.addECDHKey((ECDHKey) key);
-            }
-        });
-        
-        imageView.setImage(new QRCodeGenerator().createQR(qrModell.getModel(), 500));
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.ui.controller;
+
+import ch.hsr.xclavis.qrcode.QRModel;
+import ch.hsr.xclavis.keys.ECDHKey;
+import ch.hsr.xclavis.keys.Key;
+import ch.hsr.xclavis.keys.SessionKey;
+import ch.hsr.xclavis.qrcode.QRCodeGenerator;
+import ch.hsr.xclavis.ui.MainApp;
+import java.net.URL;
+import java.util.List;
+import java.util.ResourceBundle;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.image.ImageView;
+
+/**
+ * FXML Controller class
+ * Shows the QR-Codes.
+ * 
+ * @author Gian Poltéra
+ */
+public class CodeOutputController implements Initializable {
+
+    private MainApp mainApp;
+
+    @FXML
+    private ImageView imageView;
+
+    /**
+     * Initializes the controller class.
+     *
+     * @param url
+     * @param rb
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle rb) {
+
+    }
+
+    /**
+     * Is called by the main application to give a reference back to itself.
+     *
+     * @param mainApp
+     */
+    public void setMainApp(MainApp mainApp) {
+        this.mainApp = mainApp;
+    }
+    
+    /**
+     * Sets the keys for the QR-Code output.
+     * 
+     * @param keys the keys for the QR-Code output
+     */
+    public void setKeys(List<Key> keys) {
+        QRModel qrModell = new QRModel();
+        
+        keys.stream().forEach((key) -> {
+            if (key.getSessionID().isSessionKey()) {
+                qrModell.addSessionKey((SessionKey) key);
+            } else if (key.getSessionID().isECDH()) {
+                qrModell.addECDHKey((ECDHKey) key);
+            }
+        });
+        
+        imageView.setImage(new QRCodeGenerator().createQR(qrModell.getModel(), 500));
+    }
+}
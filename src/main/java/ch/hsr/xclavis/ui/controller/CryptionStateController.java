@@ -1,158 +1,290 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.ui.controller;
-
-import ch.hsr.xclavis.files.FileCrypter;
-import ch.hsr.xclavis.helpers.Logfile;
-import ch.hsr.xclavis.keys.SessionKey;
-import ch.hsr.xclavis.ui.MainApp;
-import java.io.File;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ResourceBundle;
-import javafx.event.ActionEvent;
-import javafx.fxml.FXML;
-import javafx.fxml.Initializable;
-import javafx.scene.control.Alert;
-import javafx.scene.control.Alert.AlertType;
-import javafx.scene.control.Button;
-import javafx.scene.control.Label;
-import javafx.scene.control.ProgressIndicator;
-import javafx.scene.control.TextArea;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.layout.GridPane;
-import javafx.scene.layout.Priority;
-import javafx.scene.layout.VBox;
-
-/**
- * FXML Controller class Shows the state of a encryption or a decryption.
- *
- * @author Gian Poltéra
- */
-public class CryptionStateController implements Initializable {
-
-    private MainApp mainApp;
-    private ResourceBundle rb;
-    private FileCrypter crypter;
-
-    @FXML
-    private ProgressIndicator progressIndicator;
-    @FXML
-    private Label lblCryptionState;
-    @FXML
-    private ImageView imgRemoveCryptionState;
-    @FXML
-    private VBox cryptionState;
-    @FXML
-    private Button btnShowLog;
-
-    /**
-     * Initializes the controller class.
-     *
-     * @param url
-     * @param rb
-     */
-    @Override
-    public void initialize(URL url, ResourceBundle rb) {
-        this.rb = rb;
-        crypter = new FileCrypter();
-        imgRemoveCryptionState.setOnMouseEntered((event) -> {
-            imgRemoveCryptionState.setImage(new Image(getClass().getResourceAsStream("/images/delete2.png")));
-        });
-        imgRemoveCryptionState.setOnMouseExited((event) -> {
-            imgRemoveCryptionState.setImage(new Image(getClass().getResourceAsStream("/images/delete1.png")));
-        });
-        imgRemoveCryptionState.setOnMouseClicked((event) -> {
-            mainApp.removeCryptionState();
-        });
-    }
-
-    /**
-     * Is called by the main application to give a reference back to itself.
-     *
-     * @param mainApp
-     */
-    public void setMainApp(MainApp mainApp) {
-        this.mainApp = mainApp;
-    }
-
-    /**
-     * Sets the parameters for the cryption.
-     *
-     * @param sessionKey the SessionKey for the cryption
-     * @param encryption true for encryption or false for decryption
-     * @param output the output path for the files
-     */
-    public void setParameters(SessionKey sessionKey, boolean encryption, String output) {
-        if (encryption) {
-            lblCryptionState.setText(rb.getString("encryption_state"));
-            List<File> files = new ArrayList<>();
-            mainApp.getFiles().getObservableFileList().forEach((selectedFile) -> {
-                files.add(selectedFile.getFile());
-            });
-            progressIndicator.progressProperty().bind(crypter.encrypt(sessionKey, files, output));
-            mainApp.getFiles().removeAll();
-        } else {
-            File file = new File(mainApp.getFiles().getObservableFileList().get(0).getFile().getPath());
-            lblCryptionState.setText(rb.getString("decryption_state"));
-            progressIndicator.progressProperty().bind(crypter.decrypt(sessionKey, file, output));
-            mainApp.getFiles().removeAll();
-        }
-    }
-
-    @FXML
-    private void showLog(ActionEvent event) {
-        Alert alert = new Alert(AlertType.INFORMATION);
-        alert.setTitle(rb.getString("window_title"));
-        alert.setHeaderText("Log");
-
-        Label label = new Label("Logfile:");
-
-        TextArea textArea = new TextArea(Logfile.getLast());
-        textArea.setEditable(false);
-        textArea.setWrapText(true);
-
-        textArea.setMaxWidth(Double.MAX_VALUE);
-        textArea.setMaxHeight(Double.MAX_VALUE);
-        GridPane.setVgrow(textArea, Priority.ALWAYS);
-        GridPane.setHgrow(textArea, Priority.ALWAYS);
-
-        GridPane expContent = new GridPane();
-        expContent.setMaxWidth(Double.MAX_VALUE);
-        expContent.add(label, 0, 0);
-        expContent.add(textArea, 0, 1);
-
-        alert.getDialogPane().setExpandableContent(expContent);
-        alert.getDialogPane().setExpanded(true);
-
-        alert.showAndWait();
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.ui.controller;
+
+import ch.hsr.xclavis.files.ArchiveEntry;
+import ch.hsr.xclavis.files.FileCrypter;
+import ch.hsr.xclavis.files.Job;
+import ch.hsr.xclavis.helpers.Logfile;
+import ch.hsr.xclavis.keys.SessionKey;
+import ch.hsr.xclavis.ui.MainApp;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TextArea;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+/**
+ * FXML Controller class Shows the state of a encryption or a decryption.
+ *
+ * @author Gian Poltéra
+ */
+public class CryptionStateController implements Initializable {
+
+    private final static Duration STATUS_INTERVAL = Duration.millis(250);
+
+    private MainApp mainApp;
+    private ResourceBundle rb;
+    private FileCrypter crypter;
+
+    @FXML
+    private ProgressIndicator progressIndicator;
+    @FXML
+    private Label lblCryptionState;
+    @FXML
+    private Label lblThroughput;
+    @FXML
+    private ImageView imgRemoveCryptionState;
+    @FXML
+    private VBox cryptionState;
+    @FXML
+    private Button btnShowLog;
+    @FXML
+    private Button btnAbort;
+
+    /**
+     * Initializes the controller class.
+     *
+     * @param url
+     * @param rb
+     */
+    @Override
+    public void initialize(URL url, ResourceBundle rb) {
+        this.rb = rb;
+        crypter = new FileCrypter();
+        imgRemoveCryptionState.setOnMouseEntered((event) -> {
+            imgRemoveCryptionState.setImage(new Image(getClass().getResourceAsStream("/images/delete2.png")));
+        });
+        imgRemoveCryptionState.setOnMouseExited((event) -> {
+            imgRemoveCryptionState.setImage(new Image(getClass().getResourceAsStream("/images/delete1.png")));
+        });
+        imgRemoveCryptionState.setOnMouseClicked((event) -> {
+            mainApp.removeCryptionState();
+        });
+    }
+
+    /**
+     * Is called by the main application to give a reference back to itself.
+     *
+     * @param mainApp
+     */
+    public void setMainApp(MainApp mainApp) {
+        this.mainApp = mainApp;
+    }
+
+    /**
+     * Sets the parameters for the cryption.
+     *
+     * @param sessionKey the SessionKey for the cryption
+     * @param encryption true for encryption or false for decryption
+     * @param output the output path for the files
+     * @param rollback restores the previous state of the key, if the
+     * cryption is cancelled
+     */
+    public void setParameters(SessionKey sessionKey, boolean encryption, String output, Runnable rollback) {
+        setCrypterOptions();
+        if (encryption) {
+            List<File> files = new ArrayList<>();
+            mainApp.getFiles().getObservableFileList().forEach((selectedFile) -> {
+                files.add(selectedFile.getFile());
+            });
+            progressIndicator.progressProperty().bind(crypter.encrypt(sessionKey, files, output));
+            showJobState(rb.getString("encryption_state"), rollback);
+            mainApp.getFiles().removeAll();
+        } else {
+            File file = new File(mainApp.getFiles().getObservableFileList().get(0).getFile().getPath());
+            progressIndicator.progressProperty().bind(crypter.decrypt(sessionKey, file, output));
+            showJobState(rb.getString("decryption_state"), rollback);
+            mainApp.getFiles().removeAll();
+        }
+    }
+
+    /**
+     * Sets the parameters for the encryption for several recipients.
+     *
+     * @param recipients the SessionKeys of the recipients
+     * @param output the output path for the encrypted file
+     * @param rollback restores the previous state of the keys, if the
+     * encryption is cancelled
+     */
+    public void setEnvelopeParameters(List<SessionKey> recipients, String output, Runnable rollback) {
+        setCrypterOptions();
+        List<File> files = new ArrayList<>();
+        mainApp.getFiles().getObservableFileList().forEach((selectedFile) -> {
+            files.add(selectedFile.getFile());
+        });
+        progressIndicator.progressProperty().bind(crypter.encryptEnvelope(recipients, files, output));
+        showJobState(rb.getString("encryption_state"), rollback);
+        mainApp.getFiles().removeAll();
+    }
+
+    /**
+     * Sets the parameters for the extraction of a single file.
+     *
+     * @param sessionKey the SessionKey for the decryption
+     * @param entry the file inside the encrypted file to extract
+     * @param output the output path for the file
+     * @param rollback restores the previous state of the key, if the
+     * extraction is cancelled
+     */
+    public void setExtractionParameters(SessionKey sessionKey, ArchiveEntry entry, String output, Runnable rollback) {
+        setCrypterOptions();
+        File file = new File(mainApp.getFiles().getObservableFileList().get(0).getFile().getPath());
+        progressIndicator.progressProperty().bind(crypter.extract(sessionKey, file, entry, output));
+        showJobState(rb.getString("extraction_state"), rollback);
+        mainApp.getFiles().removeAll();
+    }
+
+    /**
+     * Sets the parameters for the verification of an encrypted file.
+     *
+     * @param sessionKey the SessionKey for the verification
+     */
+    public void setVerificationParameters(SessionKey sessionKey) {
+        setCrypterOptions();
+        File file = new File(mainApp.getFiles().getObservableFileList().get(0).getFile().getPath());
+        progressIndicator.progressProperty().bind(crypter.verify(sessionKey, file));
+        showJobState(rb.getString("verification_state"), () -> {
+        });
+        Job job = crypter.getJob();
+        job.addStateListener((state) -> {
+            if (state == Job.State.DONE && !job.isCancelled()) {
+                Platform.runLater(() -> {
+                    lblCryptionState.setText(rb.getString(crypter.isIntact() ? "archive_intact" : "archive_corrupt"));
+                });
+            }
+        });
+        // A small file can be verified, before the listener is added
+        if (job.getState() == Job.State.DONE && !job.isCancelled()) {
+            lblCryptionState.setText(rb.getString(crypter.isIntact() ? "archive_intact" : "archive_corrupt"));
+        }
+        mainApp.getFiles().removeAll();
+    }
+
+    private void setCrypterOptions() {
+        crypter.setMappedIO(mainApp.getProperties().getBoolean("mapped_io"));
+        // The volumes can be spread over several folders, separated like a class path
+        List<Path> folders = new ArrayList<>();
+        for (String folder : mainApp.getProperties().getString("volume_folders").split(File.pathSeparator)) {
+            if (!folder.trim().isEmpty()) {
+                folders.add(Paths.get(folder.trim()));
+            }
+        }
+        crypter.setVolumes(Math.max(0, mainApp.getProperties().getInteger("volume_size_mb")) * 1024L * 1024L, folders);
+        crypter.setScheduler(mainApp.getScheduler());
+    }
+
+    private void showJobState(String runningText, Runnable rollback) {
+        Job job = crypter.getJob();
+        btnAbort.setDisable(false);
+        // The throughput is polled, so the FX thread is updated at a fixed rate
+        Timeline throughput = new Timeline(new KeyFrame(STATUS_INTERVAL, (event) -> {
+            lblThroughput.setText(job.getTelemetry().getStatus());
+        }));
+        throughput.setCycleCount(Animation.INDEFINITE);
+        job.addStateListener((state) -> {
+            Platform.runLater(() -> {
+                lblCryptionState.setText(state == Job.State.QUEUED ? rb.getString("queued") : runningText);
+                if (state == Job.State.RUNNING) {
+                    throughput.play();
+                } else if (state == Job.State.DONE) {
+                    throughput.stop();
+                    lblThroughput.setText(job.getTelemetry().getStatus());
+                    btnAbort.setDisable(true);
+                    if (job.isCancelled()) {
+                        lblCryptionState.setText(rb.getString("cancelled"));
+                        rollback.run();
+                    }
+                }
+            });
+        });
+        lblCryptionState.setText(job.getState() == Job.State.QUEUED ? rb.getString("queued") : runningText);
+        if (job.getState() == Job.State.RUNNING) {
+            throughput.play();
+        } else if (job.getState() == Job.State.DONE) {
+            lblThroughput.setText(job.getTelemetry().getStatus());
+            btnAbort.setDisable(true);
+        }
+    }
+
+    @FXML
+    private void abort(ActionEvent event) {
+        btnAbort.setDisable(true);
+        crypter.getJob().cancel();
+    }
+
+    @FXML
+    private void showLog(ActionEvent event) {
+        Alert alert = new Alert(AlertType.INFORMATION);
+        alert.setTitle(rb.getString("window_title"));
+        alert.setHeaderText("Log");
+
+        Label label = new Label("Logfile:");
+
+        TextArea textArea = new TextArea(Logfile.getLast());
+        textArea.setEditable(false);
+        textArea.setWrapText(true);
+
+        textArea.setMaxWidth(Double.MAX_VALUE);
+        textArea.setMaxHeight(Double.MAX_VALUE);
+        GridPane.setVgrow(textArea, Priority.ALWAYS);
+        GridPane.setHgrow(textArea, Priority.ALWAYS);
+
+        GridPane expContent = new GridPane();
+        expContent.setMaxWidth(Double.MAX_VALUE);
+        expContent.add(label, 0, 0);
+        expContent.add(textArea, 0, 1);
+
+        alert.getDialogPane().setExpandableContent(expContent);
+        alert.getDialogPane().setExpanded(true);
+
+        alert.showAndWait();
+    }
+}
@@ -1,73 +1,73 @@
-/*
- * Copyright (c) 2015, Gian Poltéra
- * All rights reserved.
- *
- * Redistribution and use in source and binary forms, with or without
- * modification, are permitted provided that the following conditions are met:
- *
- * 1.	Redistributions of source code must retain the above copyright notice,
- *   	this list of conditions and the following disclaimer.
- * 2.	Redistributions in binary form must reproduce the above copyright 
- *   	notice, this list of conditions and the following disclaimer in the 
- *   	documentation and/or other materials provided with the distribution.
- * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
- * 	the names of its contributors may be used to endorse or promote products
- * 	derived from this software without specific prior written permission.
- *
- * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
- * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
- * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
- * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
- * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
- * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
- * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
- * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
- * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
- * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
- * POSSIBILITY OF SUCH DAMAGE.
- */
-package ch.hsr.xclavis.webcam;
-
-/**
- * This class represents a detected webcam from a user.
- * 
- * @author Gian Poltéra
- */
-public class DetectedWebcam {
-    private String webcamName;
-    private int webcamIndex;
-    
-    /**
-     * Creates a new DetectedWebcam.
-     * 
-     * @param webcamIndex the index number from the webcam
-     * @param webcamName the name of the webcam
-     */
-    public DetectedWebcam(int webcamIndex, String webcamName) {
-        this.webcamIndex = webcamIndex;
-        this.webcamName = webcamName;
-    }
-    
-    /**
-     * Gets the name from the webcam.
-     * 
-     * @return the name as a string
-     */
-    public String getWebcamName() {
-        return webcamName;
-    }
-    
-    /**
-     * Gets the index from the webcam.
-     * 
-     * @return the index as a integer
-     */
-    public int getWebcamIndex() {
-        return webcamIndex;
-    }
-    
-    @Override
-    public String toString() {
-        return webcamName;
-    }
-}
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.webcam;
+
+/**
+ * This class represents a detected webcam from a user.
+ * 
+ * @author Gian Poltéra
+ */
+public class DetectedWebcam {
+    private String webcamName;
+    private int webcamIndex;
+    
+    /**
+     * Creates a new DetectedWebcam.
+     * 
+     * @param webcamIndex the index number from the webcam
+     * @param webcamName the name of the webcam
+     */
+    public DetectedWebcam(int webcamIndex, String webcamName) {
+        this.webcamIndex = webcamIndex;
+        this.webcamName = webcamName;
+    }
+    
+    /**
+     * Gets the name from the webcam.
+     * 
+     * @return the name as a string
+     */
+    public String getWebcamName() {
+        return webcamName;
+    }
+    
+    /**
+     * Gets the index from the webcam.
+     * 
+     * @return the index as a integer
+     */
+    public int getWebcamIndex() {
+        return webcamIndex;
+    }
+    
+    @Override
+    public String toString() {
+        return webcamName;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class AeadEngineTest {
+
+    private byte[] key;
+    private byte[] nonce;
+    private byte[] associatedData;
+    private byte[] data;
+
+    public AeadEngineTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        Random random = new Random(1);
+        key = new byte[32];
+        nonce = new byte[12];
+        associatedData = new byte[7];
+        data = new byte[10000];
+        random.nextBytes(key);
+        random.nextBytes(nonce);
+        random.nextBytes(associatedData);
+        random.nextBytes(data);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test that all engines produce the same ciphertext and decrypt the
+     * ciphertext of each other.
+     */
+    @Test
+    public void testCompatibility() throws InvalidCipherTextException {
+        System.out.println("compatibility");
+        List<AeadEngine> engines = AeadEngines.getAvailable();
+        byte[] expected = new BouncyCastleAeadEngine().encrypt(key, nonce, associatedData, data, 5, 9000);
+        assertEquals(9000 + 16, expected.length);
+        for (AeadEngine engine : engines) {
+            assertArrayEquals(engine.getName(), expected, engine.encrypt(key, nonce, associatedData, data, 5, 9000));
+            byte[] result = engine.decrypt(key, nonce, associatedData, expected, 0, expected.length);
+            assertArrayEquals(engine.getName(), Arrays.copyOfRange(data, 5, 9005), result);
+        }
+    }
+
+    /**
+     * Test that all engines reject modified ciphertext and associated data.
+     */
+    @Test
+    public void testModifiedData() {
+        System.out.println("modifiedData");
+        for (AeadEngine engine : AeadEngines.getAvailable()) {
+            byte[] ciphertext = engine.encrypt(key, nonce, associatedData, data, 0, data.length);
+            ciphertext[100] ^= 1;
+            try {
+                engine.decrypt(key, nonce, associatedData, ciphertext, 0, ciphertext.length);
+                fail(engine.getName() + " accepted modified ciphertext");
+            } catch (InvalidCipherTextException ex) {
+                // expected
+            }
+            ciphertext[100] ^= 1;
+            associatedData[0] ^= 1;
+            try {
+                engine.decrypt(key, nonce, associatedData, ciphertext, 0, ciphertext.length);
+                fail(engine.getName() + " accepted modified associated data");
+            } catch (InvalidCipherTextException ex) {
+                // expected
+            }
+            associatedData[0] ^= 1;
+        }
+    }
+
+    /**
+     * Test of probe method, of class AeadEngines.
+     */
+    @Test
+    public void testProbe() {
+        System.out.println("probe");
+        List<AeadEngine> engines = AeadEngines.getAvailable();
+        assertTrue(engines.contains(AeadEngines.probe(engines)));
+        assertNotNull(AeadEngines.getDefault());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.bouncycastle.crypto.engines.AESEngine;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class GCMVerifierTest {
+
+    public GCMVerifierTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of verify method with the tags of GCMBlockCipher, of class
+     * GCMVerifier.
+     */
+    @Test
+    public void testVerify() throws Exception {
+        System.out.println("verify");
+        int[] sizes = {0, 1, 15, 16, 17, 1000, 100000};
+        int[] nonceSizes = {12, 16};
+        for (int size : sizes) {
+            for (int nonceSize : nonceSizes) {
+                byte[] key = RandomGenerator.getRandomBytes(32);
+                byte[] nonce = RandomGenerator.getRandomBytes(nonceSize);
+                byte[] associatedData = size % 2 == 0 ? null : RandomGenerator.getRandomBytes(size % 23);
+                byte[] encrypted = encrypt(key, nonce, associatedData, RandomGenerator.getRandomBytes(size));
+
+                assertTrue(GCMVerifier.verify(key, nonce, associatedData, encrypted, 0, encrypted.length));
+                assertTrue(GCMVerifier.verify(key, nonce, associatedData, new ByteArrayInputStream(encrypted)));
+
+                encrypted[size / 2] ^= 1;
+                assertFalse(GCMVerifier.verify(key, nonce, associatedData, encrypted, 0, encrypted.length));
+                assertFalse(GCMVerifier.verify(key, nonce, associatedData, new ByteArrayInputStream(encrypted)));
+            }
+        }
+    }
+
+    /**
+     * Test of verify method with a wrong key and a truncated stream, of class
+     * GCMVerifier.
+     */
+    @Test
+    public void testWrongKeyAndTruncated() throws Exception {
+        System.out.println("verify with wrong key");
+        byte[] key = RandomGenerator.getRandomBytes(16);
+        byte[] nonce = RandomGenerator.getRandomBytes(12);
+        byte[] encrypted = encrypt(key, nonce, null, RandomGenerator.getRandomBytes(5000));
+
+        assertFalse(GCMVerifier.verify(RandomGenerator.getRandomBytes(16), nonce, null, new ByteArrayInputStream(encrypted)));
+        assertFalse(GCMVerifier.verify(key, nonce, null, new ByteArrayInputStream(new byte[GCMVerifier.TAG_SIZE - 1])));
+        assertFalse(GCMVerifier.verify(key, nonce, null, new ByteArrayInputStream(encrypted, 0, encrypted.length - 1)));
+    }
+
+    private byte[] encrypt(byte[] key, byte[] nonce, byte[] associatedData, byte[] input) throws Exception {
+        GCMBlockCipher cipher = new GCMBlockCipher(new AESEngine());
+        cipher.init(true, new AEADParameters(new KeyParameter(key), GCMVerifier.TAG_SIZE * Byte.SIZE, nonce, associatedData));
+        byte[] output = new byte[cipher.getOutputSize(input.length)];
+        int length = cipher.processBytes(input, 0, input.length, output, 0);
+        cipher.doFinal(output, length);
+
+        return output;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.crypto;
+
+import ch.hsr.xclavis.helpers.Abortable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class SegmentedAESGCMTest {
+
+    private final static int SEGMENT_SIZE = 1000;
+    private final static byte[] HEADER = "XCL2".getBytes();
+
+    public SegmentedAESGCMTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getEncryptionStream and getDecryptionStream methods, of class
+     * SegmentedAESGCM.
+     */
+    @Test
+    public void testEncryptDecrypt() throws IOException {
+        System.out.println("encrypt and decrypt segments");
+        SegmentedAESGCM instance = new SegmentedAESGCM(RandomGenerator.getRandomBytes(16), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, HEADER);
+        int[] sizes = {0, 1, SEGMENT_SIZE - 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, 10 * SEGMENT_SIZE, 55555};
+        for (int size : sizes) {
+            byte[] input = getInput(size);
+            byte[] encrypted = encrypt(instance, input);
+            int segments = Math.max(1, (size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            assertEquals(size + segments * SegmentedAESGCM.TAG_SIZE, encrypted.length);
+            assertArrayEquals(input, decrypt(instance, encrypted));
+        }
+    }
+
+    /**
+     * Test of getDecryptionStream method with modified data, of class
+     * SegmentedAESGCM.
+     */
+    @Test
+    public void testModifiedData() throws IOException {
+        System.out.println("modified segments");
+        SegmentedAESGCM instance = new SegmentedAESGCM(RandomGenerator.getRandomBytes(32), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, HEADER);
+        byte[] encrypted = encrypt(instance, getInput(5 * SEGMENT_SIZE + 10));
+        int chunk = SEGMENT_SIZE + SegmentedAESGCM.TAG_SIZE;
+
+        // Modified byte
+        byte[] modified = encrypted.clone();
+        modified[2 * chunk + 5] ^= 1;
+        assertNotAuthentic(instance, modified);
+
+        // Removed last segment
+        assertNotAuthentic(instance, Arrays.copyOf(encrypted, 5 * chunk));
+
+        // Swapped segments
+        byte[] swapped = encrypted.clone();
+        System.arraycopy(encrypted, 0, swapped, chunk, chunk);
+        System.arraycopy(encrypted, chunk, swapped, 0, chunk);
+        assertNotAuthentic(instance, swapped);
+
+        // Other header
+        SegmentedAESGCM other = new SegmentedAESGCM(RandomGenerator.getRandomBytes(32), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, "XCL3".getBytes());
+        assertNotAuthentic(other, encrypted);
+    }
+
+    /**
+     * Test of verify method, of class SegmentedAESGCM.
+     */
+    @Test
+    public void testVerify() throws IOException {
+        System.out.println("verify segments");
+        SegmentedAESGCM instance = new SegmentedAESGCM(RandomGenerator.getRandomBytes(16), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, HEADER);
+        byte[] encrypted = encrypt(instance, getInput(20 * SEGMENT_SIZE + 7));
+        instance.verify(new ByteArrayInputStream(encrypted));
+        instance.verify(new ByteArrayInputStream(encrypt(instance, new byte[0])));
+
+        byte[] modified = encrypted.clone();
+        modified[7 * (SEGMENT_SIZE + SegmentedAESGCM.TAG_SIZE) + 3] ^= 1;
+        assertNotVerified(instance, modified);
+        assertNotVerified(instance, Arrays.copyOf(encrypted, 20 * (SEGMENT_SIZE + SegmentedAESGCM.TAG_SIZE)));
+    }
+
+    /**
+     * Test of getDecryptionStream method with more segments than threads in
+     * the pool, of class SegmentedAESGCM.
+     */
+    @Test
+    public void testParallelDecryption() throws IOException {
+        System.out.println("parallel decryption");
+        SegmentedAESGCM instance = new SegmentedAESGCM(RandomGenerator.getRandomBytes(32), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, HEADER);
+        int segments = 4 * (ForkJoinPool.getCommonPoolParallelism() + 1) + 3;
+        byte[] input = new byte[segments * SEGMENT_SIZE - 17];
+        new Random(42).nextBytes(input);
+        byte[] encrypted = encrypt(instance, input);
+        assertArrayEquals(input, decrypt(instance, encrypted));
+
+        int chunk = SEGMENT_SIZE + SegmentedAESGCM.TAG_SIZE;
+        int middle = segments / 2;
+        // Swapped segments in the middle
+        byte[] swapped = encrypted.clone();
+        System.arraycopy(encrypted, middle * chunk, swapped, (middle + 1) * chunk, chunk);
+        System.arraycopy(encrypted, (middle + 1) * chunk, swapped, middle * chunk, chunk);
+        assertNotAuthentic(instance, swapped, input, middle);
+
+        // Flipped bit in the tag of a segment in the middle
+        byte[] flipped = encrypted.clone();
+        flipped[(middle + 1) * chunk - 1] ^= 0x40;
+        assertNotAuthentic(instance, flipped, input, middle);
+    }
+
+    /**
+     * Test of aborting the stream of getEncryptionStream, of class
+     * SegmentedAESGCM.
+     */
+    @Test
+    public void testAbort() throws IOException {
+        System.out.println("abort encryption");
+        SegmentedAESGCM instance = new SegmentedAESGCM(RandomGenerator.getRandomBytes(16), RandomGenerator.getRandomBytes(12), SEGMENT_SIZE, HEADER);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        OutputStream os = instance.getEncryptionStream(baos);
+        os.write(getInput(3 * SEGMENT_SIZE + 500));
+        ((Abortable) os).abort();
+        os.close();
+
+        // Only the full segments are written, so the partial encryption is not authentic
+        byte[] encrypted = baos.toByteArray();
+        assertEquals(3 * (SEGMENT_SIZE + SegmentedAESGCM.TAG_SIZE), encrypted.length);
+        assertNotAuthentic(instance, encrypted);
+        assertNotVerified(instance, encrypted);
+    }
+
+    private void assertNotVerified(SegmentedAESGCM instance, byte[] encrypted) throws IOException {
+        try {
+            instance.verify(new ByteArrayInputStream(encrypted));
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    private void assertNotAuthentic(SegmentedAESGCM instance, byte[] encrypted) throws IOException {
+        try {
+            decrypt(instance, encrypted);
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    private void assertNotAuthentic(SegmentedAESGCM instance, byte[] encrypted, byte[] input, int segment) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = instance.getDecryptionStream(new ByteArrayInputStream(encrypted))) {
+            byte[] buffer = new byte[777];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, length);
+            }
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            // The exception of the pool is unwrapped to the failed verification
+            assertTrue(ex.getCause() instanceof InvalidCipherTextException);
+        }
+        // Only the verified segments before the modified one are handed out, in order
+        byte[] plaintext = baos.toByteArray();
+        assertTrue(plaintext.length <= segment * SEGMENT_SIZE);
+        assertArrayEquals(Arrays.copyOf(input, plaintext.length), plaintext);
+    }
+
+    private byte[] getInput(int size) {
+        byte[] input = new byte[size];
+        for (int i = 0; i < size; i++) {
+            input[i] = (byte) (i % 253);
+        }
+
+        return input;
+    }
+
+    private byte[] encrypt(SegmentedAESGCM instance, byte[] input) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream os = instance.getEncryptionStream(baos)) {
+            // Write in uneven parts to cross the segment borders
+            int position = 0;
+            while (position < input.length) {
+                int length = Math.min(333, input.length - position);
+                os.write(input, position, length);
+                position += length;
+            }
+        }
+
+        return baos.toByteArray();
+    }
+
+    private byte[] decrypt(SegmentedAESGCM instance, byte[] encrypted) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = instance.getDecryptionStream(new ByteArrayInputStream(encrypted))) {
+            byte[] buffer = new byte[777];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, length);
+            }
+        }
+
+        return baos.toByteArray();
+    }
+}
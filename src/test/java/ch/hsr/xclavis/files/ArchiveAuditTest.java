@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.keys.KeyStore;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class ArchiveAuditTest {
+
+    private File folder;
+    private KeyStore keys;
+
+    public ArchiveAuditTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+        keys = new KeyStore();
+    }
+
+    @After
+    public void tearDown() {
+        deleteFolder(folder);
+    }
+
+    /**
+     * Test of audit method, of class ArchiveAudit.
+     */
+    @Test
+    public void testAudit() throws IOException {
+        System.out.println("audit");
+        SessionKey known = new SessionKey(SessionID.SESSION_KEY_128);
+        SessionKey unknown = new SessionKey(SessionID.SESSION_KEY_256);
+        keys.add(known);
+        try {
+            File intact = encrypt(known, new File(folder, "intact.enc"), 50000);
+            File nested = new File(folder, "nested");
+            nested.mkdir();
+            File corrupt = encrypt(known, new File(nested, "corrupt.enc"), 50000);
+            try (RandomAccessFile raf = new RandomAccessFile(corrupt, "rw")) {
+                raf.seek(corrupt.length() / 2);
+                int b = raf.read();
+                raf.seek(corrupt.length() / 2);
+                raf.write(b ^ 1);
+            }
+            encrypt(unknown, new File(folder, "unknown.enc"), 1000);
+            Files.write(new File(folder, "garbage.enc").toPath(), new byte[]{1, 2, 3});
+            Files.write(new File(folder, "plain.txt").toPath(), new byte[100]);
+
+            ArchiveAudit instance = new ArchiveAudit(keys);
+            instance.setThreads(2);
+            ArchiveAudit.Report report = instance.audit(folder.toPath());
+            report.getLines().forEach(System.out::println);
+
+            assertEquals(4, report.getEntries().size());
+            assertEquals(1, report.count(ArchiveAudit.Result.OK));
+            assertEquals(2, report.count(ArchiveAudit.Result.CORRUPT));
+            assertEquals(1, report.count(ArchiveAudit.Result.MISSING_KEY));
+            assertFalse(report.isIntact());
+            assertEquals(intact.length() + corrupt.length(), report.getBytes());
+            for (ArchiveAudit.Entry entry : report.getEntries()) {
+                if (entry.getFile().equals(intact)) {
+                    assertEquals(ArchiveAudit.Result.OK, entry.getResult());
+                } else if (entry.getFile().equals(corrupt)) {
+                    assertEquals(ArchiveAudit.Result.CORRUPT, entry.getResult());
+                }
+            }
+        } finally {
+            keys.remove(known);
+        }
+    }
+
+    private File encrypt(SessionKey sessionKey, File encrypted, int size) throws IOException {
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), 4096);
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        FileOutputStream fos = new FileOutputStream(encrypted);
+        header.write(fos);
+        try (OutputStream os = segmentedAES.getEncryptionStream(fos)) {
+            for (int i = 0; i < size; i++) {
+                os.write(i % 251);
+            }
+        }
+
+        return encrypted;
+    }
+
+    private void deleteFolder(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteFolder(child);
+            }
+        }
+        file.delete();
+    }
+}
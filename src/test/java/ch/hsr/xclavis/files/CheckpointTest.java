@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.helpers.Abortable;
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class CheckpointTest {
+
+    private final static byte[] FINGERPRINT = Checkpoint.getFingerprint(new ArrayList<>(), "test");
+    private File folder;
+
+    public CheckpointTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of resuming an interrupted encryption, of class Checkpoint.
+     */
+    @Test
+    public void testResumeEncryption() throws IOException {
+        System.out.println("resumeEncryption");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        List<File> files = createFiles();
+        FileCrypter crypter = new FileCrypter();
+        File reference = new File(folder, "reference.enc");
+        encrypt(crypter, sessionKey, files, reference, new Checkpoint(new File(folder, "reference.xcp").toPath(), sessionKey, FINGERPRINT));
+        assertFalse(new File(folder, "reference.xcp").exists());
+
+        File output = new File(folder, "files.enc");
+        Path path = new File(folder, "files.enc" + Checkpoint.EXTENSION).toPath();
+        // Interrupted inside the deflated and inside the stored file
+        for (long stop : new long[]{1, 4}) {
+            Files.deleteIfExists(path);
+            Checkpoint interrupted = new Checkpoint(path, sessionKey, FINGERPRINT) {
+                @Override
+                public void commit(long written) {
+                    if (written <= stop) {
+                        super.commit(written);
+                    }
+                }
+            };
+            interrupted.setInterval(0);
+            encrypt(crypter, sessionKey, files, output, interrupted);
+            assertTrue(Files.exists(path));
+
+            Checkpoint resumed = new Checkpoint(path, sessionKey, FINGERPRINT);
+            encrypt(crypter, sessionKey, files, output, resumed);
+            assertEquals(stop, resumed.getSegments());
+            assertArrayEquals(Files.readAllBytes(reference.toPath()), Files.readAllBytes(output.toPath()));
+        }
+
+        // A checkpoint of other files is not used
+        Checkpoint other = new Checkpoint(path, sessionKey, Checkpoint.getFingerprint(files, "other"));
+        assertFalse(other.load());
+    }
+
+    /**
+     * Test of resuming an encryption, which failed while zipping, of class
+     * Checkpoint.
+     */
+    @Test
+    public void testResumeFailedEncryption() throws IOException {
+        System.out.println("resumeFailedEncryption");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        List<File> files = createFiles();
+        FileCrypter crypter = new FileCrypter();
+        File reference = new File(folder, "reference.enc");
+        encrypt(crypter, sessionKey, files, reference, new Checkpoint(new File(folder, "reference.xcp").toPath(), sessionKey, FINGERPRINT));
+
+        File output = new File(folder, "files.enc");
+        Path path = new File(folder, "files.enc" + Checkpoint.EXTENSION).toPath();
+        Checkpoint failed = new Checkpoint(path, sessionKey, FINGERPRINT);
+        failed.setInterval(0);
+        FileZipper zipper = new FileZipper();
+        zipper.setResumeListener(failed::mark);
+        OutputStream os = crypter.getEncryptionStream(sessionKey, output.getPath(), new Telemetry(), failed);
+        try {
+            zipper.zipToStream(files, new FailingOutputStream(os, 7 * 1024 * 1024 + 123), true, failed.getResumePoint());
+            fail("IOException expected");
+        } catch (IOException ex) {
+            assertEquals("Interrupted", ex.getMessage());
+            ((Abortable) os).abort();
+        }
+        // Only full segments are written, so the partial file is not complete
+        ContainerHeader header = ContainerHeader.read(output);
+        long segments = (output.length() - header.getLength()) / (header.getSegmentSize() + SegmentedAESGCM.TAG_SIZE);
+        assertEquals(header.getLength() + segments * (header.getSegmentSize() + SegmentedAESGCM.TAG_SIZE), output.length());
+        assertTrue(segments > 0);
+
+        Checkpoint resumed = new Checkpoint(path, sessionKey, FINGERPRINT);
+        encrypt(crypter, sessionKey, files, output, resumed);
+        assertEquals(segments, resumed.getSegments());
+        assertArrayEquals(Files.readAllBytes(reference.toPath()), Files.readAllBytes(output.toPath()));
+    }
+
+    /**
+     * Test of resuming an interrupted decryption, of class Checkpoint.
+     */
+    @Test
+    public void testResumeDecryption() throws IOException {
+        System.out.println("resumeDecryption");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        List<File> files = createFiles();
+        File encrypted = new File(folder, "files.enc");
+        encrypt(new FileCrypter(), sessionKey, files, encrypted, new Checkpoint(new File(folder, "files.xcp").toPath(), sessionKey, FINGERPRINT));
+        File output = new File(folder, "output");
+        output.mkdir();
+        Path path = new File(folder, "decryption" + Checkpoint.EXTENSION).toPath();
+
+        Checkpoint checkpoint = new Checkpoint(path, sessionKey, FINGERPRINT);
+        checkpoint.setInterval(0);
+        FileZipper zipper = new FileZipper();
+        try (InputStream is = new FailingInputStream(getDecryptionStream(sessionKey, encrypted), 8 * 1024 * 1024)) {
+            zipper.unzipFromStream(is, output.getPath(), checkpoint);
+            fail("IOException expected");
+        } catch (IOException ex) {
+            assertEquals("Interrupted", ex.getMessage());
+        }
+        assertEquals(0, output.list((dir, name) -> !name.startsWith(".")).length);
+
+        Checkpoint resumed = new Checkpoint(path, sessionKey, FINGERPRINT);
+        assertTrue(resumed.load());
+        assertEquals(1, resumed.getNames().size());
+        try (EncryptedArchive archive = new EncryptedArchive(encrypted, sessionKey)) {
+            zipper.resumeUnzip(archive, output.getPath(), resumed);
+        }
+        for (File file : files) {
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(new File(output, file.getName()).toPath()));
+        }
+        assertFalse(Files.exists(resumed.getTempDirectory()));
+    }
+
+    private void encrypt(FileCrypter crypter, SessionKey sessionKey, List<File> files, File output, Checkpoint checkpoint) throws IOException {
+        FileZipper zipper = new FileZipper();
+        zipper.setResumeListener(checkpoint::mark);
+        try (OutputStream os = crypter.getEncryptionStream(sessionKey, output.getPath(), new Telemetry(), checkpoint)) {
+            zipper.zipToStream(files, os, true, checkpoint.getResumePoint());
+        }
+    }
+
+    private InputStream getDecryptionStream(SessionKey sessionKey, File file) throws IOException {
+        InputStream is = Files.newInputStream(file.toPath());
+        ContainerHeader header = ContainerHeader.read(is);
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+
+        return segmentedAES.getDecryptionStream(is);
+    }
+
+    private List<File> createFiles() throws IOException {
+        Random random = new Random(42);
+        String[] words = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit"};
+        List<File> files = new ArrayList<>();
+
+        // Compressible text, deflated in several chunks
+        File text = new File(folder, "text.txt");
+        try (OutputStream os = new FileOutputStream(text)) {
+            StringBuilder builder = new StringBuilder();
+            while (builder.length() < 6 * 1024 * 1024) {
+                builder.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(' ');
+            }
+            os.write(builder.toString().getBytes("UTF-8"));
+        }
+        files.add(text);
+
+        // Random data, stored in several blocks
+        File data = new File(folder, "random.bin");
+        byte[] bytes = new byte[10 * 1024 * 1024];
+        random.nextBytes(bytes);
+        Files.write(data.toPath(), bytes);
+        files.add(data);
+
+        File small = new File(folder, "small.txt");
+        Files.write(small.toPath(), Arrays.copyOf("small file".getBytes("UTF-8"), 10));
+        files.add(small);
+
+        return files;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class FailingInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        FailingInputStream(InputStream input, long limit) {
+            super(input);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                throw new IOException("Interrupted");
+            }
+            int length = super.read(b, off, (int) Math.min(len, remaining));
+            if (length > 0) {
+                remaining -= length;
+            }
+
+            return length;
+        }
+    }
+
+    private static class FailingOutputStream extends FilterOutputStream {
+
+        private long remaining;
+
+        FailingOutputStream(OutputStream output, long limit) {
+            super(output);
+            this.remaining = limit;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > remaining) {
+                throw new IOException("Interrupted");
+            }
+            remaining -= len;
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class ChunkStoreTest {
+
+    private File folder;
+
+    public ChunkStoreTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of findBoundary method, of class ChunkStore.
+     */
+    @Test
+    public void testFindBoundary() {
+        System.out.println("findBoundary");
+        byte[] data = new byte[4 * 1024 * 1024];
+        new Random(1).nextBytes(data);
+        int position = 0;
+        int count = 0;
+        while (position < data.length) {
+            int length = ChunkStore.findBoundary(Arrays.copyOfRange(data, position, Math.min(data.length, position + ChunkStore.MAX_SIZE)),
+                    Math.min(data.length - position, ChunkStore.MAX_SIZE));
+            assertTrue(length <= ChunkStore.MAX_SIZE);
+            assertTrue(length >= ChunkStore.MIN_SIZE || position + length == data.length);
+            position += length;
+            count++;
+        }
+        // About 64 KB on average
+        assertTrue("Chunks: " + count, count > 20 && count < 200);
+    }
+
+    /**
+     * Test of put method with a changed file, of class ChunkStore.
+     */
+    @Test
+    public void testDeduplication() throws IOException {
+        System.out.println("put with a changed file");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        byte[] content = new byte[2 * 1024 * 1024];
+        new Random(2).nextBytes(content);
+        File original = write("original.bin", content);
+        // Some bytes inserted in the middle
+        byte[] changedContent = new byte[content.length + 100];
+        System.arraycopy(content, 0, changedContent, 0, 1000000);
+        System.arraycopy(content, 1000000, changedContent, 1000100, content.length - 1000000);
+        File changed = write("changed.bin", changedContent);
+
+        ChunkStore store = new ChunkStore(new File(folder, ChunkStore.DEFAULT_NAME).toPath(), sessionKey);
+        Recipe.Entry first = store.put(original, new Telemetry(), () -> false);
+        assertEquals(store.getChunks(), store.getNewChunks());
+        long before = store.getNewChunks();
+        Recipe.Entry second = store.put(changed, new Telemetry(), () -> false);
+        assertTrue("New chunks: " + (store.getNewChunks() - before), store.getNewChunks() - before <= 2);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        store.get(first, baos, () -> false);
+        assertArrayEquals(content, baos.toByteArray());
+        baos.reset();
+        store.get(second, baos, () -> false);
+        assertArrayEquals(changedContent, baos.toByteArray());
+    }
+
+    /**
+     * Test of encryptDeduplicated and decryptDeduplicated methods, of class
+     * FileCrypter.
+     */
+    @Test
+    public void testEncryptDecrypt() throws IOException {
+        System.out.println("encryptDeduplicated and decryptDeduplicated");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        byte[] text = new byte[300000];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (byte) ('a' + (i / 5) % 26);
+        }
+        byte[] random = new byte[100000];
+        new Random(3).nextBytes(random);
+        List<File> files = Arrays.asList(write("text.txt", text), write("random.bin", random), write("empty.txt", new byte[0]));
+        File encrypted = new File(folder, "recipe.enc");
+        new FileCrypter().encryptDeduplicated(sessionKey, files, encrypted.getPath(), new Telemetry(), () -> false);
+        assertTrue(Recipe.isRecipe(ContainerHeader.read(encrypted)));
+        assertTrue(encrypted.length() < 1024);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        new FileCrypter().decryptDeduplicated(sessionKey, encrypted, output.getPath(), new Telemetry(), () -> false);
+        assertEquals(3, output.list().length);
+        for (File file : files) {
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(new File(output, file.getName()).toPath()));
+        }
+    }
+
+    /**
+     * Test of getChunk method with a modified chunk, of class ChunkStore.
+     */
+    @Test
+    public void testModifiedChunk() throws IOException {
+        System.out.println("getChunk with a modified chunk");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        byte[] content = new byte[50000];
+        new Random(4).nextBytes(content);
+        Path storeFolder = new File(folder, ChunkStore.DEFAULT_NAME).toPath();
+        ChunkStore store = new ChunkStore(storeFolder, sessionKey);
+        Recipe.Entry entry = store.put(write("file.bin", content), new Telemetry(), () -> false);
+        List<Path> chunks;
+        try (Stream<Path> paths = Files.walk(storeFolder)) {
+            chunks = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        assertEquals(entry.getChunks().size(), chunks.size());
+        try (RandomAccessFile raf = new RandomAccessFile(chunks.get(0).toFile(), "rw")) {
+            raf.seek(20);
+            int b = raf.read();
+            raf.seek(20);
+            raf.write(b ^ 1);
+        }
+
+        try {
+            store.get(entry, new ByteArrayOutputStream(), () -> false);
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    private File write(String name, byte[] content) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content);
+
+        return file;
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class CompressionSnifferTest {
+
+    private CompressionSniffer instance;
+
+    public CompressionSnifferTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+        instance = new CompressionSniffer(Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of sniff method with magic numbers, of class CompressionSniffer.
+     */
+    @Test
+    public void testSniffMagicNumbers() {
+        System.out.println("sniff magic numbers");
+        byte[] jpeg = new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0};
+        CompressionSniffer.Decision decision = instance.sniff(jpeg, jpeg.length);
+        assertTrue(decision.isStored());
+        assertEquals("JPEG image", decision.getReason());
+
+        byte[] mp4 = "\0\0\0\u0018ftypmp42".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals("MP4/QuickTime video", instance.sniff(mp4, mp4.length).getReason());
+
+        byte[] zip = new byte[]{'P', 'K', 3, 4, 20, 0};
+        assertTrue(instance.sniff(zip, zip.length).isStored());
+        // The magic number must be inside the sample
+        assertFalse(instance.sniff(zip, 2).isStored());
+    }
+
+    /**
+     * Test of sniff method with the entropy, of class CompressionSniffer.
+     */
+    @Test
+    public void testSniffEntropy() {
+        System.out.println("sniff entropy");
+        Random random = new Random(1);
+        byte[] data = new byte[CompressionSniffer.SAMPLE_SIZE];
+        random.nextBytes(data);
+        CompressionSniffer.Decision decision = instance.sniff(data, data.length);
+        assertTrue(decision.isStored());
+        assertTrue(decision.getReason().startsWith("entropy"));
+
+        byte[] text = "The quick brown fox jumps over the lazy dog. ".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = text[i % text.length];
+        }
+        assertEquals(Deflater.DEFAULT_COMPRESSION, instance.sniff(data, data.length).getLevel());
+
+        for (int i = 0; i < data.length; i++) {
+            // 128 different values, 7 bits per byte
+            data[i] = (byte) random.nextInt(128);
+        }
+        assertEquals(Deflater.BEST_SPEED, instance.sniff(data, data.length).getLevel());
+
+        // Too small for an estimation
+        random.nextBytes(data);
+        assertEquals(Deflater.DEFAULT_COMPRESSION, instance.sniff(data, 100).getLevel());
+    }
+
+    /**
+     * Test of getEntropy method, of class CompressionSniffer.
+     */
+    @Test
+    public void testGetEntropy() {
+        System.out.println("getEntropy");
+        byte[] data = new byte[256 * 4];
+        assertEquals(0.0, CompressionSniffer.getEntropy(data, data.length), 0.0001);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        assertEquals(8.0, CompressionSniffer.getEntropy(data, data.length), 0.0001);
+        assertEquals(1.0, CompressionSniffer.getEntropy(new byte[]{0, 1, 0, 1}, 4), 0.0001);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class ContainerHeaderTest {
+
+    public ContainerHeaderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of read method with a version 1 header, of class ContainerHeader.
+     */
+    @Test
+    public void testReadVersion1() throws IOException {
+        System.out.println("read version 1");
+        byte[] iv = "123456789012".getBytes();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write("AEBK".getBytes());
+        baos.write(iv);
+        baos.write("ciphertext".getBytes());
+
+        InputStream is = new ByteArrayInputStream(baos.toByteArray());
+        ContainerHeader result = ContainerHeader.read(is);
+        assertEquals(ContainerHeader.VERSION_1, result.getVersion());
+        assertEquals("AEBK", result.getID());
+        assertArrayEquals(iv, result.getIV());
+        assertEquals(16, result.getLength());
+        assertEquals('c', is.read());
+    }
+
+    /**
+     * Test of write and read methods with a version 2 header, of class
+     * ContainerHeader.
+     */
+    @Test
+    public void testWriteReadVersion2() throws IOException {
+        System.out.println("write and read version 2");
+        byte[] iv = "123456789012".getBytes();
+        ContainerHeader instance = new ContainerHeader("BLES", iv, ContainerHeader.DEFAULT_SEGMENT_SIZE);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.write(baos);
+        assertEquals(instance.getLength(), baos.size());
+        baos.write("ciphertext".getBytes());
+
+        InputStream is = new ByteArrayInputStream(baos.toByteArray());
+        ContainerHeader result = ContainerHeader.read(is);
+        assertEquals(ContainerHeader.VERSION_2, result.getVersion());
+        assertEquals("BLES", result.getID());
+        assertArrayEquals(iv, result.getIV());
+        assertEquals(ContainerHeader.DEFAULT_SEGMENT_SIZE, result.getSegmentSize());
+        assertArrayEquals(instance.getAssociatedData(), result.getAssociatedData());
+        assertEquals('c', is.read());
+    }
+
+    /**
+     * Test of withExtension and getExtension methods, of class
+     * ContainerHeader.
+     */
+    @Test
+    public void testExtension() throws IOException {
+        System.out.println("withExtension and getExtension");
+        byte[] iv = "123456789012".getBytes();
+        ContainerHeader instance = new ContainerHeader("BLES", iv, ContainerHeader.DEFAULT_SEGMENT_SIZE)
+                .withExtension(7, "seven".getBytes())
+                .withExtension(1, "one".getBytes());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.write(baos);
+
+        ContainerHeader result = ContainerHeader.read(new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(instance.getLength(), result.getLength());
+        assertArrayEquals("seven".getBytes(), result.getExtension(7));
+        assertArrayEquals("one".getBytes(), result.getExtension(1));
+        assertNull(result.getExtension(2));
+        assertEquals(-1, result.getExtensionPosition(2));
+        int position = (int) result.getExtensionPosition(1);
+        assertEquals("one", new String(baos.toByteArray(), position, 3));
+        // The extensions are not authenticated with the segments
+        assertArrayEquals(new ContainerHeader("BLES", iv, ContainerHeader.DEFAULT_SEGMENT_SIZE).getAssociatedData(), result.getAssociatedData());
+    }
+}
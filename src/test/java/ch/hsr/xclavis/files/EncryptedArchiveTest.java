@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class EncryptedArchiveTest {
+
+    private final static int SEGMENT_SIZE = 4096;
+    private File folder;
+
+    public EncryptedArchiveTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] children = folder.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                child.delete();
+            }
+        }
+        folder.delete();
+    }
+
+    /**
+     * Test of getEntries and extract methods, of class EncryptedArchive.
+     */
+    @Test
+    public void testGetEntriesAndExtract() throws IOException {
+        System.out.println("getEntries and extract");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        List<File> files = createFiles();
+        File encrypted = encrypt(sessionKey, files);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        try (EncryptedArchive instance = new EncryptedArchive(encrypted, sessionKey)) {
+            List<ArchiveEntry> entries = instance.getEntries();
+            assertEquals(files.size(), entries.size());
+            for (int i = 0; i < files.size(); i++) {
+                ArchiveEntry entry = entries.get(i);
+                assertEquals(files.get(i).getName(), entry.getName());
+                assertEquals(files.get(i).length(), entry.getSize());
+                assertEquals(i % 2 == 0 ? ZipEntry.DEFLATED : ZipEntry.STORED, entry.getMethod());
+            }
+
+            File result = instance.extract(entries.get(1), output.getPath());
+            assertArrayEquals(Files.readAllBytes(files.get(1).toPath()), Files.readAllBytes(result.toPath()));
+            result = instance.extract(entries.get(2), output.getPath());
+            assertArrayEquals(Files.readAllBytes(files.get(2).toPath()), Files.readAllBytes(result.toPath()));
+        }
+        assertEquals(2, output.list().length);
+    }
+
+    /**
+     * Test of extract method with a modified file, of class EncryptedArchive.
+     */
+    @Test
+    public void testModifiedArchive() throws IOException {
+        System.out.println("extract from modified archive");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        File encrypted = encrypt(sessionKey, createFiles());
+        try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) {
+            raf.seek(100);
+            int b = raf.read();
+            raf.seek(100);
+            raf.write(b ^ 1);
+        }
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        try (EncryptedArchive instance = new EncryptedArchive(encrypted, sessionKey)) {
+            // The index at the end is still valid, the first file not
+            List<ArchiveEntry> entries = instance.getEntries();
+            instance.extract(entries.get(0), output.getPath());
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+        assertEquals(0, output.list().length);
+    }
+
+    /**
+     * Test of getEntries method with a manifest, of class EncryptedArchive.
+     */
+    @Test
+    public void testManifest() throws IOException {
+        System.out.println("getEntries with manifest");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        List<File> files = createFiles();
+        File encrypted = new File(folder, "ENC_" + sessionKey.getID() + ".enc");
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), SEGMENT_SIZE)
+                .withExtension(Manifest.EXTENSION_TYPE, new byte[Manifest.getLength(files)]);
+        FileZipper zipper = new FileZipper();
+        encrypt(header, sessionKey, files, zipper);
+
+        // The reserved record is not yet a manifest
+        assertNull(Manifest.read(encrypted, sessionKey));
+        assertTrue(Manifest.write(encrypted, sessionKey, zipper.getEntries()));
+        List<ArchiveEntry> manifest = Manifest.read(encrypted, sessionKey);
+        assertNotNull(manifest);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        try (EncryptedArchive instance = new EncryptedArchive(encrypted, sessionKey)) {
+            List<ArchiveEntry> entries = instance.getCentralDirectory();
+            assertEquals(entries.size(), manifest.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(entries.get(i).getName(), manifest.get(i).getName());
+                assertEquals(entries.get(i).getSize(), manifest.get(i).getSize());
+                assertEquals(entries.get(i).getCompressedSize(), manifest.get(i).getCompressedSize());
+                assertEquals(entries.get(i).getCrc(), manifest.get(i).getCrc());
+                assertEquals(entries.get(i).getMethod(), manifest.get(i).getMethod());
+                assertEquals(entries.get(i).getTime(), manifest.get(i).getTime());
+                assertEquals(entries.get(i).getOffset(), manifest.get(i).getOffset());
+            }
+
+            File result = instance.extract(instance.getEntries().get(3), output.getPath());
+            assertArrayEquals(Files.readAllBytes(files.get(3).toPath()), Files.readAllBytes(result.toPath()));
+        }
+
+        // A modified manifest is ignored
+        try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) {
+            long position = header.getExtensionPosition(Manifest.EXTENSION_TYPE);
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 1);
+        }
+        assertNull(Manifest.read(encrypted, sessionKey));
+        try (EncryptedArchive instance = new EncryptedArchive(encrypted, sessionKey)) {
+            assertEquals(files.size(), instance.getEntries().size());
+        }
+    }
+
+    private File encrypt(SessionKey sessionKey, List<File> files) throws IOException {
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), SEGMENT_SIZE);
+
+        return encrypt(header, sessionKey, files, new FileZipper());
+    }
+
+    private File encrypt(ContainerHeader header, SessionKey sessionKey, List<File> files, FileZipper zipper) throws IOException {
+        File encrypted = new File(folder, "ENC_" + sessionKey.getID() + ".enc");
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        FileOutputStream fos = new FileOutputStream(encrypted);
+        header.write(fos);
+        try (OutputStream os = segmentedAES.getEncryptionStream(fos)) {
+            zipper.zipToStream(files, os, true);
+        }
+
+        return encrypted;
+    }
+
+    private List<File> createFiles() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            File file = new File(folder, "file" + i + ".bin");
+            byte[] content = new byte[7000 * i + 3];
+            for (int j = 0; j < content.length; j++) {
+                // Files with an odd index have a high entropy and are stored
+                content[j] = i % 2 == 0 ? (byte) ('a' + (j / 7 + i) % 26) : (byte) (j * 31 + j / 17 + i);
+            }
+            Files.write(file.toPath(), content);
+            files.add(file);
+        }
+
+        return files;
+    }
+}
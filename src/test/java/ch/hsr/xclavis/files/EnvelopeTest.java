@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.bouncycastle.crypto.io.InvalidCipherTextIOException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class EnvelopeTest {
+
+    private File folder;
+
+    public EnvelopeTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of encryptEnvelope method, of class FileCrypter, with each
+     * recipient.
+     */
+    @Test
+    public void testRecipients() throws IOException {
+        System.out.println("encryptEnvelope");
+        List<SessionKey> recipients = Arrays.asList(new SessionKey(SessionID.SESSION_KEY_128),
+                new SessionKey(SessionID.SESSION_KEY_256), new SessionKey(SessionID.SESSION_KEY_256));
+        File source = write("source.txt", "The same archive for every partner");
+        File encrypted = encrypt(recipients, source);
+
+        ContainerHeader header = ContainerHeader.read(encrypted);
+        assertTrue(Envelope.isEnvelope(header));
+        assertEquals(recipients.get(0).getID(), header.getID());
+        List<String> ids = new ArrayList<>();
+        recipients.forEach((recipient) -> ids.add(recipient.getID()));
+        assertEquals(ids, Envelope.getIDs(header));
+        // Each recipient costs its ID and the wrapped data key
+        assertEquals(2 + 3 * 52, header.getExtension(Envelope.EXTENSION_TYPE).length);
+
+        for (SessionKey recipient : recipients) {
+            assertTrue(new FileCrypter().verify(recipient, encrypted, new Telemetry(), () -> false));
+            assertEquals(1, Manifest.read(encrypted, recipient).size());
+            File output = new File(folder, "output_" + recipient.getID());
+            output.mkdir();
+            try (EncryptedArchive archive = new EncryptedArchive(encrypted, recipient)) {
+                File result = archive.extract(archive.getEntries().get(0), output.getPath());
+                assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(result.toPath()));
+            }
+        }
+
+        try {
+            new EncryptedArchive(encrypted, new SessionKey(SessionID.SESSION_KEY_256));
+            fail("IOException expected");
+        } catch (IOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Test of open method with a modified data key, of class Envelope.
+     */
+    @Test
+    public void testModifiedDataKey() throws IOException {
+        System.out.println("open with a modified data key");
+        List<SessionKey> recipients = Arrays.asList(new SessionKey(SessionID.SESSION_KEY_256), new SessionKey(SessionID.SESSION_KEY_128));
+        File encrypted = encrypt(recipients, write("source.txt", "content"));
+        ContainerHeader header = ContainerHeader.read(encrypted);
+        try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) {
+            // The wrapped data key of the second recipient
+            long position = header.getExtensionPosition(Envelope.EXTENSION_TYPE) + 2 + 52 + 4 + 10;
+            raf.seek(position);
+            int b = raf.read();
+            raf.seek(position);
+            raf.write(b ^ 1);
+        }
+
+        header = ContainerHeader.read(encrypted);
+        assertNotNull(Envelope.open(header, recipients.get(0)));
+        try {
+            Envelope.open(header, recipients.get(1));
+            fail("InvalidCipherTextIOException expected");
+        } catch (InvalidCipherTextIOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    private File encrypt(List<SessionKey> recipients, File source) throws IOException {
+        File encrypted = new File(folder, "ENC_" + recipients.get(0).getID() + ".enc");
+        Checkpoint checkpoint = new Checkpoint(new File(encrypted.getPath() + Checkpoint.EXTENSION).toPath(), recipients.get(0),
+                Checkpoint.getFingerprint(Arrays.asList(source), encrypted.getPath()));
+        new FileCrypter().encryptEnvelope(recipients, Arrays.asList(source), encrypted.getPath(), new Telemetry(), checkpoint, () -> false);
+
+        return encrypted;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content.getBytes());
+
+        return file;
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
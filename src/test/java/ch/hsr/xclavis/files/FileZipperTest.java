@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class FileZipperTest {
+
+    private File folder;
+
+    public FileZipperTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        deleteFolder(folder);
+    }
+
+    /**
+     * Test of zipToStream and unzipFromStream methods, of class FileZipper.
+     */
+    @Test
+    public void testZipAndUnzipStream() throws IOException {
+        System.out.println("zipToStream and unzipFromStream");
+        List<File> files = createFiles();
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.zipToStream(files, baos, true);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        instance.unzipFromStream(new ByteArrayInputStream(baos.toByteArray()), output.getPath());
+        for (File file : files) {
+            byte[] expResult = Files.readAllBytes(file.toPath());
+            byte[] result = Files.readAllBytes(new File(output, file.getName()).toPath());
+            assertArrayEquals(expResult, result);
+        }
+        assertEquals(files.size(), output.list().length);
+    }
+
+    /**
+     * Test of zipToStream method with files of several chunks, of class
+     * FileZipper. The parallel and the sequential mode must produce the same
+     * valid ZIP, which is also readable through its central directory.
+     */
+    @Test
+    public void testParallelZip() throws IOException {
+        System.out.println("zipToStream parallel");
+        List<File> files = createFiles();
+        File large = new File(folder, "large.bin");
+        byte[] content = new byte[3 * 1024 * 1024 + 123];
+        Random random = new Random(1);
+        for (int i = 0; i < content.length; i++) {
+            // Mix of repeating and random data
+            content[i] = i % 3 == 0 ? (byte) random.nextInt() : (byte) (i % 251);
+        }
+        Files.write(large.toPath(), content);
+        files.add(large);
+        File empty = new File(folder, "empty.txt");
+        Files.write(empty.toPath(), new byte[0]);
+        files.add(empty);
+
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        instance.zipToStream(files, parallel, true);
+        instance.setParallel(false);
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+        instance.zipToStream(files, sequential, true);
+        assertArrayEquals(sequential.toByteArray(), parallel.toByteArray());
+
+        File zipFile = new File(folder, "test.zip");
+        Files.write(zipFile.toPath(), parallel.toByteArray());
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(files.size(), zip.size());
+            assertEquals("Created by XClavis", zip.getComment());
+            for (File file : files) {
+                ZipEntry entry = zip.getEntry(file.getName());
+                assertEquals(file.length(), entry.getSize());
+                ByteArrayOutputStream result = new ByteArrayOutputStream();
+                try (InputStream is = zip.getInputStream(entry)) {
+                    byte[] buffer = new byte[4096];
+                    int length;
+                    while ((length = is.read(buffer)) != -1) {
+                        result.write(buffer, 0, length);
+                    }
+                }
+                assertArrayEquals(Files.readAllBytes(file.toPath()), result.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Test of zipToStream method with an incompressible file, of class
+     * FileZipper. The file must be stored without compression.
+     */
+    @Test
+    public void testZipStored() throws IOException {
+        System.out.println("zipToStream stored");
+        List<File> files = createFiles();
+        File random = new File(folder, "random.bin");
+        byte[] content = new byte[1024 * 1024 + 5];
+        new Random(2).nextBytes(content);
+        Files.write(random.toPath(), content);
+        files.add(1, random);
+
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.zipToStream(files, baos, true);
+
+        File zipFile = new File(folder, "test.zip");
+        Files.write(zipFile.toPath(), baos.toByteArray());
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(ZipEntry.STORED, zip.getEntry(random.getName()).getMethod());
+            assertEquals(ZipEntry.DEFLATED, zip.getEntry("file1.txt").getMethod());
+        }
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        instance.unzipFromStream(new ByteArrayInputStream(baos.toByteArray()), output.getPath());
+        for (File file : files) {
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(new File(output, file.getName()).toPath()));
+        }
+    }
+
+    /**
+     * Test of zipToStream method without compression, of class FileZipper.
+     * All files must be stored.
+     */
+    @Test
+    public void testZipUncompressed() throws IOException {
+        System.out.println("zipToStream uncompressed");
+        List<File> files = createFiles();
+        File large = new File(folder, "large.txt");
+        byte[] content = new byte[2 * 1024 * 1024 + 77];
+        Arrays.fill(content, (byte) 'x');
+        Files.write(large.toPath(), content);
+        files.add(large);
+        files.add(new File(folder, "missing.txt"));
+
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.zipToStream(files, baos, false);
+        files.remove(files.size() - 1);
+
+        File zipFile = new File(folder, "test.zip");
+        Files.write(zipFile.toPath(), baos.toByteArray());
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            assertEquals(files.size(), zip.size());
+            for (File file : files) {
+                ZipEntry entry = zip.getEntry(file.getName());
+                assertEquals(ZipEntry.STORED, entry.getMethod());
+                assertEquals(file.length(), entry.getCompressedSize());
+            }
+        }
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        instance.unzipFromStream(new ByteArrayInputStream(baos.toByteArray()), output.getPath());
+        for (File file : files) {
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(new File(output, file.getName()).toPath()));
+        }
+    }
+
+    /**
+     * Test of unzipFromStream method with a failing stream, of class
+     * FileZipper.
+     */
+    @Test
+    public void testUnzipFailingStream() throws IOException {
+        System.out.println("unzipFromStream with failing stream");
+        List<File> files = createFiles();
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.zipToStream(files, baos, true);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        // Simulates a wrong authentication tag at the end of the stream
+        InputStream failing = new FilterInputStream(new ByteArrayInputStream(baos.toByteArray())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int result = super.read(b, off, len);
+                if (result == -1) {
+                    throw new IOException("mac check failed");
+                }
+                return result;
+            }
+        };
+        try {
+            instance.unzipFromStream(failing, output.getPath());
+            fail("IOException expected");
+        } catch (IOException ex) {
+            assertEquals("mac check failed", ex.getMessage());
+        }
+        assertEquals(0, output.list().length);
+    }
+
+    /**
+     * Test of the cancellation of zipToStream and unzipFromStream, of class
+     * FileZipper.
+     */
+    @Test
+    public void testCancellation() throws IOException {
+        System.out.println("cancellation");
+        List<File> files = createFiles();
+        FileZipper instance = new FileZipper();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        instance.zipToStream(files, baos, true);
+
+        instance.setCancellation(() -> true);
+        try {
+            instance.zipToStream(files, new ByteArrayOutputStream(), true);
+            fail("CancellationException expected");
+        } catch (CancellationException ex) {
+        }
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        // Cancels after the first buffer of the dezipped files
+        AtomicInteger checks = new AtomicInteger();
+        instance.setCancellation(() -> checks.incrementAndGet() > 1);
+        try {
+            instance.unzipFromStream(new ByteArrayInputStream(baos.toByteArray()), output.getPath());
+            fail("CancellationException expected");
+        } catch (CancellationException ex) {
+        }
+        assertEquals(0, output.list().length);
+    }
+
+    private List<File> createFiles() throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File file = new File(folder, "file" + i + ".txt");
+            byte[] content = new byte[50000 * i + 10];
+            for (int j = 0; j < content.length; j++) {
+                content[j] = (byte) ((j * i) % 97);
+            }
+            Files.write(file.toPath(), content);
+            files.add(file);
+        }
+
+        return files;
+    }
+
+    private void deleteFolder(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteFolder(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class JobSchedulerTest {
+
+    private Path folder;
+
+    public JobSchedulerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(folder);
+    }
+
+    /**
+     * Test of the states and the worker limit, of class JobScheduler.
+     */
+    @Test
+    public void testWorkerLimit() throws InterruptedException {
+        System.out.println("workerLimit");
+        JobScheduler instance = new JobScheduler(1, 0, JobScheduler.Policy.FIFO);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        Job first = instance.submit("first", () -> await(blocker), 10, folder);
+        first.addStateListener((state) -> {
+            if (state == Job.State.DONE) {
+                done.countDown();
+            }
+        });
+        Job second = instance.submit("second", () -> {
+        }, 10, folder);
+        second.addStateListener((state) -> {
+            if (state == Job.State.DONE) {
+                done.countDown();
+            }
+        });
+
+        assertEquals(Job.State.RUNNING, first.getState());
+        assertEquals(Job.State.QUEUED, second.getState());
+        assertEquals(1, instance.getRunningJobs());
+        assertEquals(Collections.singletonList(second), instance.getQueuedJobs());
+
+        blocker.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(Job.State.DONE, first.getState());
+        assertEquals(Job.State.DONE, second.getState());
+        assertTrue(first.getEndTime() >= first.getStartTime());
+    }
+
+    /**
+     * Test of the cancel method, of class Job.
+     */
+    @Test
+    public void testCancel() throws InterruptedException {
+        System.out.println("cancel");
+        JobScheduler instance = new JobScheduler(1, 0, JobScheduler.Policy.FIFO);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Job first = instance.submit("first", () -> await(blocker), 10, folder);
+        first.addStateListener((state) -> {
+            if (state == Job.State.DONE) {
+                done.countDown();
+            }
+        });
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        Job second = instance.submit("second", () -> started.add("second"), 10, folder);
+
+        second.cancel();
+        assertTrue(second.isCancelled());
+        assertEquals(Job.State.DONE, second.getState());
+        assertTrue(instance.getQueuedJobs().isEmpty());
+
+        // A running job is only marked, its task has to stop by itself
+        first.cancel();
+        assertTrue(first.isCancelled());
+        assertEquals(Job.State.RUNNING, first.getState());
+        blocker.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(0, instance.getRunningJobs());
+        assertTrue(started.isEmpty());
+    }
+
+    /**
+     * Test of the smallest first policy, of class JobScheduler.
+     */
+    @Test
+    public void testSmallestFirst() throws InterruptedException {
+        System.out.println("smallestFirst");
+        JobScheduler instance = new JobScheduler(1, 0, JobScheduler.Policy.SMALLEST_FIRST);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        instance.submit("blocker", () -> await(blocker), 0, folder);
+        long[] sizes = {300, 100, 200};
+        for (long size : sizes) {
+            instance.submit("job" + size, () -> order.add("job" + size), size, folder)
+                    .addStateListener((state) -> {
+                        if (state == Job.State.DONE) {
+                            done.countDown();
+                        }
+                    });
+        }
+        assertEquals(3, instance.getQueuedJobs().size());
+        assertEquals("job100", instance.getQueuedJobs().get(0).getName());
+
+        blocker.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(3, order.size());
+        assertEquals("job100", order.get(0));
+        assertEquals("job200", order.get(1));
+        assertEquals("job300", order.get(2));
+    }
+
+    /**
+     * Test of the limit of jobs per device, of class JobScheduler.
+     */
+    @Test
+    public void testDeviceLimit() throws InterruptedException {
+        System.out.println("deviceLimit");
+        JobScheduler instance = new JobScheduler(4, 1, JobScheduler.Policy.FIFO);
+        CountDownLatch blocker = new CountDownLatch(1);
+        Job first = instance.submit("first", () -> await(blocker), 10, folder);
+        Job second = instance.submit("second", () -> {
+        }, 10, folder.resolve("missing.enc"));
+
+        // Both jobs use the same device, even if the file does not exist yet
+        assertEquals(first.getDevices(), second.getDevices());
+        assertEquals(Job.State.RUNNING, first.getState());
+        assertEquals(Job.State.QUEUED, second.getState());
+        blocker.countDown();
+        for (int i = 0; i < 100 && second.getState() != Job.State.DONE; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(Job.State.DONE, second.getState());
+    }
+
+    /**
+     * Test of toPolicy method, of class JobScheduler.
+     */
+    @Test
+    public void testToPolicy() {
+        System.out.println("toPolicy");
+        assertEquals(JobScheduler.Policy.SMALLEST_FIRST, JobScheduler.toPolicy("smallest_first"));
+        assertEquals(JobScheduler.Policy.FIFO, JobScheduler.toPolicy("fifo"));
+        assertEquals(JobScheduler.Policy.FIFO, JobScheduler.toPolicy("unknown"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
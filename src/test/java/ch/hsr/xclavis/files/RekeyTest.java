@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class RekeyTest {
+
+    private File folder;
+
+    public RekeyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of rekey method, of class Envelope.
+     */
+    @Test
+    public void testRekeyFile() throws IOException {
+        System.out.println("rekey");
+        SessionKey oldKey = new SessionKey(SessionID.SESSION_KEY_256);
+        SessionKey otherKey = new SessionKey(SessionID.SESSION_KEY_128);
+        SessionKey newKey = new SessionKey(SessionID.SESSION_KEY_256);
+        File source = write("source.txt", "Retire the old key");
+        File encrypted = encrypt(Arrays.asList(oldKey, otherKey), source, "file.enc");
+        int headerLength = ContainerHeader.read(encrypted).getLength();
+        byte[] before = Files.readAllBytes(encrypted.toPath());
+
+        Envelope.rekey(encrypted, oldKey, newKey);
+        assertFalse(Files.exists(Envelope.getJournal(encrypted)));
+        byte[] after = Files.readAllBytes(encrypted.toPath());
+        // The payload is not touched
+        assertEquals(before.length, after.length);
+        assertArrayEquals(Arrays.copyOfRange(before, headerLength, before.length), Arrays.copyOfRange(after, headerLength, after.length));
+
+        ContainerHeader header = ContainerHeader.read(encrypted);
+        assertEquals(newKey.getID(), header.getID());
+        assertEquals(Arrays.asList(newKey.getID(), otherKey.getID()), Envelope.getIDs(header));
+        for (SessionKey sessionKey : Arrays.asList(newKey, otherKey)) {
+            assertTrue(new FileCrypter().verify(sessionKey, encrypted, new Telemetry(), () -> false));
+            File output = new File(folder, "output_" + sessionKey.getID());
+            output.mkdir();
+            try (EncryptedArchive archive = new EncryptedArchive(encrypted, sessionKey)) {
+                File result = archive.extract(archive.getEntries().get(0), output.getPath());
+                assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(result.toPath()));
+            }
+        }
+
+        try {
+            new EncryptedArchive(encrypted, oldKey);
+            fail("IOException expected");
+        } catch (IOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+        try {
+            Envelope.rekey(encrypted, otherKey, newKey);
+            fail("IOException expected");
+        } catch (IOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Test of rekey method, of class Rekey, with a folder.
+     */
+    @Test
+    public void testRekeyFolder() throws IOException {
+        System.out.println("rekey folder");
+        SessionKey oldKey = new SessionKey(SessionID.SESSION_KEY_128);
+        SessionKey otherKey = new SessionKey(SessionID.SESSION_KEY_128);
+        SessionKey newKey = new SessionKey(SessionID.SESSION_KEY_256);
+        File source = write("source.txt", "content");
+        File sub = new File(folder, "sub");
+        sub.mkdir();
+        File first = encrypt(Arrays.asList(otherKey, oldKey), source, "first.enc");
+        File second = encrypt(Arrays.asList(oldKey), source, "sub" + File.separator + "second.enc");
+        File other = encrypt(Arrays.asList(otherKey), source, "other.enc");
+
+        Rekey rekey = new Rekey(oldKey, newKey);
+        Rekey.Report report = rekey.rekey(folder.toPath());
+        assertEquals(3, report.getEntries().size());
+        assertEquals(2, report.count(Rekey.Result.REKEYED));
+        assertEquals(1, report.count(Rekey.Result.NOT_RECIPIENT));
+        assertEquals(Arrays.asList(otherKey.getID(), newKey.getID()), Envelope.getIDs(ContainerHeader.read(first)));
+        assertEquals(Arrays.asList(newKey.getID()), Envelope.getIDs(ContainerHeader.read(second)));
+        assertEquals(Arrays.asList(otherKey.getID()), Envelope.getIDs(ContainerHeader.read(other)));
+        assertTrue(new FileCrypter().verify(newKey, second, new Telemetry(), () -> false));
+
+        // A second run finds no more files of the old key
+        assertEquals(3, rekey.rekey(folder.toPath()).count(Rekey.Result.NOT_RECIPIENT));
+    }
+
+    /**
+     * Test of rekey method, of class Rekey, with a file, whose previous
+     * rekey was interrupted while the header was written.
+     */
+    @Test
+    public void testInterruptedRekey() throws IOException {
+        System.out.println("interrupted rekey");
+        SessionKey oldKey = new SessionKey(SessionID.SESSION_KEY_256);
+        SessionKey newKey = new SessionKey(SessionID.SESSION_KEY_128);
+        File source = write("source.txt", "Survive a crash");
+        File encrypted = encrypt(Arrays.asList(oldKey), source, "file.enc");
+        int headerLength = ContainerHeader.read(encrypted).getLength();
+        byte[] before = Files.readAllBytes(encrypted.toPath());
+
+        // The journal was written, but the new header only partly
+        Files.write(Envelope.getJournal(encrypted), Arrays.copyOf(before, headerLength));
+        byte[] torn = before.clone();
+        byte[] rekeyed = Envelope.rekey(ContainerHeader.read(encrypted), oldKey, newKey).toBytes();
+        System.arraycopy(rekeyed, 0, torn, 0, headerLength / 2);
+        Arrays.fill(torn, headerLength / 2, headerLength, (byte) 0);
+        Files.write(encrypted.toPath(), torn);
+
+        Rekey.Entry entry = new Rekey(oldKey, newKey).rekey(encrypted);
+        System.out.println(entry);
+        assertEquals(Rekey.Result.REKEYED, entry.getResult());
+        assertTrue(entry.toString().contains("restored"));
+        assertFalse(Files.exists(Envelope.getJournal(encrypted)));
+        assertEquals(Arrays.asList(newKey.getID()), Envelope.getIDs(ContainerHeader.read(encrypted)));
+        assertTrue(new FileCrypter().verify(newKey, encrypted, new Telemetry(), () -> false));
+
+        // Without a rekey, the old header is restored as it was
+        Files.write(Envelope.getJournal(encrypted), Arrays.copyOf(before, headerLength));
+        assertTrue(Envelope.recover(encrypted));
+        assertArrayEquals(before, Files.readAllBytes(encrypted.toPath()));
+        assertFalse(Envelope.recover(encrypted));
+    }
+
+    private File encrypt(List<SessionKey> recipients, File source, String name) throws IOException {
+        File encrypted = new File(folder, name);
+        Checkpoint checkpoint = new Checkpoint(new File(encrypted.getPath() + Checkpoint.EXTENSION).toPath(), recipients.get(0),
+                Checkpoint.getFingerprint(Arrays.asList(source), encrypted.getPath()));
+        new FileCrypter().encryptEnvelope(recipients, Arrays.asList(source), encrypted.getPath(), new Telemetry(), checkpoint, () -> false);
+
+        return encrypted;
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder, name);
+        Files.write(file.toPath(), content.getBytes());
+
+        return file;
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class SnapshotTest {
+
+    private File folder;
+
+    public SnapshotTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of encryptIncremental and restore methods, of class FileCrypter.
+     */
+    @Test
+    public void testIncrementalChain() throws IOException {
+        System.out.println("encryptIncremental and restore");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        File source = new File(folder, "source");
+        source.mkdir();
+        File a = write(source, "a.txt", "unchanged content");
+        File b = write(source, "b.txt", "first content");
+        File c = write(source, "c.txt", "deleted later");
+        File first = new File(folder, "first.enc");
+        Snapshot snapshot = encrypt(sessionKey, Arrays.asList(a, b, c), null, first);
+        assertTrue(snapshot.isFull());
+        assertEquals(3, snapshot.getChanged(Arrays.asList(a, b, c)).size());
+
+        // Changed, touched, deleted and new files
+        write(source, "b.txt", "second, longer content");
+        assertTrue(a.setLastModified(a.lastModified() + 60000));
+        assertTrue(c.delete());
+        File d = write(source, "d.txt", "new content");
+        File second = new File(folder, "second.enc");
+        List<File> files = Arrays.asList(a, b, d);
+        snapshot = encrypt(sessionKey, files, first, second);
+        assertFalse(snapshot.isFull());
+        assertEquals(Arrays.asList(b, d), snapshot.getChanged(files));
+        assertEquals(Collections.singletonList("c.txt"), snapshot.getDeleted());
+        assertEquals(a.lastModified(), snapshot.getEntry("a.txt").getTime());
+        try (EncryptedArchive archive = new EncryptedArchive(second, sessionKey)) {
+            assertEquals(2, archive.getEntries().size());
+        }
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        new FileCrypter().restore(sessionKey, Arrays.asList(first, second), output.getPath(), new Telemetry(), () -> false);
+        List<String> names = Arrays.asList(output.list());
+        Collections.sort(names);
+        assertEquals(Arrays.asList("a.txt", "b.txt", "d.txt"), names);
+        for (File file : files) {
+            assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(new File(output, file.getName()).toPath()));
+        }
+    }
+
+    /**
+     * Test of restore method with an incomplete chain, of class FileCrypter.
+     */
+    @Test
+    public void testIncompleteChain() throws IOException {
+        System.out.println("restore incomplete chain");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        File a = write(folder, "a.txt", "content");
+        File first = new File(folder, "first.enc");
+        encrypt(sessionKey, Collections.singletonList(a), null, first);
+        write(folder, "a.txt", "other content");
+        File second = new File(folder, "second.enc");
+        encrypt(sessionKey, Collections.singletonList(a), first, second);
+        assertNotEquals(ContainerHeader.read(first).getIV(), ContainerHeader.read(second).getIV());
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        try {
+            new FileCrypter().restore(sessionKey, Collections.singletonList(second), output.getPath(), new Telemetry(), () -> false);
+            fail("IOException expected");
+        } catch (IOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+        assertEquals(0, output.list().length);
+    }
+
+    /**
+     * Test of restore method with existing files in the output, of class
+     * FileCrypter.
+     */
+    @Test
+    public void testRestoreExisting() throws IOException {
+        System.out.println("restore existing");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        File a = write(folder, "a.txt", "content of a");
+        File b = write(folder, "b.txt", "content of b");
+        File first = new File(folder, "first.enc");
+        encrypt(sessionKey, Arrays.asList(a, b), null, first);
+
+        File output = new File(folder, "output");
+        output.mkdir();
+        write(output, "a.txt", "kept");
+        new FileCrypter().restore(sessionKey, Collections.singletonList(first), output.getPath(), new Telemetry(), () -> false);
+        assertEquals("kept", new String(Files.readAllBytes(new File(output, "a.txt").toPath())));
+        assertEquals("content of b", new String(Files.readAllBytes(new File(output, "b.txt").toPath())));
+    }
+
+    /**
+     * Test of create method with two files of the same name, of class
+     * Snapshot.
+     */
+    @Test
+    public void testSameNames() throws IOException {
+        System.out.println("create same names");
+        File one = new File(folder, "one");
+        File two = new File(folder, "two");
+        one.mkdir();
+        two.mkdir();
+        List<File> files = Arrays.asList(write(one, "a.txt", "first"), write(two, "a.txt", "second"));
+        try {
+            Snapshot.create(files, null, null);
+            fail("IOException expected");
+        } catch (IOException ex) {
+            System.out.println("Detected: " + ex.getMessage());
+        }
+    }
+
+    private Snapshot encrypt(SessionKey sessionKey, List<File> files, File previous, File output) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(new File(output.getPath() + Checkpoint.EXTENSION).toPath(), sessionKey,
+                Checkpoint.getFingerprint(files, output.getPath()));
+
+        return new FileCrypter().encryptIncremental(sessionKey, new ArrayList<>(files), previous, output.getPath(), new Telemetry(), checkpoint, () -> false);
+    }
+
+    private File write(File parent, String name, String content) throws IOException {
+        File file = new File(parent, name);
+        Files.write(file.toPath(), content.getBytes());
+
+        return file;
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.helpers.Telemetry;
+import ch.hsr.xclavis.helpers.VolumeInputStream;
+import ch.hsr.xclavis.helpers.VolumeOutputStream;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class VolumesTest {
+
+    private File folder;
+
+    public VolumesTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of VolumeOutputStream and VolumeInputStream.
+     */
+    @Test
+    public void testVolumeStreams() throws IOException {
+        System.out.println("volumeStreams");
+        byte[] data = new byte[100000];
+        new Random(24).nextBytes(data);
+        VolumeOutputStream output = new VolumeOutputStream((index) -> folder.toPath().resolve("test.enc." + (index + 1)), 30000);
+        try (OutputStream os = output) {
+            os.write(data, 0, 10);
+            os.write(data, 10, data.length - 10);
+        }
+        List<Path> volumes = output.getVolumes();
+        assertEquals(4, volumes.size());
+        assertEquals(30000, Files.size(volumes.get(0)));
+        assertEquals(10000, Files.size(volumes.get(3)));
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = new VolumeInputStream(volumes)) {
+            byte[] buffer = new byte[7000];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                result.write(buffer, 0, length);
+            }
+        }
+        assertArrayEquals(data, result.toByteArray());
+    }
+
+    /**
+     * Test of encryptVolumes method, of class FileCrypter, with the volumes
+     * in two folders.
+     */
+    @Test
+    public void testEncryptVolumes() throws IOException {
+        System.out.println("encryptVolumes");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        byte[] data = new byte[(int) (2.5 * Volumes.MIN_SIZE)];
+        new Random(42).nextBytes(data);
+        File source = new File(folder, "source.bin");
+        Files.write(source.toPath(), data);
+        File first = new File(folder, "first");
+        File second = new File(folder, "second");
+        first.mkdir();
+        second.mkdir();
+        String output = new File(first, "ENC_" + sessionKey.getID() + ".enc").getPath();
+
+        FileCrypter crypter = new FileCrypter();
+        crypter.setVolumes(Volumes.MIN_SIZE, Arrays.asList(first.toPath(), second.toPath()));
+        List<File> volumes = crypter.encryptVolumes(sessionKey, Arrays.asList(source), output, new Telemetry(), () -> false);
+        assertEquals(3, volumes.size());
+        assertEquals(new File(second, "ENC_" + sessionKey.getID() + ".enc.002"), volumes.get(1));
+        assertTrue(Volumes.isFirstVolume(volumes.get(0)));
+        assertFalse(Volumes.isFirstVolume(volumes.get(1)));
+        assertTrue(FileHandler.isEncryptedFile(volumes.get(0)));
+        assertEquals(Volumes.MIN_SIZE, volumes.get(0).length());
+
+        // The manifest is in the first volume, the further ones are found in the folders
+        assertEquals(1, Manifest.read(volumes.get(0), sessionKey).size());
+        assertEquals(volumes, Volumes.find(volumes.get(0), Arrays.asList(second.toPath())));
+        assertTrue(crypter.verify(sessionKey, volumes.get(0), new Telemetry(), () -> false));
+        File extracted = new File(folder, "extracted");
+        extracted.mkdir();
+        try (EncryptedArchive archive = new EncryptedArchive(volumes, sessionKey)) {
+            File result = archive.extract(archive.getEntries().get(0), extracted.getPath());
+            assertArrayEquals(data, Files.readAllBytes(result.toPath()));
+        }
+
+        // Without the last volume the data is truncated
+        assertTrue(volumes.get(2).delete());
+        assertFalse(crypter.verify(sessionKey, volumes.get(0), new Telemetry(), () -> false));
+    }
+
+    /**
+     * Test of encryptVolumes method, of class FileCrypter, with a
+     * cancellation.
+     */
+    @Test
+    public void testCancelledVolumes() throws IOException {
+        System.out.println("encryptVolumes cancelled");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_128);
+        byte[] data = new byte[(int) (1.5 * Volumes.MIN_SIZE)];
+        new Random(7).nextBytes(data);
+        File source = new File(folder, "source.bin");
+        Files.write(source.toPath(), data);
+        String output = new File(folder, "ENC_" + sessionKey.getID() + ".enc").getPath();
+
+        FileCrypter crypter = new FileCrypter();
+        crypter.setVolumes(Volumes.MIN_SIZE, Collections.emptyList());
+        try {
+            crypter.encryptVolumes(sessionKey, Arrays.asList(source), output, new Telemetry(), () -> true);
+            fail("CancellationException expected");
+        } catch (CancellationException ex) {
+            System.out.println("Cancelled: " + ex.getMessage());
+        }
+        assertEquals(Arrays.asList("source.bin"), Arrays.asList(folder.list()));
+    }
+
+    /**
+     * Test of encryptVolumes method, of class FileCrypter, with the volumes
+     * of an earlier encryption to the same output.
+     */
+    @Test
+    public void testExistingVolumes() throws IOException {
+        System.out.println("encryptVolumes existing");
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        byte[] data = new byte[(int) (2.5 * Volumes.MIN_SIZE)];
+        new Random(11).nextBytes(data);
+        File source = new File(folder, "source.bin");
+        Files.write(source.toPath(), data);
+        String output = new File(folder, "ENC_" + sessionKey.getID() + ".enc").getPath();
+        FileCrypter crypter = new FileCrypter();
+        crypter.setVolumes(Volumes.MIN_SIZE, Collections.emptyList());
+        List<File> volumes = crypter.encryptVolumes(sessionKey, Arrays.asList(source), output, new Telemetry(), () -> false);
+        assertEquals(3, volumes.size());
+        byte[] first = Files.readAllBytes(volumes.get(0).toPath());
+
+        // The existing volumes are not overwritten
+        try {
+            crypter.encryptVolumes(sessionKey, Arrays.asList(source), output, new Telemetry(), () -> false);
+            fail("FileAlreadyExistsException expected");
+        } catch (FileAlreadyExistsException ex) {
+            System.out.println("Exists: " + ex.getMessage());
+        }
+        assertArrayEquals(first, Files.readAllBytes(volumes.get(0).toPath()));
+        assertTrue(crypter.verify(sessionKey, volumes.get(0), new Telemetry(), () -> false));
+
+        // A shorter encryption fails, if an old volume would follow its last one
+        assertTrue(volumes.get(0).delete());
+        assertTrue(volumes.get(1).delete());
+        Files.write(source.toPath(), Arrays.copyOf(data, (int) (1.5 * Volumes.MIN_SIZE)));
+        try {
+            crypter.encryptVolumes(sessionKey, Arrays.asList(source), output, new Telemetry(), () -> false);
+            fail("FileAlreadyExistsException expected");
+        } catch (FileAlreadyExistsException ex) {
+            assertEquals(volumes.get(2).getPath(), ex.getFile());
+        }
+        assertFalse(volumes.get(0).exists());
+        assertFalse(volumes.get(1).exists());
+        assertTrue(volumes.get(2).exists());
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
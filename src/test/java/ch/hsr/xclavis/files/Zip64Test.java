@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.files;
+
+import ch.hsr.xclavis.crypto.SegmentedAESGCM;
+import ch.hsr.xclavis.keys.SessionID;
+import ch.hsr.xclavis.keys.SessionKey;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * The benchmarks only run with -Dxclavis.benchmark=true, because they write
+ * 100,000 files and several files of more than 4 GB.
+ *
+ * @author Gian
+ */
+public class Zip64Test {
+
+    private final static long LARGE_SIZE = 4L * 1024 * 1024 * 1024 + 1024 * 1024;
+    private final static int MANY_FILES = 100000;
+    // Just more than the 65,535 entries of an end record without ZIP64
+    private final static int ZIP64_FILES = 66000;
+    private final static byte[] ZEROS = new byte[1024 * 1024];
+    private File folder;
+
+    public Zip64Test() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("xclavis").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(folder);
+    }
+
+    /**
+     * Test of finish method, of class ZipWriter, with more than 65,535
+     * entries.
+     */
+    @Test
+    public void testManyEntries() throws IOException {
+        System.out.println("finish with 70000 entries");
+        File zip = new File(folder, "many.zip");
+        ZipWriter writer;
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(zip))) {
+            writer = new ZipWriter(os);
+            for (int i = 0; i < 70000; i++) {
+                byte[] content = String.valueOf(i).getBytes(StandardCharsets.US_ASCII);
+                putStored(writer, String.format("file%05d.txt", i), content);
+            }
+            writer.finish();
+        }
+
+        // The end record only has room for 65,535 entries, the real count is in the ZIP64 end record
+        try (RandomAccessFile raf = new RandomAccessFile(zip, "r")) {
+            raf.seek(zip.length() - 22 + 8);
+            assertEquals(0xFFFF, Short.toUnsignedInt(Short.reverseBytes(raf.readShort())));
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(70000, zipFile.size());
+            try (InputStream is = zipFile.getInputStream(zipFile.getEntry("file69999.txt"))) {
+                assertEquals("69999", new String(readAll(is), StandardCharsets.US_ASCII));
+            }
+        }
+        int count = 0;
+        try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zip.toPath()))) {
+            while (zis.getNextEntry() != null) {
+                count++;
+            }
+        }
+        assertEquals(70000, count);
+        assertEntries(writer.getEntries(), readCentralDirectory(zip));
+    }
+
+    /**
+     * Test of finish method, of class ZipWriter, with an entry of more than
+     * 4 GB. The entry only consists of zeros, which are left as a hole in a
+     * sparse file.
+     */
+    @Test
+    public void testLargeEntry() throws IOException {
+        System.out.println("finish with an entry of more than 4 GB");
+        Assume.assumeTrue(folder.getUsableSpace() > 2 * LARGE_SIZE);
+        File zip = new File(folder, "large.zip");
+        byte[] after = "Behind the large file".getBytes(StandardCharsets.US_ASCII);
+        ZipWriter writer;
+        try (FileChannel channel = FileChannel.open(zip.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writer = new ZipWriter(new SparseOutputStream(channel));
+            putStored(writer, "before.txt", "Before the large file".getBytes(StandardCharsets.US_ASCII));
+            CRC32 crc = new CRC32();
+            for (long i = 0; i < LARGE_SIZE; i += ZEROS.length) {
+                crc.update(ZEROS);
+            }
+            ZipEntry large = new ZipEntry("large.bin");
+            large.setMethod(ZipEntry.STORED);
+            large.setSize(LARGE_SIZE);
+            large.setCrc(crc.getValue());
+            writer.putNextEntry(large);
+            for (long i = 0; i < LARGE_SIZE; i += ZEROS.length) {
+                writer.write(ZEROS, 0, ZEROS.length);
+            }
+            // A DEFLATED entry with a data descriptor behind the 4 GB
+            ZipEntry deflated = new ZipEntry("after.txt");
+            deflated.setMethod(ZipEntry.DEFLATED);
+            writer.putNextEntry(deflated);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflater.setInput(after);
+            deflater.finish();
+            byte[] buffer = new byte[1024];
+            int length = deflater.deflate(buffer);
+            deflater.end();
+            writer.write(buffer, 0, length);
+            crc.reset();
+            crc.update(after);
+            deflated.setCrc(crc.getValue());
+            deflated.setSize(after.length);
+            writer.finish();
+        }
+
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(LARGE_SIZE, zipFile.getEntry("large.bin").getSize());
+            try (InputStream is = zipFile.getInputStream(zipFile.getEntry("after.txt"))) {
+                assertArrayEquals(after, readAll(is));
+            }
+        }
+        List<ArchiveEntry> entries = readCentralDirectory(zip);
+        assertEntries(writer.getEntries(), entries);
+        assertEquals(LARGE_SIZE, entries.get(1).getSize());
+        assertTrue(entries.get(2).getOffset() > ZipWriter.ZIP64_MAGIC);
+    }
+
+    /**
+     * Test of the encryption, listing and decryption of more than 65,535
+     * small files.
+     */
+    @Test
+    public void testManyFiles() throws IOException {
+        System.out.println("encrypt, list and decrypt " + ZIP64_FILES + " files");
+        encryptListDecrypt(ZIP64_FILES);
+    }
+
+    /**
+     * Benchmark of the encryption, listing and decryption of 100,000 small
+     * files.
+     */
+    @Test
+    public void benchmarkManyFiles() throws IOException {
+        System.out.println("benchmark with " + MANY_FILES + " files");
+        Assume.assumeTrue("Benchmarks run with -Dxclavis.benchmark=true", Boolean.getBoolean("xclavis.benchmark"));
+        encryptListDecrypt(MANY_FILES);
+    }
+
+    /**
+     * Benchmark of the encryption and decryption of a file of more than
+     * 4 GB, once deflated and once stored.
+     */
+    @Test
+    public void benchmarkLargeFile() throws IOException {
+        System.out.println("benchmark with a file of more than 4 GB");
+        Assume.assumeTrue("Benchmarks run with -Dxclavis.benchmark=true", Boolean.getBoolean("xclavis.benchmark"));
+        Assume.assumeTrue(folder.getUsableSpace() > 3 * LARGE_SIZE);
+        File large = new File(folder, "large.bin");
+        byte[] tail = "The end of the large file".getBytes(StandardCharsets.US_ASCII);
+        try (RandomAccessFile raf = new RandomAccessFile(large, "rw")) {
+            raf.setLength(LARGE_SIZE);
+            raf.seek(LARGE_SIZE - tail.length);
+            raf.write(tail);
+        }
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+
+        for (boolean compression : Arrays.asList(true, false)) {
+            long start = System.nanoTime();
+            File encrypted = encrypt(sessionKey, Arrays.asList(large), compression);
+            report("Encryption, compression " + compression, start, LARGE_SIZE / (1024.0 * 1024), "MB");
+            try (EncryptedArchive archive = new EncryptedArchive(encrypted, sessionKey)) {
+                assertEquals(LARGE_SIZE, archive.getCentralDirectory().get(0).getSize());
+            }
+            start = System.nanoTime();
+            File output = decrypt(sessionKey, encrypted);
+            report("Decryption, compression " + compression, start, LARGE_SIZE / (1024.0 * 1024), "MB");
+            File result = new File(output, "large.bin");
+            assertEquals(LARGE_SIZE, result.length());
+            try (RandomAccessFile raf = new RandomAccessFile(result, "r")) {
+                byte[] end = new byte[tail.length];
+                raf.seek(LARGE_SIZE - tail.length);
+                raf.readFully(end);
+                assertArrayEquals(tail, end);
+            }
+            delete(output);
+            encrypted.delete();
+        }
+    }
+
+    private void encryptListDecrypt(int count) throws IOException {
+        File input = new File(folder, "input");
+        input.mkdir();
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File file = new File(input, String.format("file%06d.txt", i));
+            Files.write(file.toPath(), ("Content of the file " + i).getBytes(StandardCharsets.US_ASCII));
+            files.add(file);
+        }
+        SessionKey sessionKey = new SessionKey(SessionID.SESSION_KEY_256);
+        String last = String.format("file%06d.txt", count - 1);
+
+        long start = System.nanoTime();
+        File encrypted = encrypt(sessionKey, files, true);
+        report("Encryption", start, count, "files");
+        start = System.nanoTime();
+        try (EncryptedArchive archive = new EncryptedArchive(encrypted, sessionKey)) {
+            // The count is only in the ZIP64 end record
+            List<ArchiveEntry> entries = archive.getCentralDirectory();
+            assertEquals(count, entries.size());
+            assertEquals(last, entries.get(count - 1).getName());
+        }
+        report("Listing", start, count, "files");
+        start = System.nanoTime();
+        File output = decrypt(sessionKey, encrypted);
+        report("Decryption", start, count, "files");
+        assertEquals(count, output.list().length);
+        assertEquals("Content of the file " + (count - 1), new String(Files.readAllBytes(new File(output, last).toPath()), StandardCharsets.US_ASCII));
+    }
+
+    private File encrypt(SessionKey sessionKey, List<File> files, boolean compression) throws IOException {
+        File encrypted = new File(folder, "ENC_" + sessionKey.getID() + ".enc");
+        ContainerHeader header = new ContainerHeader(sessionKey.getID(), sessionKey.getIV(), ContainerHeader.DEFAULT_SEGMENT_SIZE);
+        SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+        OutputStream fos = new BufferedOutputStream(new FileOutputStream(encrypted), 1024 * 1024);
+        header.write(fos);
+        try (OutputStream os = segmentedAES.getEncryptionStream(fos)) {
+            new FileZipper().zipToStream(files, os, compression);
+        }
+
+        return encrypted;
+    }
+
+    private File decrypt(SessionKey sessionKey, File encrypted) throws IOException {
+        File output = new File(folder, "output");
+        output.mkdir();
+        try (InputStream is = Files.newInputStream(encrypted.toPath())) {
+            ContainerHeader header = ContainerHeader.read(is);
+            SegmentedAESGCM segmentedAES = new SegmentedAESGCM(sessionKey.getKey(), header.getIV(), header.getSegmentSize(), header.getAssociatedData());
+            new FileZipper().unzipFromStream(segmentedAES.getDecryptionStream(is), output.getPath());
+        }
+
+        return output;
+    }
+
+    private static void report(String name, long start, double count, String unit) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("%s: %.1f s, %.0f %s/s", name, seconds, count / seconds, unit));
+    }
+
+    private static void putStored(ZipWriter writer, String name, byte[] content) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        entry.setCrc(crc.getValue());
+        writer.putNextEntry(entry);
+        writer.write(content, 0, content.length);
+    }
+
+    private static List<ArchiveEntry> readCentralDirectory(File zip) throws IOException {
+        try (FileChannel channel = FileChannel.open(zip.toPath(), StandardOpenOption.READ)) {
+            return EncryptedArchive.readCentralDirectory((position, length) -> {
+                ByteBuffer buffer = ByteBuffer.allocate(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) == -1) {
+                        throw new IOException("Unexpected end of the ZIP");
+                    }
+                }
+
+                return buffer.order(ByteOrder.LITTLE_ENDIAN);
+            }, channel.size());
+        }
+    }
+
+    private static void assertEntries(List<ArchiveEntry> expected, List<ArchiveEntry> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getSize(), actual.get(i).getSize());
+            assertEquals(expected.get(i).getCompressedSize(), actual.get(i).getCompressedSize());
+            assertEquals(expected.get(i).getCrc(), actual.get(i).getCrc());
+            assertEquals(expected.get(i).getOffset(), actual.get(i).getOffset());
+        }
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = is.read(buffer)) != -1) {
+            baos.write(buffer, 0, length);
+        }
+
+        return baos.toByteArray();
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Writes to a file, but leaves a hole for each block of zeros, so a
+     * large entry takes no space on the disk.
+     */
+    private static class SparseOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private long position = 0;
+
+        SparseOutputStream(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (b != ZEROS) {
+                ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position() - off);
+                }
+            }
+            position += len;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class AsyncStreamTest {
+
+    public AsyncStreamTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of the write-behind, of class AsyncOutputStream.
+     */
+    @Test
+    public void testAsyncOutputStream() throws IOException {
+        System.out.println("asyncOutputStream");
+        byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream os = new AsyncOutputStream(baos, 4096, 2)) {
+            os.write(data, 0, 10);
+            os.write(data[10]);
+            os.write(data, 11, data.length - 11);
+        }
+        assertArrayEquals(data, baos.toByteArray());
+
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Disk full");
+            }
+        };
+        try {
+            try (OutputStream os = new AsyncOutputStream(failing, 4096, 2)) {
+                os.write(data);
+            }
+            fail("The error of the writer was not thrown");
+        } catch (IOException ex) {
+            assertEquals("Disk full", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test of the actions on the writer, of class AsyncOutputStream.
+     */
+    @Test
+    public void testExecuteAndSync() throws IOException {
+        System.out.println("execute and sync");
+        byte[] data = new byte[10000];
+        new Random(2).nextBytes(data);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<Integer> sizes = new ArrayList<>();
+        try (AsyncOutputStream os = new AsyncOutputStream(baos, 4096, 2)) {
+            // The actions see exactly the bytes written before them
+            for (int i = 0; i < 5; i++) {
+                os.write(data, i * 2000, 2000);
+                os.execute(() -> sizes.add(baos.size()));
+            }
+            os.sync();
+            assertEquals(data.length, baos.size());
+            assertEquals(Arrays.asList(2000, 4000, 6000, 8000, 10000), sizes);
+        }
+        assertArrayEquals(data, baos.toByteArray());
+
+        try {
+            try (AsyncOutputStream os = new AsyncOutputStream(baos, 4096, 2)) {
+                os.execute(() -> {
+                    throw new IOException("No file");
+                });
+                os.sync();
+            }
+            fail("The error of the action was not thrown");
+        } catch (IOException ex) {
+            assertEquals("No file", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test of an unchecked error of the writer, of class AsyncOutputStream.
+     */
+    @Test(timeout = 10000)
+    public void testUncheckedError() throws IOException {
+        System.out.println("unchecked error");
+        byte[] data = new byte[100000];
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new IllegalStateException("Broken stream");
+            }
+        };
+        // More blocks than the depth of the queue, so the caller would wait for the writer
+        try {
+            try (OutputStream os = new AsyncOutputStream(failing, 1024, 2)) {
+                os.write(data);
+            }
+            fail("The error of the writer was not thrown");
+        } catch (IOException ex) {
+            assertEquals("Broken stream", ex.getCause().getMessage());
+        }
+
+        try {
+            try (AsyncOutputStream os = new AsyncOutputStream(new ByteArrayOutputStream(), 1024, 2)) {
+                os.execute(() -> {
+                    throw new IllegalArgumentException("Bad path");
+                });
+                os.write(data);
+            }
+            fail("The error of the action was not thrown");
+        } catch (IOException ex) {
+            assertEquals("Bad path", ex.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Test of the read-ahead, of class AsyncInputStream.
+     */
+    @Test
+    public void testAsyncInputStream() throws IOException {
+        System.out.println("asyncInputStream");
+        byte[] data = new byte[100000];
+        new Random(2).nextBytes(data);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new AsyncInputStream(new ByteArrayInputStream(data), 4096, 2)) {
+            baos.write(is.read());
+            byte[] buffer = new byte[3000];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                baos.write(buffer, 0, length);
+            }
+            assertEquals(-1, is.read());
+        }
+        assertArrayEquals(data, baos.toByteArray());
+
+        // Closing before the end stops the reader
+        try (InputStream is = new AsyncInputStream(new ByteArrayInputStream(data), 1024, 1)) {
+            assertEquals(data[0] & 0xFF, is.read());
+        }
+
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Bad sector");
+            }
+        };
+        try (InputStream is = new AsyncInputStream(failing, 4096, 2)) {
+            is.read();
+            fail("The error of the reader was not thrown");
+        } catch (IOException ex) {
+            assertEquals("Bad sector", ex.getCause().getMessage());
+        }
+    }
+}
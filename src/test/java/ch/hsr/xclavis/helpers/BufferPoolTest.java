@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class BufferPoolTest {
+
+    public BufferPoolTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of acquire and release methods, of class BufferPool.
+     */
+    @Test
+    public void testAcquireAndRelease() {
+        System.out.println("acquireAndRelease");
+        BufferPool pool = BufferPool.getShared();
+        assertEquals(4096, pool.acquire(1).length);
+        assertEquals(1024 * 1024, pool.acquire(1024 * 1024).length);
+        assertEquals(2 * 1024 * 1024, pool.acquire(1024 * 1024 + 16).length);
+        assertTrue(pool.acquire().length >= BufferPool.DEFAULT_SIZE);
+
+        byte[] buffer = pool.acquire(100000);
+        pool.release(buffer);
+        assertTrue(isReused(buffer, pool));
+
+        // Buffers outside of the size classes are not pooled
+        byte[] odd = new byte[5000];
+        pool.release(odd);
+        assertNotSame(odd, pool.acquire(5000));
+    }
+
+    /**
+     * Test of acquireExact method, of class BufferPool.
+     */
+    @Test
+    public void testAcquireExact() {
+        System.out.println("acquireExact");
+        BufferPool pool = BufferPool.getShared();
+        assertEquals(1024 * 1024 + 16, pool.acquireExact(1024 * 1024 + 16).length);
+        assertEquals(8192, pool.acquireExact(8192).length);
+
+        byte[] buffer = pool.acquireExact(300000 + 16);
+        pool.release(buffer);
+        boolean reused = false;
+        for (int i = 0; i < 64 && !reused; i++) {
+            reused = pool.acquireExact(buffer.length) == buffer;
+        }
+        assertTrue(reused);
+    }
+
+    /**
+     * Test of acquireDirect and releaseDirect methods, of class BufferPool.
+     */
+    @Test
+    public void testAcquireDirect() {
+        System.out.println("acquireDirect");
+        BufferPool pool = BufferPool.getShared();
+        ByteBuffer buffer = pool.acquireDirect(10000);
+        assertTrue(buffer.isDirect());
+        assertEquals(16384, buffer.capacity());
+        buffer.put((byte) 1);
+        pool.releaseDirect(buffer);
+        // Older buffers of the same class may be handed out first
+        ByteBuffer other = pool.acquireDirect(16384);
+        for (int i = 0; i < 64 && other != buffer; i++) {
+            other = pool.acquireDirect(16384);
+        }
+        assertSame(buffer, other);
+        assertEquals(0, other.position());
+        assertEquals(other.capacity(), other.limit());
+    }
+
+    private static boolean isReused(byte[] buffer, BufferPool pool) {
+        // Older buffers of the same class may be handed out first
+        for (int i = 0; i < 64; i++) {
+            if (pool.acquire(buffer.length) == buffer) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class MappedInputStreamTest {
+
+    private Path file;
+
+    public MappedInputStreamTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("xclavis", ".tmp");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Test of PositionalOutputStream and MappedInputStream, with data larger
+     * than the buffer and window sizes.
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        System.out.println("writeAndRead");
+        byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+
+        try (OutputStream os = new PositionalOutputStream(file, 4096)) {
+            os.write(data, 0, 10);
+            os.write(data[10]);
+            os.write(data, 11, data.length - 11);
+        }
+        assertArrayEquals(data, Files.readAllBytes(file));
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream is = new MappedInputStream(file, 3000)) {
+            assertEquals(data.length, is.available());
+            result.write(is.read());
+            byte[] buffer = new byte[1024];
+            int i;
+            while ((i = is.read(buffer)) != -1) {
+                result.write(buffer, 0, i);
+            }
+        }
+        assertArrayEquals(data, result.toByteArray());
+    }
+
+    /**
+     * Test of skip method, of class MappedInputStream.
+     */
+    @Test
+    public void testSkip() throws IOException {
+        System.out.println("skip");
+        byte[] data = new byte[10000];
+        new Random(2).nextBytes(data);
+        Files.write(file, data);
+
+        try (InputStream is = new MappedInputStream(file, 1000)) {
+            assertEquals(2500, is.skip(2500));
+            assertEquals(data[2500] & 0xFF, is.read());
+            assertEquals(data.length - 2501, is.skip(20000));
+            assertEquals(-1, is.read());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2015, Gian Poltéra
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1.	Redistributions of source code must retain the above copyright notice,
+ *   	this list of conditions and the following disclaimer.
+ * 2.	Redistributions in binary form must reproduce the above copyright 
+ *   	notice, this list of conditions and the following disclaimer in the 
+ *   	documentation and/or other materials provided with the distribution.
+ * 3.	Neither the name of HSR University of Applied Sciences Rapperswil nor 
+ * 	the names of its contributors may be used to endorse or promote products
+ * 	derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ch.hsr.xclavis.helpers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Gian
+ */
+public class TelemetryTest {
+
+    public TelemetryTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    /**
+     * Test of the counting streams, of class Telemetry.
+     */
+    @Test
+    public void testCountingStreams() throws IOException {
+        System.out.println("countingStreams");
+        Telemetry telemetry = new Telemetry();
+        telemetry.setProgress(Telemetry.Stage.READ, 20000);
+        telemetry.start();
+        assertEquals(0.0, telemetry.getProgress(), 0.0);
+
+        byte[] data = new byte[10000];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (InputStream is = new CountingInputStream(new ByteArrayInputStream(data), telemetry, Telemetry.Stage.READ);
+                OutputStream os = new CountingOutputStream(baos, telemetry, Telemetry.Stage.WRITE)) {
+            byte[] buffer = new byte[1000];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                os.write(buffer, 0, length);
+            }
+            os.write(1);
+        }
+        telemetry.stop();
+
+        assertEquals(10000, telemetry.getBytes(Telemetry.Stage.READ));
+        assertEquals(10001, telemetry.getBytes(Telemetry.Stage.WRITE));
+        assertEquals(0, telemetry.getBytes(Telemetry.Stage.CRYPTION));
+        assertEquals(10001, baos.size());
+        assertEquals(0.5, telemetry.getProgress(), 0.0);
+        assertTrue(telemetry.getRemainingTime() >= 0);
+        // READ, WRITE and the total
+        assertEquals(3, telemetry.getSummary().size());
+    }
+
+    /**
+     * Test of the exclusive times of nested calls, of class Telemetry.
+     */
+    @Test
+    public void testNestedTime() throws IOException {
+        System.out.println("nestedTime");
+        Telemetry telemetry = new Telemetry();
+        OutputStream slow = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                sleep(50);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                sleep(50);
+            }
+        };
+        try (OutputStream os = new CountingOutputStream(new CountingOutputStream(slow, telemetry, Telemetry.Stage.WRITE), telemetry, Telemetry.Stage.COMPRESSION)) {
+            os.write(new byte[100]);
+        }
+
+        // The time of the slow write belongs only to the inner stage
+        assertTrue(telemetry.getTime(Telemetry.Stage.WRITE) >= 40000000L);
+        assertTrue(telemetry.getTime(Telemetry.Stage.COMPRESSION) < 40000000L);
+        assertEquals(100, telemetry.getBytes(Telemetry.Stage.COMPRESSION));
+    }
+
+    /**
+     * Test of the throttled listener, of class Telemetry.
+     */
+    @Test
+    public void testListener() {
+        System.out.println("listener");
+        Telemetry telemetry = new Telemetry();
+        AtomicInteger calls = new AtomicInteger();
+        telemetry.setListener(calls::incrementAndGet);
+        for (int i = 0; i < 100000; i++) {
+            telemetry.add(Telemetry.Stage.READ, 1, 0);
+        }
+        assertEquals(100000, telemetry.getBytes(Telemetry.Stage.READ));
+        assertTrue(calls.get() >= 1);
+        assertTrue(calls.get() < 100);
+        assertEquals(-1, telemetry.getProgress(), 0.0);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            throw new IOException(ex);
+        }
+    }
+}